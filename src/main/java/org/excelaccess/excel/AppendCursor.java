@@ -0,0 +1,89 @@
+package org.excelaccess.excel;
+
+import org.excelaccess.excel.backend.RowBackend;
+import org.excelaccess.excel.backend.SheetBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ajout de lignes en fin de feuille pour une interface : la feuille et la première ligne de la zone sont résolues une
+ * seule fois, voir {@link ExcelAccessor#add(Class)}. <br/>
+ * La prochaine ligne est relue dans la feuille à chaque ajout, une lecture directe : les lignes ajoutées par une
+ * autre interface de la même feuille ne sont pas écrasées.
+ * 
+ * @param <T>
+ *            Classe représentant les données d'une ligne
+ * @author Loic Abemonty
+ */
+final class AppendCursor<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AppendCursor.class);
+
+    private final Class<T> clazz;
+
+    private final String sheetName;
+
+    private final SheetBackend sheet;
+
+    private final int startAtRow;
+
+    private final ColumnBinding columnBinding;
+
+    /**
+     * @param clazz
+     *            interface de ligne
+     * @param sheetName
+     *            nom de la feuille demandée
+     * @param sheet
+     *            feuille résolue
+     * @param startAtRow
+     *            première ligne de la zone
+     * @param columnBinding
+     *            colonnes désignées par leur libellé dans la feuille, null si l'interface n'en a pas
+     */
+    AppendCursor(Class<T> clazz, String sheetName, SheetBackend sheet, int startAtRow, ColumnBinding columnBinding) {
+        this.clazz = clazz;
+        this.sheetName = sheetName;
+        this.sheet = sheet;
+        this.startAtRow = startAtRow;
+        this.columnBinding = columnBinding;
+    }
+
+    /**
+     * Création d'une ligne après la dernière de la feuille, et au moins à la première ligne de la zone.
+     * 
+     * @return une représentation de la ligne créée
+     */
+    T add() {
+        ExcelRowInvocationHandler invocationHandler = new ExcelRowInvocationHandler(this.clazz, createRow());
+        invocationHandler.setColumnBinding(this.columnBinding);
+        return RowProxyFactory.newInstance(this.clazz, invocationHandler);
+    }
+
+    /**
+     * Création d'une ligne, sans objet la représentant.
+     * 
+     * @return la ligne créée
+     */
+    RowBackend createRow() {
+        int sheetLastRow = this.sheet.getLastRowNum();
+        int sheetNewRow = Math.max(this.startAtRow, sheetLastRow + 1);
+        RowBackend createdRow = null;
+        // avance un coup pour créer la prochaine ligne
+        for (int i = sheetLastRow + 1; i <= sheetNewRow; i++) {
+            createdRow = this.sheet.createRow(i);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Création de la ligne n°" + sheetNewRow + " dans la feuille " + this.sheetName);
+        }
+        return createdRow;
+    }
+
+    String getSheetName() {
+        return sheetName;
+    }
+
+    ColumnBinding getColumnBinding() {
+        return columnBinding;
+    }
+}
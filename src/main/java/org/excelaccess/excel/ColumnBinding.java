@@ -0,0 +1,86 @@
+package org.excelaccess.excel;
+
+import java.util.List;
+
+import org.excelaccess.excel.mapping.MethodMapping;
+import org.excelaccess.excel.mapping.RowMapping;
+
+/**
+ * Colonnes d'une interface de ligne désignées par leur libellé ({@link MethodMapping#getHeader()}), résolues pour
+ * une feuille : un tableau de numéros de colonne indexé par {@link MethodMapping#getHeaderSlot()}. Aucune recherche
+ * de libellé n'a lieu à l'appel des getters et setters ; le tableau n'est recalculé que si la ligne d'en-tête a été
+ * modifiée.
+ * 
+ * @author Loic Abemonty
+ */
+final class ColumnBinding {
+
+    private final List<String> headers;
+
+    private final HeaderTable headerTable;
+
+    private final String sheetName;
+
+    private int[] columns;
+
+    /**
+     * version de {@link #headerTable} ayant servi à calculer {@link #columns}.
+     */
+    private int version = -1;
+
+    /**
+     * @param mapping
+     *            interface avec des colonnes désignées par leur libellé, non null
+     * @param headerTable
+     *            en-tête de la feuille, non null
+     * @param sheetName
+     *            nom de la feuille
+     */
+    ColumnBinding(RowMapping mapping, HeaderTable headerTable, String sheetName) {
+        this.headers = mapping.getHeaders();
+        this.headerTable = headerTable;
+        this.sheetName = sheetName;
+    }
+
+    /**
+     * Numéro de colonne d'un libellé.
+     * 
+     * @param headerSlot
+     *            voir {@link MethodMapping#getHeaderSlot()}
+     * @return -1 si le libellé est absent de la ligne d'en-tête
+     */
+    int getColumn(int headerSlot) {
+        int tableVersion = this.headerTable.getVersion();
+        if (tableVersion != this.version) {
+            bind();
+            this.version = tableVersion;
+        }
+        return headerSlot < this.columns.length ? this.columns[headerSlot] : -1;
+    }
+
+    /**
+     * @return true si la ligne est la ligne d'en-tête
+     */
+    boolean isHeaderRow(int rowNum) {
+        return rowNum == this.headerTable.getRowNum();
+    }
+
+    /**
+     * La ligne d'en-tête a été modifiée : les colonnes seront résolues à nouveau.
+     */
+    void headerModified() {
+        this.headerTable.invalidate();
+    }
+
+    String getSheetName() {
+        return sheetName;
+    }
+
+    private void bind() {
+        int[] bound = new int[this.headers.size()];
+        for (int slot = 0; slot < bound.length; slot++) {
+            bound[slot] = this.headerTable.getColumn(this.headers.get(slot));
+        }
+        this.columns = bound;
+    }
+}
@@ -8,22 +8,34 @@ import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_STRING;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
 
-import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.excelaccess.excel.backend.PoiRowBackend;
+import org.excelaccess.excel.backend.PoiWorkbookBackend;
+import org.excelaccess.excel.backend.RowBackend;
+import org.excelaccess.excel.backend.SheetBackend;
+import org.excelaccess.excel.backend.WorkbookBackend;
+import org.excelaccess.excel.mapping.RowMapping;
+import org.excelaccess.excel.mapping.RowMappingRegistry;
 import org.excelaccess.excel.model.annotation.ExcelCell;
 import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.excelaccess.excel.stream.ProjectedWorkbookReader;
+import org.excelaccess.excel.stream.RowStreamReader;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Classe d'accès aux lignes d'un document excel. <br/>
+ * Classe d'accès aux lignes d'un document excel, au format .xls ou .xlsx. <br/>
  * 
  * @see #parse(int, Class)
  * @author Loic Abemonty
@@ -34,35 +46,135 @@ public class ExcelAccessor {
     private static final Logger LOGGER = LoggerFactory.getLogger(ExcelAccessor.class);
 
     /**
-     * Création d'une instance de ExcelAccessor d'après un fichier excel.
+     * Création d'une instance de ExcelAccessor d'après un fichier excel, .xls ou .xlsx.
      * 
      * @param excelInputStream
      *            input stream du fichier Excel
      * @return une instance
      * @throws IOException
-     *             si un soucis avec le flux binaire apparait
+     *             si un soucis avec le flux binaire apparait ou si le format n'est pas reconnu
      */
     public static ExcelAccessor getInstance(InputStream excelInputStream) throws IOException {
-        HSSFWorkbook workbook = new HSSFWorkbook(excelInputStream);
-        return new ExcelAccessor(workbook);
+        try {
+            Workbook workbook = WorkbookFactory.create(excelInputStream);
+            return new ExcelAccessor(workbook);
+        } catch (InvalidFormatException e) {
+            throw new IOException("Document .xlsx illisible", e);
+        }
     }
 
-    private final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    /**
+     * Création d'une instance de ExcelAccessor pour l'écriture d'un gros document .xlsx : seules les dernières lignes
+     * créées sont conservées en mémoire, les autres sont écrites dans un fichier temporaire. <br/>
+     * Les lignes ajoutées par {@link #add(Class)} ne sont plus accessibles une fois sorties de la fenêtre. Les lignes
+     * du modèle sont conservées, les ajouts se font à leur suite. Appeler {@link #dispose()} après
+     * {@link #write(OutputStream)}.
+     * 
+     * @param templateInputStream
+     *            input stream d'un fichier .xlsx servant de modèle, null pour un document vide
+     * @param rowAccessWindowSize
+     *            nombre de lignes conservées en mémoire
+     * @return une instance
+     * @throws IOException
+     *             si un soucis avec le flux binaire apparait
+     * @see SXSSFWorkbook
+     */
+    public static ExcelAccessor getStreamingInstance(InputStream templateInputStream, int rowAccessWindowSize)
+            throws IOException {
+        XSSFWorkbook template;
+        if (templateInputStream == null) {
+            template = new XSSFWorkbook();
+        } else {
+            template = new XSSFWorkbook(templateInputStream);
+        }
+        return new ExcelAccessor(new SXSSFWorkbook(template, rowAccessWindowSize));
+    }
 
-    private final HSSFWorkbook workbook;
+    /**
+     * Création d'une instance de ExcelAccessor en lecture seule : seules les colonnes déclarées par les interfaces de
+     * ligne sont chargées, les autres cellules ne sont pas décodées. <br/>
+     * Les lignes sont accessibles par {@link #parse(int, Class)} avec ces interfaces. Le document chargé ne contient
+     * ni styles ni formules (seulement leurs valeurs) et ne doit pas être réécrit.
+     * 
+     * @param excelInputStream
+     *            input stream du fichier Excel
+     * @param classes
+     *            les interfaces de ligne utilisées, annotées {@link ExcelDocument}
+     * @return une instance
+     * @throws IOException
+     *             si un soucis avec le flux binaire apparait
+     * @see ProjectedWorkbookReader
+     */
+    public static ExcelAccessor getReadOnlyInstance(InputStream excelInputStream, Class<?>... classes)
+            throws IOException {
+        ProjectedWorkbookReader reader = new ProjectedWorkbookReader(classes);
+        reader.read(excelInputStream);
+        return new ExcelAccessor(reader.getWorkbook());
+    }
+
+    /**
+     * Lecture au fil de l'eau des lignes d'un fichier excel, sans charger le document en mémoire : seule la ligne en
+     * cours est conservée. La feuille et la première ligne sont celles de {@link ExcelDocument}. <br/>
+     * Le flux n'est pas fermé.
+     * 
+     * @param <T>
+     *            la classe représentant une ligne
+     * @param excelInputStream
+     *            input stream du fichier Excel
+     * @param clazz
+     *            non null, annotée {@link ExcelDocument}
+     * @param consumer
+     *            le traitement de chaque ligne, non null
+     * @throws IOException
+     *             si un soucis avec le flux binaire apparait
+     * @see RowStreamReader
+     */
+    public static <T> void stream(InputStream excelInputStream, Class<T> clazz, RowConsumer<? super T> consumer)
+            throws IOException {
+        new RowStreamReader<T>(clazz, consumer).read(excelInputStream);
+    }
+
+    private final WorkbookBackend backend;
+
+    /**
+     * Ajouts en fin de feuille, par interface de ligne.
+     */
+    private final Map<Class<?>, AppendCursor<?>> appendCursors = new HashMap<Class<?>, AppendCursor<?>>();
+
+    /**
+     * Lignes d'en-tête lues, par nom de feuille puis numéro de ligne.
+     */
+    private final Map<String, Map<Integer, HeaderTable>> headerTables = new HashMap<String, Map<Integer, HeaderTable>>();
+
+    /**
+     * Colonnes désignées par leur libellé, par interface de ligne, dans la feuille de son annotation.
+     */
+    private final Map<Class<?>, ColumnBinding> columnBindings = new HashMap<Class<?>, ColumnBinding>();
 
     /**
      * Simple constructeur avec le workbook de l'api POI.
      * 
      * @param workbook
-     *            non null.
+     *            non null, .xls ou .xlsx.
+     */
+    public ExcelAccessor(Workbook workbook) {
+        this(new PoiWorkbookBackend(workbook));
+    }
+
+    /**
+     * Constructeur avec un stockage quelconque du document.
+     * 
+     * @param backend
+     *            non null
      */
-    public ExcelAccessor(HSSFWorkbook workbook) {
-        this.workbook = workbook;
+    public ExcelAccessor(WorkbookBackend backend) {
+        checkNotNull(backend, "backend");
+        this.backend = backend;
     }
 
     /**
-     * Ajoute un élément dans l'excel, une ligne normalement, en fin de tableau.
+     * Ajoute un élément dans l'excel, une ligne normalement, en fin de tableau. <br/>
+     * La feuille est résolue au premier ajout pour l'interface, les suivants ne font que créer la ligne.
      * 
      * @param <T>
      * @param clazz
@@ -70,22 +182,219 @@ public class ExcelAccessor {
      * @return une représentation de l'élément créé
      */
     public <T> T add(Class<T> clazz) {
+        return appendCursor(clazz).add();
+    }
+
+    /**
+     * Ajoute une ligne en fin de tableau par objet d'une collection. <br/>
+     * La feuille est résolue une seule fois et un seul objet ligne est utilisé pour tout le lot, repositionné sur
+     * chaque ligne créée (voir {@link RowCursor}) : seules restent la création de la ligne et l'écriture des cellules.
+     * 
+     * @param <S>
+     *            la classe des objets à écrire
+     * @param <T>
+     *            la classe représentant une ligne
+     * @param clazz
+     *            non null, annotée {@link ExcelDocument}
+     * @param sources
+     *            les objets à écrire, une ligne par objet
+     * @param writer
+     *            l'écriture d'un objet dans sa ligne, non null
+     * @return le nombre de lignes ajoutées
+     */
+    public <S, T> int addAll(Class<T> clazz, Iterable<? extends S> sources, RowWriter<? super S, ? super T> writer) {
+        checkNotNull(sources, "sources");
+        checkNotNull(writer, "writer");
+        AppendCursor<T> appendCursor = appendCursor(clazz);
+
+        ExcelRowInvocationHandler invocationHandler = null;
+        T row = null;
+        int count = 0;
+        for (S source : sources) {
+            RowBackend createdRow = appendCursor.createRow();
+            if (invocationHandler == null) {
+                invocationHandler = new ExcelRowInvocationHandler(clazz, createdRow);
+                invocationHandler.setColumnBinding(appendCursor.getColumnBinding());
+                row = RowProxyFactory.newInstance(clazz, invocationHandler);
+            } else {
+                invocationHandler.setRow(createdRow);
+            }
+            writer.write(source, row);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Ajouts en fin de la feuille déclarée par une interface, créé au premier ajout.
+     */
+    private <T> AppendCursor<T> appendCursor(Class<T> clazz) {
+        checkNotNull(clazz, "class");
+        @SuppressWarnings("unchecked")
+        AppendCursor<T> appendCursor = (AppendCursor<T>) this.appendCursors.get(clazz);
+        if (appendCursor == null) {
+            ExcelDocument excelDocumentDeclaration = clazz.getAnnotation(ExcelDocument.class);
+            if (excelDocumentDeclaration == null) {
+                throw new IllegalArgumentException("Class should be annotated with @ExcelDocument: "
+                        + clazz.getName());
+            }
+            appendCursor = newAppendCursor(clazz, excelDocumentDeclaration.sheetName(), excelDocumentDeclaration);
+            this.appendCursors.put(clazz, appendCursor);
+        }
+        return appendCursor;
+    }
+
+    private <T> AppendCursor<T> newAppendCursor(Class<T> clazz, String sheetName,
+            ExcelDocument excelDocumentDeclaration) {
+        if (this.backend.getNumberOfSheets() == 0) {
+            // document vide, en particulier pour une instance en écriture au fil de l'eau
+            this.backend.createSheet(sheetName);
+        }
+        SheetBackend sheet = getSheet(sheetName);
+        return new AppendCursor<T>(clazz, sheetName, sheet, excelDocumentDeclaration.startAtRow(),
+                getColumnBinding(clazz, sheetName, sheet));
+    }
+
+    /**
+     * Colonnes désignées par leur libellé ({@link ExcelCell#header()}) d'une interface dans une feuille. La ligne
+     * d'en-tête est lue une seule fois par feuille et les colonnes résolues une seule fois par interface, jusqu'à la
+     * modification de la ligne d'en-tête.
+     * 
+     * @param clazz
+     *            non null
+     * @param sheetName
+     *            nom de la feuille demandée
+     * @param sheet
+     *            feuille résolue, non null
+     * @return null si l'interface n'a pas de colonne désignée par son libellé
+     */
+    ColumnBinding getColumnBinding(Class<?> clazz, String sheetName, SheetBackend sheet) {
+        ColumnBinding columnBinding = this.columnBindings.get(clazz);
+        if (columnBinding != null && columnBinding.getSheetName().equals(sheetName)) {
+            return columnBinding;
+        }
+        RowMapping mapping = RowMappingRegistry.getMapping(clazz);
+        if (mapping.getHeaders().isEmpty()) {
+            return null;
+        }
+        Map<Integer, HeaderTable> sheetTables = this.headerTables.get(sheetName);
+        if (sheetTables == null) {
+            sheetTables = new HashMap<Integer, HeaderTable>();
+            this.headerTables.put(sheetName, sheetTables);
+        }
+        Integer headerRow = Integer.valueOf(mapping.getHeaderRow());
+        HeaderTable headerTable = sheetTables.get(headerRow);
+        if (headerTable == null) {
+            headerTable = new HeaderTable(sheet, headerRow.intValue());
+            sheetTables.put(headerRow, headerTable);
+        }
+        columnBinding = new ColumnBinding(mapping, headerTable, sheetName);
+        if (mapping.getExcelDocument() != null && sheetName.equals(mapping.getExcelDocument().sheetName())) {
+            this.columnBindings.put(clazz, columnBinding);
+        }
+        return columnBinding;
+    }
+
+    /**
+     * Les lignes d'en-tête d'une feuille, modifiées autrement que par les interfaces de ligne, seront relues à la
+     * prochaine utilisation des colonnes désignées par leur libellé.
+     * 
+     * @param sheetName
+     *            nom de la feuille
+     */
+    public void invalidateHeaders(String sheetName) {
+        Map<Integer, HeaderTable> sheetTables = this.headerTables.get(sheetName);
+        if (sheetTables != null) {
+            for (HeaderTable headerTable : sheetTables.values()) {
+                headerTable.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Parcours de toutes les lignes existantes de la feuille d'une interface, à partir de
+     * {@link ExcelDocument#startAtRow()}. La feuille est recherchée une seule fois et un seul objet ligne est utilisé
+     * par itération, voir {@link RowCursor}.
+     * 
+     * @param <T>
+     *            la classe représentant une ligne
+     * @param clazz
+     *            non null, annotée {@link ExcelDocument}
+     * @return non null
+     */
+    public <T> RowCursor<T> cursor(Class<T> clazz) {
+        checkNotNull(clazz, "class");
 
         ExcelDocument excelDocumentDeclaration = clazz.getAnnotation(ExcelDocument.class);
         if (excelDocumentDeclaration == null) {
             throw new IllegalArgumentException("Class should be annotated with @ExcelDocument: " + clazz.getName());
         }
         String sheetName = excelDocumentDeclaration.sheetName();
+        SheetBackend sheet = getSheet(sheetName);
+
+        return new RowCursor<T>(clazz, sheet, excelDocumentDeclaration.startAtRow(), getColumnBinding(clazz,
+                sheetName, sheet));
+    }
 
-        return add(clazz, sheetName);
+    /**
+     * Libération des fichiers temporaires d'une instance créée par {@link #getStreamingInstance(InputStream, int)}.
+     * Sans effet pour les autres instances.
+     */
+    public void dispose() {
+        this.backend.dispose();
     }
 
     /**
-     * Getter du format interne de l'excel utilisé. <br/>
+     * Getter du format interne de l'excel utilisé, pour un document .xls. <br/>
      * TODO loic - statuer sur le fait d'avoir ce getter.
+     * 
+     * @throws IllegalStateException
+     *             si le document n'est pas au format .xls
+     * @deprecated utiliser {@link #getWorkbook()}, valable pour tous les formats.
      */
+    @Deprecated
     public HSSFWorkbook getExcelWorkBook() {
-        return this.workbook;
+        Workbook workbook = getWorkbook();
+        if (!(workbook instanceof HSSFWorkbook)) {
+            throw new IllegalStateException("Le document n'est pas au format .xls");
+        }
+        return (HSSFWorkbook) workbook;
+    }
+
+    /**
+     * Getter du format interne de l'excel utilisé.
+     * 
+     * @throws IllegalStateException
+     *             si le document n'est pas stocké par POI
+     */
+    public Workbook getWorkbook() {
+        if (!(this.backend instanceof PoiWorkbookBackend)) {
+            throw new IllegalStateException("Le document n'est pas stocké par POI : " + this.backend);
+        }
+        return ((PoiWorkbookBackend) this.backend).getWorkbook();
+    }
+
+    /**
+     * Stockage du document.
+     */
+    public WorkbookBackend getBackend() {
+        return this.backend;
+    }
+
+    /**
+     * Recherche d'une feuille par son nom, la première feuille étant utilisée si elle n'existe pas.
+     * 
+     * @param sheetName
+     *            nom de la feuille
+     * @return null si le document n'a aucune feuille
+     */
+    public SheetBackend getSheet(String sheetName) {
+        SheetBackend sheet = this.backend.getSheet(sheetName);
+        if (sheet == null) {
+            LOGGER.warn("Impossible d'accéder à la feuille " + sheetName + " : utilisation de la première.");
+            sheet = this.backend.getSheetAt(0);
+        }
+        return sheet;
     }
 
     /**
@@ -121,25 +430,21 @@ public class ExcelAccessor {
      *             s'il est impossible d'écrire
      */
     public void write(OutputStream outputStream) throws IOException {
-        this.workbook.write(outputStream);
+        this.backend.write(outputStream);
     }
 
     private <T> T parse(Class<T> clazz, String sheetName, int rowNumber) {
 
-        int sheetIndex = this.workbook.getSheetIndex(sheetName);
-        if (sheetIndex < 0) {
-            sheetIndex = 0;
-            LOGGER.warn("Impossible d'accéder à la feuille " + sheetName + " : utilisation de la première.");
-        }
-        HSSFSheet sheet = this.workbook.getSheetAt(sheetIndex);
-        HSSFRow row = sheet.getRow(rowNumber);
+        SheetBackend sheet = getSheet(sheetName);
+        RowBackend row = sheet.getRow(rowNumber);
 
         if (row == null) {
             // impossible de gérer une ligne qui n'existe pas.
             return null;
         }
-        InvocationHandler invocationHandler = new ExcelRowInvocationHandler(clazz, row);
-        T proxy = clazz.cast(Proxy.newProxyInstance(classLoader, new Class<?>[] { clazz }, invocationHandler));
+        ExcelRowInvocationHandler invocationHandler = new ExcelRowInvocationHandler(clazz, row);
+        invocationHandler.setColumnBinding(getColumnBinding(clazz, sheetName, sheet));
+        T proxy = RowProxyFactory.newInstance(clazz, invocationHandler);
 
         return proxy;
     }
@@ -155,38 +460,34 @@ public class ExcelAccessor {
      * @return
      */
     protected <T> T add(Class<T> clazz, String sheetName) {
-
-        int sheetIndex = this.workbook.getSheetIndex(sheetName);
-        if (sheetIndex < 0) {
-            sheetIndex = 0;
-            LOGGER.warn("Impossible d'accéder à la feuille " + sheetName + " : utilisation de la première.");
-        }
-        HSSFSheet sheet = this.workbook.getSheetAt(sheetIndex);
-        ExcelDocument excelDocumentDeclaration = clazz.getAnnotation(ExcelDocument.class);
-
-        int sheetLastRow = sheet.getLastRowNum();
-        if (sheetLastRow == 0 && sheet.getPhysicalNumberOfRows() == 0) {
-            sheetLastRow = -1;
-        }
-        int sheetNewRow = excelDocumentDeclaration.startAtRow();
-        if (sheetNewRow <= sheetLastRow) {
-            sheetNewRow = sheetLastRow + 1;
-        }
-        HSSFRow createdRow = null;
-        // avance un coup pour créer la prochaine ligne
-        LOGGER.debug("Dernière ligne : " + sheetLastRow + " pour un démarrage à la ligne " + sheetNewRow);
-        for (int i = sheetLastRow + 1; i <= sheetNewRow; i++) {
-            createdRow = sheet.createRow(i);
-            LOGGER.debug("Création de la ligne n°" + i + " dans la feuille " + sheetName);
-        }
-
-        if (createdRow == null) {
-            LOGGER.warn("Impossible de créer une ligne dans la feuille " + sheetName);
-            return null;
+        @SuppressWarnings("unchecked")
+        AppendCursor<T> appendCursor = (AppendCursor<T>) this.appendCursors.get(clazz);
+        if (appendCursor == null || !appendCursor.getSheetName().equals(sheetName)) {
+            ExcelDocument excelDocumentDeclaration = clazz.getAnnotation(ExcelDocument.class);
+            appendCursor = newAppendCursor(clazz, sheetName, excelDocumentDeclaration);
+            if (sheetName.equals(excelDocumentDeclaration.sheetName())) {
+                // seule la feuille de l'annotation est utilisée par add(Class)
+                this.appendCursors.put(clazz, appendCursor);
+            }
         }
+        return appendCursor.add();
+    }
 
-        return parse(clazz, sheetName, createdRow.getRowNum());
-        // return initializeRow(createdRow, clazz);
+    /**
+     * Initialization d'une ligne POI avec création de cellule vide.
+     * 
+     * @param <T>
+     * @param row
+     *            la ligne à remplir, non null
+     * @param clazz
+     *            , la classe qui va accéder à la ligne
+     * @return l'objet représentant la ligne
+     * @deprecated utiliser {@link #initializeRow(RowBackend, Class)}, la ligne est enveloppée dans un
+     *             {@link PoiRowBackend}.
+     */
+    @Deprecated
+    protected <T> T initializeRow(Row row, Class<T> clazz) {
+        return initializeRow(new PoiRowBackend(row), clazz);
     }
 
     /**
@@ -199,7 +500,7 @@ public class ExcelAccessor {
      *            , la classe qui va accéder à la ligne
      * @return l'objet représentant la ligne
      */
-    protected <T> T initializeRow(HSSFRow row, Class<T> clazz) {
+    protected <T> T initializeRow(RowBackend row, Class<T> clazz) {
 
         // détermination de la dernière cellule
         int lastCellIdx = 0;
@@ -227,16 +528,15 @@ public class ExcelAccessor {
         }
         // création de toutes les autres cellules au type Blank
         for (int i = 0; i < lastCellIdx; i++) {
-            HSSFCell cell = row.getCell(i);
-            if (cell == null) {
+            if (!row.hasCell(i)) {
                 row.createCell(i, CELL_TYPE_BLANK);
                 LOGGER.debug("création de la cellule de remplissage " + i + "(" + CELL_TYPE_BLANK + ")");
             }
         }
 
         // création du proxy de la ligne
-        InvocationHandler invocationHandler = new ExcelRowInvocationHandler(clazz, row);
-        T proxy = clazz.cast(Proxy.newProxyInstance(classLoader, new Class<?>[] { clazz }, invocationHandler));
+        ExcelRowInvocationHandler invocationHandler = new ExcelRowInvocationHandler(clazz, row);
+        T proxy = RowProxyFactory.newInstance(clazz, invocationHandler);
         return proxy;
     }
 }
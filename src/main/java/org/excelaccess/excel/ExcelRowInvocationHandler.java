@@ -2,26 +2,29 @@ package org.excelaccess.excel;
 
 import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_BLANK;
 import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_NUMERIC;
-import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_STRING;
+import java.lang.reflect.Array;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
-import java.math.BigDecimal;
-import java.text.NumberFormat;
-import java.text.ParseException;
-import java.util.Date;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
 import java.util.IllegalFormatException;
-import java.util.Locale;
 import org.apache.commons.lang.NotImplementedException;
-import org.apache.commons.lang.StringUtils;
-import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFRow;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.excelaccess.excel.backend.PoiRowBackend;
+import org.excelaccess.excel.backend.RowBackend;
+import org.excelaccess.excel.convert.CellConverter;
+import org.excelaccess.excel.convert.ConverterRegistry;
+import org.excelaccess.excel.convert.OutputFormat;
+import org.excelaccess.excel.mapping.MethodKind;
+import org.excelaccess.excel.mapping.MethodMapping;
+import org.excelaccess.excel.mapping.RowMapping;
+import org.excelaccess.excel.mapping.RowMappingRegistry;
 import org.excelaccess.excel.model.annotation.ExcelCell;
 import org.excelaccess.excel.model.annotation.ExcelCellFormat;
-import org.excelaccess.excel.model.annotation.ExcelInternal;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.excelaccess.excel.model.annotation.ExcelInternalEnum;
 import org.excelaccess.excel.model.annotation.RepeatableExcelCell;
-import org.excelaccess.excel.utils.ExcelHandlerUtils;
-import org.excelaccess.excel.utils.ExcelUtils;
-import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,114 +50,102 @@ public class ExcelRowInvocationHandler implements InvocationHandler {
    *          décalage après la première cellule concernée
    * @return null s'il est impossible de créer la cellule
    */
-  public static HSSFCell createCellFromMethod(HSSFRow row, Method method, int columnDelta) {
-    HSSFCell cell = null;
-    
+  public static Cell createCellFromMethod(Row row, Method method, int columnDelta) {
     if (row == null | method == null) {
       LOGGER.warn("Impossible de créer la cellule voulue, la ligne n'existe pas ou la méthode d'application est incorrecte");
       return null;
     }
-    ExcelCell excelCell = ExcelHandlerUtils.getAnnotation(ExcelCell.class, method);
-    if (excelCell == null) {
-      LOGGER.warn("Impossible de créer la cellule voulue, la méthode ne possède pas l'annotation ExcelCell (" + method.getName() + ")");
-      return null;
-    }
-    
-    // on crée la cellule avec le type qui nous intérèsse
-    Class<?> returnType = method.getReturnType();
-    if (void.class.equals(returnType)) {
-      // probablement le cas d'un setter
-      // nous allons nous baser sur le premier paramètre
-      Class<?>[] parameterTypes = method.getParameterTypes();
-      if (parameterTypes.length < 1) {
-        // cas non géré
-        LOGGER.warn("Impossible de créer une cellule à partir d'une cellule sans type de retour et avec des paramètres vides.");
-        return null;
-      }
-      returnType = parameterTypes[0];
-    }
-    
-    // FIXME loic - mieux gérer les types, genre "tous les numériques" ...
-    // détermination du type de cellule
-    int cellTypeId = CELL_TYPE_BLANK;
-    if (String.class.equals(returnType)) {
-      cellTypeId = CELL_TYPE_STRING;
-    } else if (DateTime.class.equals(returnType) || Date.class.equals(returnType)) {
-      // Loic : gestion native des dates, plus propre. (anciennement gestion des dates par un type String)
-      cellTypeId = CELL_TYPE_NUMERIC;
-    } else if (int.class.equals(returnType) || Integer.class.equals(returnType)) {
-      cellTypeId = CELL_TYPE_NUMERIC;
-    } else if (Double.class.equals(returnType)) {
-      cellTypeId = CELL_TYPE_NUMERIC;
-    } else if (Float.class.equals(returnType)) {
-      cellTypeId = CELL_TYPE_NUMERIC;
-    } else if (Long.class.equals(returnType)) {
-      cellTypeId = CELL_TYPE_NUMERIC;
-    } else if (BigDecimal.class.equals(returnType)) {
-      cellTypeId = CELL_TYPE_NUMERIC;
-    }
-    
-    int cellColumnId = getColumnIdForMethod(excelCell);
-    if (cellTypeId != CELL_TYPE_BLANK) {
-      cell = row.createCell(cellColumnId + columnDelta, cellTypeId);
-      LOGGER.debug("création de la cellule " + cellColumnId + columnDelta + "(" + cellTypeId + ", " + returnType.getName() + ")");
-    } else {
-      LOGGER.warn("création de la cellule " + cellColumnId + columnDelta + " non effectuée, type non géré : " + method.getName() + " -> "
-          + returnType.getName());
-    }
-    
-    return cell;
+    MethodMapping methodMapping = RowMappingRegistry.getMapping(method.getDeclaringClass()).getMethodMapping(method);
+    return createCellFromMethod(row, methodMapping, columnDelta);
   }
   
   /**
-   * Détermine le numéro de la colonne d'une méthode. Gestion des lettres et des chiffres.
+   * Création d'une cellule dans une ligne POI d'après la description précalculée d'une méthode.
    * 
-   * @param excelCell
+   * @param row
    *          non null
-   * @see ExcelCell
-   * @return le numéro de la colonne, 0-based
+   * @param methodMapping
+   *          non null et avec l'annotation {@link ExcelCell}
+   * @param columnDelta
+   *          décalage après la première cellule concernée
+   * @return null s'il est impossible de créer la cellule
+   * @deprecated utiliser {@link #createCellFromMethod(RowBackend, MethodMapping, int)}, la ligne est enveloppée dans
+   *             un {@link PoiRowBackend}.
    */
-  private static int getColumnIdForMethod(ExcelCell excelCell) {
-    int columnNumber = 0;
-    if (excelCell != null) {
-      columnNumber = excelCell.value();
-      if (columnNumber == 0 && StringUtils.isNotBlank(excelCell.name())) {
-        columnNumber = ExcelUtils.computeColumnIndexFromLetters(excelCell.name());
-      }
+  @Deprecated
+  public static Cell createCellFromMethod(Row row, MethodMapping methodMapping, int columnDelta) {
+    if (!createCellFromMethod(new PoiRowBackend(row), methodMapping, columnDelta)) {
+      return null;
     }
-    return columnNumber;
+    return row.getCell(methodMapping.getColumn() + columnDelta);
   }
   
   /**
-   * Détermine le numéro de la colonne d'une méthode. Gestion des lettres et des chiffres.
+   * Création d'une cellule dans une ligne d'après la description précalculée d'une méthode.
    * 
-   * @see ExcelCell
-   * @param method
-   * @return le numéro de la colonne, 0-based
+   * @param row
+   *          non null
+   * @param methodMapping
+   *          non null et avec l'annotation {@link ExcelCell}
+   * @param columnDelta
+   *          décalage après la première cellule concernée
+   * @return false s'il est impossible de créer la cellule
    */
-  private static int getColumnIdForMethod(Method method) {
-    ExcelCell excelCell = ExcelHandlerUtils.getAnnotation(ExcelCell.class, method);
-    return getColumnIdForMethod(excelCell);
+  public static boolean createCellFromMethod(RowBackend row, MethodMapping methodMapping, int columnDelta) {
+    return createCell(row, methodMapping, methodMapping.getColumn(), columnDelta);
   }
   
   /**
-   * vérifie qu'un nom de méthode est un nom de getter, en <tt>"getXxx()"</tt> , <tt>"hasXxx()"</tt> ou <tt>"isXxx()"</tt>, mais pas
-   * <tt>"isNullXxx()"</tt>.
+   * Création d'une cellule à partir d'une colonne déjà résolue, voir {@link ColumnBinding}.
    */
-  private static boolean isMethodNameGetter(final String methodName) {
+  private static boolean createCell(RowBackend row, MethodMapping methodMapping, int cellColumnId, int columnDelta) {
+    Method method = methodMapping.getMethod();
+    if (methodMapping.getExcelCell() == null) {
+      LOGGER.warn("Impossible de créer la cellule voulue, la méthode ne possède pas l'annotation ExcelCell (" + method.getName() + ")");
+      return false;
+    }
     
-    return methodName.startsWith("get") || methodName.startsWith("has")
-        || (methodName.startsWith("is") && !methodName.startsWith("isNull"));
-  }
-  
-  private static boolean isMethodNameSetter(final String methodName) {
-    return methodName.startsWith("set");
+    // on crée la cellule avec le type qui nous intérèsse
+    Class<?> returnType = methodMapping.getValueType();
+    if (returnType == null) {
+      // cas non géré
+      LOGGER.warn("Impossible de créer une cellule à partir d'une cellule sans type de retour et avec des paramètres vides.");
+      return false;
+    }
+    
+    int cellTypeId = methodMapping.getCellType();
+    if (cellTypeId != CELL_TYPE_BLANK) {
+      row.createCell(cellColumnId + columnDelta, cellTypeId);
+      LOGGER.debug("création de la cellule " + cellColumnId + columnDelta + "(" + cellTypeId + ", " + returnType.getName() + ")");
+      return true;
+    }
+    LOGGER.warn("création de la cellule " + cellColumnId + columnDelta + " non effectuée, type non géré : " + method.getName() + " -> "
+        + returnType.getName());
+    return false;
   }
   
-  private final HSSFRow row;
+  private RowBackend row;
   
   private final Class<?> type;
   
+  private final RowMapping mapping;
+  
+  /**
+   * colonnes désignées par leur libellé, null si l'interface n'en a pas ou si la feuille est inconnue.
+   */
+  private ColumnBinding columnBinding;
+  
+  /**
+   * valeurs lues, par numéro de colonne ; null si l'interface ne les conserve pas, voir {@link ExcelDocument#cacheValues()}.
+   */
+  private Object[] values;
+  
+  /**
+   * getter ayant lu chaque valeur de {@link #values}, null pour une colonne non lue ou modifiée : une valeur n'est
+   * rendue qu'au getter qui l'a lue, deux getters d'une même colonne (types ou formats différents) ne la partagent pas.
+   */
+  private MethodMapping[] readers;
+  
   /**
    * Création du handler qui va s'occuper de gérer les méthodes du proxy pour une ligne particulière représentée par une classe spécifique.
    * 
@@ -162,56 +153,127 @@ public class ExcelRowInvocationHandler implements InvocationHandler {
    *          not null
    * @param row
    *          not null
+   * @deprecated utiliser {@link #ExcelRowInvocationHandler(Class, RowBackend)}, la ligne est enveloppée dans un
+   *             {@link PoiRowBackend}.
    */
-  public ExcelRowInvocationHandler(Class<?> clazz, HSSFRow row) {
+  @Deprecated
+  public ExcelRowInvocationHandler(Class<?> clazz, Row row) {
+    this(clazz, row == null ? null : new PoiRowBackend(row));
+  }
+  
+  /**
+   * Création du handler pour une ligne d'un stockage quelconque.
+   * 
+   * @param clazz
+   *          not null
+   * @param row
+   *          not null
+   * @see org.excelaccess.excel.backend.WorkbookBackend
+   */
+  public ExcelRowInvocationHandler(Class<?> clazz, RowBackend row) {
     if (clazz == null || row == null) {
       throw new IllegalArgumentException("La classe représentant la ligne ou la ligne elle-même est null.");
     }
     this.type = clazz;
     this.row = row;
+    this.mapping = RowMappingRegistry.getMapping(clazz);
+    if (this.mapping.isCacheValues()) {
+      this.values = new Object[0];
+      this.readers = new MethodMapping[0];
+    }
   }
   
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     
-    final String methodName = method.getName();
-    final boolean noArg = (args == null) || args.length == 0;
-    
-    // vérification de la présence d'une méthode interne
-    ExcelInternal excelInternal = ExcelHandlerUtils.getAnnotation(ExcelInternal.class, method);
-    if (excelInternal != null) {
-      // accès à des données internes.
-      return doInternalMethod(excelInternal);
-    }
-    
-    if ("toString".equals(methodName) && noArg) {
-      return doToString();
-    } else if ("hashCode".equals(methodName) && noArg) {
-      return doHashCode();
-    } else if ("equals".equals(methodName) && !noArg && args.length == 1) {
-      return doEquals(proxy, args[0]);
-    } else if (isMethodNameGetter(methodName)) {
-      if (noArg) {
-        return doGet(method);
-      } else {
-        if (args.length == 1 && Integer.class.equals(args[0].getClass())) {
+    final MethodMapping methodMapping = this.mapping.getMethodMapping(method);
+    
+    switch (methodMapping.getKind()) {
+      case INTERNAL:
+        // accès à des données internes.
+        return doInternalMethod(methodMapping.getExcelInternal());
+      case TO_STRING:
+        return doToString();
+      case HASH_CODE:
+        return doHashCode();
+      case EQUALS:
+        return doEquals(proxy, args[0]);
+      case GETTER:
+        return doGet(methodMapping, -1);
+      case INDEXED_GETTER:
+        if (args[0] instanceof Integer) {
           // getter indexé
-          return doGet(method, (Integer)args[0]);
+          return doGet(methodMapping, (Integer)args[0]);
         }
-        // else return null
-      }
-    } else if (isMethodNameSetter(methodName) && !noArg) {
-      if (args.length == 1) {
+        return null;
+      case SETTER:
         // setter classique
-        return doSet(method, args[0]);
-      } else if (args.length == 2 && args[0] != null && Integer.class.equals(args[0].getClass())) {
-        // setter indexé
-        return doSet(method, (Integer)args[0], args[1]);
-      }
-      // else return null
+        return doSet(methodMapping, -1, args[0]);
+      case INDEXED_SETTER:
+        if (args[0] instanceof Integer) {
+          // setter indexé
+          return doSet(methodMapping, (Integer)args[0], args[1]);
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+  
+  /**
+   * Traitement d'une méthode déjà décrite, sans passer par la réflexion : point d'entrée des implémentations générées
+   * par {@link org.excelaccess.excel.processor.ExcelDocumentProcessor}.
+   * 
+   * @param methodMapping
+   *          la description de la méthode, non null
+   * @param index
+   *          l'index des méthodes indexées ; 0-based ; non considéré si négatif
+   * @param value
+   *          la valeur des setters
+   * @return la valeur lue pour un getter, la cellule modifiée pour un setter
+   */
+  public Object handle(MethodMapping methodMapping, int index, Object value) {
+    switch (methodMapping.getKind()) {
+      case INTERNAL:
+        try {
+          return doInternalMethod(methodMapping.getExcelInternal());
+        } catch (IllegalAccessException e) {
+          // même comportement qu'au travers du proxy
+          throw new UndeclaredThrowableException(e);
+        }
+      case GETTER:
+      case INDEXED_GETTER:
+        return doGet(methodMapping, index);
+      case SETTER:
+      case INDEXED_SETTER:
+        return doSet(methodMapping, index, value);
+      default:
+        return null;
+    }
+  }
+  
+  /**
+   * Méthodes de {@link Object} d'une implémentation générée, traitées comme au travers du proxy.
+   * 
+   * @param kind
+   *          {@link MethodKind#TO_STRING}, {@link MethodKind#HASH_CODE} ou {@link MethodKind#EQUALS}
+   * @param row
+   *          l'objet représentant la ligne
+   * @param other
+   *          l'objet comparé par <tt>equals</tt>
+   * @return le résultat de la méthode
+   */
+  public Object handleObjectMethod(MethodKind kind, Object row, Object other) {
+    switch (kind) {
+      case TO_STRING:
+        return doToString();
+      case HASH_CODE:
+        return doHashCode();
+      case EQUALS:
+        return doEquals(row, other);
+      default:
+        throw new IllegalArgumentException("Méthode de Object attendue : " + kind);
     }
-    
-    return null;
   }
   
   private Object doEquals(Object proxy, Object object) {
@@ -222,14 +284,14 @@ public class ExcelRowInvocationHandler implements InvocationHandler {
     throw new NotImplementedException();
   }
   
-  private Object doInternalMethod(ExcelInternal excelInternal) throws IllegalAccessException {
+  private Object doInternalMethod(ExcelInternalEnum excelInternal) throws IllegalAccessException {
     
-    switch (excelInternal.value()) {
+    switch (excelInternal) {
       case ROW_LINE:
         return this.row.getRowNum();
       default:
         // aucune autre méthode n'est géré en ExcelInternal
-        throw new IllegalAccessException("méthode interne inconnue (" + excelInternal.value() + ")");
+        throw new IllegalAccessException("méthode interne inconnue (" + excelInternal + ")");
     }
   }
   
@@ -238,36 +300,33 @@ public class ExcelRowInvocationHandler implements InvocationHandler {
   }
   
   /**
-   * /** Recherche d'une cellule d'après l'annotation d'une méthode.
+   * lit la valeur d'une cellule, en la convertissant dans le bon type. <br/>
+   * <b>Il y a des problèmes de lecture d'un excel car des cases sont positionnées automatiquement par POI sur un type (double par exemple)
+   * et on veut les lire sur un autre type (String).</b>
    * 
    * @param method
-   *          non null
-   * @param columnDelta
-   *          le décalage de l'index de la méthode
-   * @return null si non trouvé
-   * @see ExcelCell
-   * @see RepeatableExcelCell
+   *          la méthode <em>getter</em> correspondante.
+   * @return la valeur lue.
    */
-  private HSSFCell getCellForMethod(Method method, int columnDelta) {
-    int columnNumber = getColumnIdForMethod(method);
-    HSSFCell cell = getRow().getCell(columnNumber + columnDelta);
+  protected Object doGet(Method method) {
+    
+    return doGet(method, -1);
     
-    return cell;
   }
   
   /**
-   * lit la valeur d'une cellule, en la convertissant dans le bon type. <br/>
-   * <b>Il y a des problèmes de lecture d'un excel car des cases sont positionnées automatiquement par POI sur un type (double par exemple)
-   * et on veut les lire sur un autre type (String).</b>
+   * lit la valeur d'une cellule, en la convertissant dans le bon type.
    * 
    * @param method
    *          la méthode <em>getter</em> correspondante.
+   * @param index
+   *          le décalage dans la lecteur de la méthode ; 0-based ; non considéré si négatif
    * @return la valeur lue.
+   * @see #doGet(MethodMapping, int)
    */
-  protected Object doGet(Method method) {
-    
-    return doGet(method, -1);
+  protected Object doGet(Method method, Integer index) {
     
+    return doGet(this.mapping.getMethodMapping(method), index);
   }
   
   /**
@@ -275,184 +334,86 @@ public class ExcelRowInvocationHandler implements InvocationHandler {
    * <b>Il y a des problèmes de lecture d'un excel car des cases sont positionnées automatiquement par POI sur un type (double par exemple)
    * et on veut les lire sur un autre type (String).</b>
    * 
-   * @param method
-   *          la méthode <em>getter</em> correspondante.
+   * @param methodMapping
+   *          la description de la méthode <em>getter</em> correspondante.
    * @param index
    *          le décalage dans la lecteur de la méthode ; 0-based ; non considéré si négatif
-   * @return la valeur lue.
+   * @return la valeur lue ; pour une cellule absente, vide ou illisible null, ou la valeur par défaut d'un type primitif
+   *         ({@link MethodMapping#getDefaultValue()}) ; null pour un index hors des bornes de la répétition.
    * @see RepeatableExcelCell
    */
-  protected Object doGet(Method method, Integer index) {
+  protected Object doGet(MethodMapping methodMapping, int index) {
     
-    int columnDelta = 0;
-    if (index >= 0) {
-      RepeatableExcelCell repeatableExcelCell = ExcelHandlerUtils.getAnnotation(RepeatableExcelCell.class, method);
-      if (repeatableExcelCell == null || repeatableExcelCell.size() <= index) {
-        // si l'index est supérieur à zéro il faut cette annotation et que la taille de l'annotation soit
-        // correcte
-        return null;
-      }
-      columnDelta = index + (index * repeatableExcelCell.jump());
+    if (methodMapping.isArray() && index < 0) {
+      return doGetArray(methodMapping);
     }
     
-    HSSFCell cell = getCellForMethod(method, columnDelta);
-    
-    if (cell == null) {
+    int columnDelta = methodMapping.getColumnDelta(index);
+    if (columnDelta < 0) {
+      // index hors des bornes de la répétition
       return null;
     }
     
-    // éventuel formatage de la cellule
-    ExcelCellFormat excelCellFormatable = ExcelHandlerUtils.getAnnotation(ExcelCellFormat.class, method);
-    Locale locale = null;
-    NumberFormat numberFormat = null;
-    if (excelCellFormatable != null && excelCellFormatable.localLanguage() != null) {
-      locale = new Locale(excelCellFormatable.localLanguage());
-    } else {
-      locale = Locale.getDefault();
-    }
-    
-    numberFormat = NumberFormat.getInstance(locale);
-    
-    int cellType = cell.getCellType();
+    Object value = getCachedValue(methodMapping, columnDelta);
+    // une cellule vide ne peut pas rendre null pour un type primitif
+    return value == null ? methodMapping.getDefaultValue() : value;
+  }
+  
+  /**
+   * Valeur d'une cellule, conservée si l'interface le demande.
+   * 
+   * @return null pour une cellule absente, vide ou illisible
+   */
+  private Object getCachedValue(MethodMapping methodMapping, int columnDelta) {
     
-    // Si la cellule est vide nous retournons vide
-    if (CELL_TYPE_BLANK == cellType) {
+    final int baseColumn = getBaseColumn(methodMapping);
+    if (baseColumn < 0) {
+      // libellé absent de l'en-tête
       return null;
     }
-    
-    final Class<?> type = method.getReturnType();
-    if (String.class.equals(type)) {
-      if (CELL_TYPE_STRING == cellType) {
-        return cell.getStringCellValue();
-      } else {
-        // numerique version, ne renvoie pas d'erreur si ce n'est pas une string
-        return String.format("%d", Double.valueOf(cell.getNumericCellValue()).intValue());
-      }
+    final int column = baseColumn + columnDelta;
+    if (this.values == null) {
+      return readValue(methodMapping, column);
     }
-    
-    if (Date.class.equals(type)) {
-      if (CELL_TYPE_STRING == cellType) {
-        try {
-          String stringCellValue = cell.getStringCellValue();
-          if (StringUtils.isBlank(stringCellValue)) {
-            return null;
-          }
-          return new DateTime(stringCellValue).toDate();
-        } catch (IllegalArgumentException e) {
-          return null;
-        }
-      } else {
-        final Date date = cell.getDateCellValue();
-        if (date == null) {
-          return null;
-        }
-        return date;
-      }
-    }
-    
-    if (DateTime.class.equals(type) || Date.class.equals(type)) {
-      if (CELL_TYPE_STRING == cellType) {
-        try {
-          String stringCellValue = cell.getStringCellValue();
-          if (StringUtils.isBlank(stringCellValue)) {
-            return null;
-          }
-          return new DateTime(stringCellValue);
-        } catch (IllegalArgumentException e) {
-          return null;
-        }
-      } else {
-        final Date date = cell.getDateCellValue();
-        if (date == null) {
-          return null;
-        }
-        return new DateTime(date.getTime());
-      }
+    if (column < this.readers.length && this.readers[column] == methodMapping) {
+      return this.values[column];
     }
-    
-    /*
-     * TODO (loic) : cette gestion des types numériques ne me plait pas, est-ce qu'un type primitif peut renvoyer null? Je ne pense pas.
-     */
-    if (int.class.equals(type) || Integer.class.equals(type)) {
-      if (CELL_TYPE_STRING == cellType) {
-        String value = cell.getStringCellValue();
-        if (StringUtils.isNotBlank(value)) {
-          return Integer.parseInt(value);
-        }
-        return null;
-      } else {
-        return Double.valueOf(cell.getNumericCellValue()).intValue();
-      }
+    Object value = readValue(methodMapping, column);
+    if (column >= this.values.length) {
+      this.values = Arrays.copyOf(this.values, column + 1);
+      this.readers = Arrays.copyOf(this.readers, column + 1);
     }
-    if (long.class.equals(type) || Long.class.equals(type)) {
-      if (CELL_TYPE_STRING == cellType) {
-        String value = cell.getStringCellValue();
-        if (StringUtils.isNotBlank(value)) {
-          try {
-            return numberFormat.parse(value).longValue();
-          } catch (ParseException e) {
-            return null;
-          }
-        }
-        return null;
-      } else {
-        return Double.valueOf(cell.getNumericCellValue()).longValue();
-      }
+    this.values[column] = value;
+    this.readers[column] = methodMapping;
+    return value;
+  }
+  
+  /**
+   * Lecture et conversion de la valeur d'une cellule.
+   */
+  private Object readValue(MethodMapping methodMapping, int column) {
+    if (!this.row.hasCell(column)) {
+      return null;
     }
     
-    if (double.class.equals(type) || Double.class.equals(type)) {
-      if (CELL_TYPE_STRING == cellType) {
-        String value = cell.getStringCellValue();
-        if (StringUtils.isNotBlank(value)) {
-          try {
-            return numberFormat.parse(value).doubleValue();
-          } catch (ParseException e) {
-            return null;
-          }
-        }
-        return null;
-      } else {
-        return Double.valueOf(cell.getNumericCellValue());
-      }
-    }
+    int cellType = this.row.getCellType(column);
     
-    if (float.class.equals(type) || Float.class.equals(type)) {
-      if (CELL_TYPE_STRING == cellType) {
-        String value = cell.getStringCellValue();
-        if (StringUtils.isNotBlank(value)) {
-          try {
-            return numberFormat.parse(value).floatValue();
-          } catch (ParseException e) {
-            return null;
-          }
-        }
-        return null;
-      } else {
-        return Double.valueOf(cell.getNumericCellValue()).floatValue();
-      }
+    // Si la cellule est vide nous retournons vide
+    if (CELL_TYPE_BLANK == cellType) {
+      return null;
     }
     
-    if (BigDecimal.class.equals(type)) {
-      if (CELL_TYPE_STRING == cellType) {
-        String value = cell.getStringCellValue();
-        if (StringUtils.isNotBlank(value)) {
-          try {
-            return BigDecimal.valueOf(numberFormat.parse(value).longValue());
-          } catch (ParseException e) {
-            return null;
-          }
-        }
-        return null;
-      } else {
-        return BigDecimal.valueOf(cell.getNumericCellValue());
-      }
+    final CellConverter<Object> converter = methodMapping.getConverter();
+    if (converter != null) {
+      return converter.read(this.row, column, cellType, methodMapping);
     }
     
+    final Class<?> type = methodMapping.getMethod().getReturnType();
     throw new NotImplementedException("type: " + type.getName());
   }
   
   /**
-   * Gestion des getters indexés (avec un index) d'après la position de départ.
+   * Gestion des setters indexés (avec un index) d'après la position de départ.
    * 
    * @param method
    *          la méthode non null
@@ -460,59 +421,77 @@ public class ExcelRowInvocationHandler implements InvocationHandler {
    *          l'index ; 0-based ; non considéré si négatif
    * @param object
    *          l'objet à setter
-   * @return la cellule modifiée, null si rien ne s'est passé (cellule non trouvé)
+   * @return la ligne modifiée, null si rien ne s'est passé (cellule non trouvé)
+   * @see #doSet(MethodMapping, int, Object)
    */
   protected Object doSet(Method method, Integer index, Object object) {
+    
+    return doSet(this.mapping.getMethodMapping(method), index, object);
+  }
+  
+  /**
+   * Gestion des setters indexés (avec un index) d'après la position de départ.
+   * 
+   * @param methodMapping
+   *          la description de la méthode, non null
+   * @param index
+   *          l'index ; 0-based ; non considéré si négatif
+   * @param object
+   *          l'objet à setter
+   * @return la ligne modifiée, null si rien ne s'est passé (cellule non trouvé)
+   */
+  protected Object doSet(MethodMapping methodMapping, int index, Object object) {
+    if (methodMapping.isArray() && index < 0) {
+      return doSetArray(methodMapping, object);
+    }
+    
     Object value = BLANK_STRING_VALUE;
     
     value = object;
     
-    int columnDelta = 0;
-    if (index >= 0) {
-      RepeatableExcelCell repeatableExcelCell = ExcelHandlerUtils.getAnnotation(RepeatableExcelCell.class, method);
-      if (repeatableExcelCell == null || repeatableExcelCell.size() <= index) {
-        // si l'index est supérieur à zéro il faut cette annotation et que la taille de l'annotation soit
-        // correcte
-        return null;
-      }
-      columnDelta = index + (index * repeatableExcelCell.jump());
+    int columnDelta = methodMapping.getColumnDelta(index);
+    if (columnDelta < 0) {
+      return null;
     }
     
-    // ExcelCell excelCell = ExcelHandlerUtils.getCellAnnotation(method);
-    // int columnNumber = excelCell.value();
-    // HSSFCell cell = this.row.getCell(columnNumber + columnDelta);
-    
-    HSSFCell cell = getCellForMethod(method, columnDelta);
-    
-    if (cell == null) {
-      cell = createCellFromMethod(this.row, method, columnDelta);
-      if (cell == null) {
+    final int baseColumn = getBaseColumn(methodMapping);
+    if (baseColumn < 0) {
+      LOGGER.warn("Colonne \"" + methodMapping.getHeader() + "\" absente de l'en-tête, écriture ignorée (" + methodMapping.getMethod().getName() + ")");
+      return null;
+    }
+    if (this.columnBinding != null && this.columnBinding.isHeaderRow(this.row.getRowNum())) {
+      this.columnBinding.headerModified();
+    }
+    final int column = baseColumn + columnDelta;
+    forget(column);
+    if (!this.row.hasCell(column)) {
+      if (!createCell(this.row, methodMapping, baseColumn, columnDelta)) {
         // impossible de créer la cellule
         return null;
       }
     }
     
     // éventuel formatage de la cellule avant écriture
-    ExcelCellFormat excelCellFormatable = ExcelHandlerUtils.getAnnotation(ExcelCellFormat.class, method);
+    ExcelCellFormat excelCellFormatable = methodMapping.getExcelCellFormat();
     if (excelCellFormatable != null) {
       if (value != null) {
         // impossible de formater une valeur null
-        String stringFormat = excelCellFormatable.outputFormat();
+        OutputFormat outputFormat = methodMapping.getOutputFormat();
         short excelFormat = excelCellFormatable.outputExcelFormat();
-        // Formatage text par String.format
-        if (StringUtils.isNotBlank(stringFormat)) {
+        // Formatage text, format analysé une seule fois
+        if (outputFormat != null) {
           try {
-            value = String.format(new Locale(excelCellFormatable.localLanguage()), stringFormat, value);
+            value = outputFormat.format(value);
           } catch (final IllegalFormatException e) {
             LOGGER.warn("Erreur de format de la donnée de la ligne {}, colonne {} avec le format {}. La méthode concernée est {}",
-                new Object[] {getRow().getRowNum(), index, excelCellFormatable.outputFormat(), method});
+                new Object[] {getRow().getRowNum(), index, excelCellFormatable.outputFormat(), methodMapping.getMethod()});
             return null;
           }
         }
         // ou formatage style Excel par l'API
         else {
           if (excelFormat >= 0) {
-            cell.getCellStyle().setDataFormat(excelFormat);
+            this.row.setDataFormat(column, excelFormat);
           }
         }
       }
@@ -523,27 +502,143 @@ public class ExcelRowInvocationHandler implements InvocationHandler {
       value = BLANK_STRING_VALUE;
     }
     
-    if (value instanceof String) {
-      cell.setCellValue((String)value);
-    } else if (value instanceof Integer) {
-      cell.setCellValue((Integer)value);
-    } else if (value instanceof Double) {
-      cell.setCellValue((Double)value);
-    } else if (value instanceof Float) {
-      cell.setCellValue((Float)value);
-    } else if (value instanceof Long) {
-      cell.setCellValue((Long)value);
-    } else if (value instanceof BigDecimal) {
-      cell.setCellValue(((BigDecimal)value).floatValue());
-    } else if (value instanceof Date) {
-      cell.setCellValue((Date)value);
-    } else if (value instanceof DateTime) {
-      cell.setCellValue(((DateTime)value).toDate());
+    // convertisseur de la méthode, sauf si la valeur a été remplacée par sa version formatée
+    CellConverter<Object> converter = value == object ? methodMapping.getConverter() : null;
+    if (converter == null) {
+      converter = castConverter(ConverterRegistry.get(value.getClass()));
+    }
+    if (converter != null) {
+      converter.write(this.row, column, value);
     } else {
-      cell.setCellValue(value.toString());
+      this.row.setStringValue(column, value.toString());
+    }
+    
+    return this.row;
+  }
+  
+  /**
+   * Lecture groupée de toutes les répétitions d'une cellule, voir {@link MethodMapping#getElementType()}. Les tableaux
+   * <tt>int[]</tt>, <tt>long[]</tt> et <tt>double[]</tt> sont remplis sans passer par les types objet ; une cellule
+   * vide vaut 0 (null dans un tableau d'objets). <br/>
+   * Les cellules sont toujours relues : un accès groupé ne passe pas par les valeurs conservées
+   * ({@link ExcelDocument#cacheValues()}).
+   * 
+   * @param methodMapping
+   *          la description du getter, non null
+   * @return un tableau de {@link MethodMapping#getRepeatSize()} éléments, null pour un libellé absent de l'en-tête
+   */
+  private Object doGetArray(MethodMapping methodMapping) {
+    final int baseColumn = getBaseColumn(methodMapping);
+    if (baseColumn < 0) {
+      return null;
+    }
+    final int size = methodMapping.getRepeatSize();
+    final Class<?> elementType = methodMapping.getElementType();
+    if (int.class.equals(elementType)) {
+      int[] values = new int[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = (int)readNumericValue(methodMapping, baseColumn + methodMapping.getColumnDelta(i));
+      }
+      return values;
+    }
+    if (long.class.equals(elementType)) {
+      long[] values = new long[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = (long)readNumericValue(methodMapping, baseColumn + methodMapping.getColumnDelta(i));
+      }
+      return values;
+    }
+    if (double.class.equals(elementType)) {
+      double[] values = new double[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = readNumericValue(methodMapping, baseColumn + methodMapping.getColumnDelta(i));
+      }
+      return values;
     }
     
-    return cell;
+    // autres types : conversion de chaque cellule
+    Object values = Array.newInstance(elementType, size);
+    for (int i = 0; i < size; i++) {
+      Object value = readValue(methodMapping, baseColumn + methodMapping.getColumnDelta(i));
+      if (value != null) {
+        Array.set(values, i, value);
+      }
+    }
+    return values;
+  }
+  
+  /**
+   * Lecture d'une cellule numérique sans passer par les types objet, les autres cellules passent par le convertisseur.
+   * 
+   * @return 0 pour une cellule vide ou illisible
+   */
+  private double readNumericValue(MethodMapping methodMapping, int column) {
+    if (!this.row.hasCell(column)) {
+      return 0;
+    }
+    int cellType = this.row.getCellType(column);
+    if (CELL_TYPE_NUMERIC == cellType) {
+      return this.row.getNumericValue(column);
+    }
+    Object value = readValue(methodMapping, column);
+    return value instanceof Number ? ((Number)value).doubleValue() : 0;
+  }
+  
+  /**
+   * Écriture groupée de toutes les répétitions d'une cellule, voir {@link MethodMapping#getElementType()}. Les
+   * éléments au-delà de {@link MethodMapping#getRepeatSize()} sont ignorés ; un tableau null vide toutes les cellules.
+   * 
+   * @param methodMapping
+   *          la description du setter, non null
+   * @param array
+   *          le tableau à écrire
+   * @return la ligne modifiée, null si rien ne s'est passé
+   */
+  private Object doSetArray(MethodMapping methodMapping, Object array) {
+    final int size = methodMapping.getRepeatSize();
+    final int length = array == null ? size : Math.min(size, Array.getLength(array));
+    if (array != null && Array.getLength(array) > size) {
+      LOGGER.warn("Tableau de " + Array.getLength(array) + " éléments pour " + size + " cellules, éléments suivants ignorés ("
+          + methodMapping.getMethod().getName() + ")");
+    }
+    final int baseColumn = getBaseColumn(methodMapping);
+    if (array instanceof int[] || array instanceof long[] || array instanceof double[]) {
+      if (baseColumn >= 0 && methodMapping.getExcelCellFormat() == null) {
+        // écriture directe des nombres, sans formatage
+        if (this.columnBinding != null && this.columnBinding.isHeaderRow(this.row.getRowNum())) {
+          this.columnBinding.headerModified();
+        }
+        for (int i = 0; i < length; i++) {
+          int column = baseColumn + methodMapping.getColumnDelta(i);
+          forget(column);
+          if (!this.row.hasCell(column) && !createCell(this.row, methodMapping, baseColumn, methodMapping.getColumnDelta(i))) {
+            return null;
+          }
+          this.row.setNumericValue(column, getNumber(array, i));
+        }
+        return length == 0 ? null : this.row;
+      }
+    }
+    
+    // autres types, ou formatage : écriture de chaque élément
+    Object result = null;
+    for (int i = 0; i < length; i++) {
+      Object written = doSet(methodMapping, i, array == null ? null : Array.get(array, i));
+      if (written != null) {
+        result = written;
+      }
+    }
+    return result;
+  }
+  
+  private static double getNumber(Object array, int i) {
+    if (array instanceof int[]) {
+      return ((int[])array)[i];
+    }
+    if (array instanceof long[]) {
+      return ((long[])array)[i];
+    }
+    return ((double[])array)[i];
   }
   
   /**
@@ -554,17 +649,77 @@ public class ExcelRowInvocationHandler implements InvocationHandler {
    *          non null
    * @param object
    *          si null remplacé par "" (chaine vide)
-   * @return null si le set ne s'est pas bien passé, la cellule concernée sinon
+   * @return null si le set ne s'est pas bien passé, la ligne concernée sinon
    */
   protected Object doSet(Method method, Object object) {
     
     return doSet(method, -1, object);
   }
   
-  protected HSSFRow getRow() {
+  /**
+   * Première colonne d'une méthode : son numéro, ou la colonne de son libellé dans la feuille.
+   * 
+   * @return -1 pour un libellé absent de l'en-tête ou une feuille inconnue
+   */
+  private int getBaseColumn(MethodMapping methodMapping) {
+    int headerSlot = methodMapping.getHeaderSlot();
+    if (headerSlot < 0) {
+      return methodMapping.getColumn();
+    }
+    return this.columnBinding == null ? -1 : this.columnBinding.getColumn(headerSlot);
+  }
+  
+  /**
+   * Résolution des colonnes désignées par leur libellé, pour la feuille de la ligne.
+   * 
+   * @param columnBinding
+   *          null si l'interface n'a pas de telles colonnes
+   */
+  void setColumnBinding(ColumnBinding columnBinding) {
+    this.columnBinding = columnBinding;
+  }
+  
+  /**
+   * Description précalculée de l'interface gérée.
+   */
+  protected RowMapping getMapping() {
+    return mapping;
+  }
+  
+  /**
+   * Stockage de la ligne gérée.
+   */
+  protected RowBackend getRow() {
     return row;
   }
   
+  /**
+   * Repositionnement du handler sur une autre ligne : l'objet représentant la ligne est réutilisé, voir {@link RowCursor}.
+   * 
+   * @param row
+   *          not null
+   */
+  public void setRow(RowBackend row) {
+    if (row == null) {
+      throw new IllegalArgumentException("La ligne est null.");
+    }
+    this.row = row;
+    if (this.values != null) {
+      Arrays.fill(this.values, null);
+      Arrays.fill(this.readers, null);
+    }
+  }
+  
+  /**
+   * La valeur conservée d'une colonne modifiée sera relue, voir {@link ExcelDocument#cacheValues()}.
+   */
+  private void forget(int column) {
+    if (this.readers != null && column < this.readers.length) {
+      this.values[column] = null;
+      this.readers[column] = null;
+    }
+  }
+  
   // /**
   // * Recherche d'une cellule d'après l'annotation d'une méthode.
   // *
@@ -574,7 +729,7 @@ public class ExcelRowInvocationHandler implements InvocationHandler {
   // *
   // * @see ExcelCell
   // */
-  // private HSSFCell getCellForMethod(Method method) {
+  // private Cell getCellForMethod(Method method) {
   //
   // return getCellForMethod(method, 0);
   // }
@@ -582,4 +737,9 @@ public class ExcelRowInvocationHandler implements InvocationHandler {
   protected Class<?> getType() {
     return type;
   }
+  
+  @SuppressWarnings("unchecked")
+  private static CellConverter<Object> castConverter(CellConverter<?> converter) {
+    return (CellConverter<Object>)converter;
+  }
 }
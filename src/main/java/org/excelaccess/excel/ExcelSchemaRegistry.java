@@ -0,0 +1,296 @@
+package org.excelaccess.excel;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.StringUtils;
+import org.excelaccess.excel.backend.MemoryRowBackend;
+import org.excelaccess.excel.convert.ConverterRegistry;
+import org.excelaccess.excel.mapping.MethodKind;
+import org.excelaccess.excel.mapping.MethodMapping;
+import org.excelaccess.excel.mapping.RowMapping;
+import org.excelaccess.excel.mapping.RowMappingRegistry;
+import org.excelaccess.excel.model.annotation.ExcelCell;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Enregistrement des interfaces de ligne au démarrage d'une application : les erreurs de description sont détectées
+ * tout de suite et non au premier appel, et les descriptions ({@link RowMapping}) et fabriques de lignes
+ * ({@link RowProxyFactory}) sont calculées d'avance. <br/>
+ * Un préchauffage optionnel ({@link #warmUp(Class, int)}) exécute les getters et setters sur une ligne en mémoire pour
+ * que le premier traitement réel ne paye pas la compilation à la volée.
+ * 
+ * @author Loic Abemonty
+ */
+public final class ExcelSchemaRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExcelSchemaRegistry.class);
+
+    /**
+     * valeur par défaut de {@link ExcelCell#name()}.
+     */
+    private static final String DEFAULT_COLUMN_NAME = "A";
+
+    private static final ConcurrentMap<Class<?>, RowMapping> REGISTERED = new ConcurrentHashMap<Class<?>, RowMapping>();
+
+    /**
+     * Vérification et préparation d'interfaces de ligne.
+     * 
+     * @param classes
+     *            interfaces annotées {@link ExcelDocument}, non null
+     * @return les descriptions, dans l'ordre des interfaces
+     * @throws IllegalArgumentException
+     *             si une interface est mal décrite ; le message liste toutes les erreurs
+     * @see #register(Class)
+     */
+    public static List<RowMapping> registerAll(Class<?>... classes) {
+        List<RowMapping> mappings = new ArrayList<RowMapping>(classes.length);
+        List<String> errors = new ArrayList<String>();
+        for (Class<?> clazz : classes) {
+            try {
+                mappings.add(register(clazz));
+            } catch (IllegalArgumentException e) {
+                errors.add(e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException(StringUtils.join(errors, "\n"));
+        }
+        return mappings;
+    }
+
+    /**
+     * Vérification et préparation d'une interface de ligne. Sont refusés :
+     * <ul>
+     * <li>une interface sans {@link ExcelDocument} ;</li>
+     * <li>un format de sortie invalide ou inadapté au type de la valeur ;</li>
+     * <li>une colonne désignée à la fois par numéro et par lettres, ou par des lettres invalides ;</li>
+     * <li>une colonne lue par plusieurs getters, répétitions comprises ;</li>
+     * <li>une colonne désignée à la fois par son libellé ({@link ExcelCell#header()}) et par numéro ou lettres, ou un
+     * libellé lu par plusieurs getters ;</li>
+     * <li>un type de valeur sans convertisseur ({@link ConverterRegistry}) ;</li>
+     * <li>un getter groupé (tableau) sans {@link org.excelaccess.excel.model.annotation.RepeatableExcelCell} ;</li>
+     * <li>un setter sans getter annoté {@link ExcelCell}.</li>
+     * </ul>
+     * Une interface déjà enregistrée n'est pas vérifiée à nouveau.
+     * 
+     * @param clazz
+     *            non null
+     * @return la description de l'interface, non null
+     * @throws IllegalArgumentException
+     *             si l'interface est mal décrite ; le message liste toutes les erreurs
+     */
+    public static RowMapping register(Class<?> clazz) {
+        RowMapping mapping = REGISTERED.get(clazz);
+        if (mapping != null) {
+            return mapping;
+        }
+        List<String> errors = new ArrayList<String>();
+        try {
+            mapping = RowMappingRegistry.getMapping(clazz);
+        } catch (IllegalArgumentException e) {
+            // format de sortie refusé à la description des méthodes
+            errors.add(e.getMessage());
+        }
+        if (mapping != null) {
+            validate(mapping, errors);
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Interface de ligne " + clazz.getName() + " invalide : "
+                    + StringUtils.join(errors, " ; "));
+        }
+        // résolution de l'implémentation générée ou du proxy
+        RowProxyFactory.newInstance(clazz, new ExcelRowInvocationHandler(clazz, new MemoryRowBackend(0, false)));
+        REGISTERED.putIfAbsent(clazz, mapping);
+        LOGGER.debug("Interface de ligne " + clazz.getName() + " enregistrée");
+        return mapping;
+    }
+
+    private static void validate(RowMapping mapping, List<String> errors) {
+        if (mapping.getExcelDocument() == null) {
+            errors.add("annotation ExcelDocument absente");
+        }
+        Map<Integer, String> columns = new HashMap<Integer, String>();
+        Map<String, String> headers = new HashMap<String, String>();
+        for (MethodMapping methodMapping : getMostSpecificMappings(mapping)) {
+            MethodKind kind = methodMapping.getKind();
+            if (kind == MethodKind.GETTER || kind == MethodKind.INDEXED_GETTER) {
+                validateGetter(methodMapping, columns, headers, errors);
+            } else if ((kind == MethodKind.SETTER || kind == MethodKind.INDEXED_SETTER)
+                    && methodMapping.getExcelCell() == null) {
+                errors.add(methodMapping.getMethod().getName() + " : setter sans getter annoté ExcelCell");
+            }
+        }
+    }
+
+    /**
+     * Méthodes de l'interface : pour une méthode redéclarée par une sous-interface, seule la redéclaration est
+     * retenue.
+     */
+    private static Collection<MethodMapping> getMostSpecificMappings(RowMapping mapping) {
+        Map<String, MethodMapping> mappings = new TreeMap<String, MethodMapping>();
+        for (MethodMapping methodMapping : mapping.getMethodMappings()) {
+            Method method = methodMapping.getMethod();
+            String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+            MethodMapping previous = mappings.get(signature);
+            if (previous == null
+                    || previous.getMethod().getDeclaringClass().isAssignableFrom(method.getDeclaringClass())) {
+                mappings.put(signature, methodMapping);
+            }
+        }
+        return mappings.values();
+    }
+
+    private static void validateGetter(MethodMapping methodMapping, Map<Integer, String> columns,
+            Map<String, String> headers, List<String> errors) {
+        String name = methodMapping.getMethod().getName();
+        if (methodMapping.getConverter() == null) {
+            errors.add(name + " : type " + methodMapping.getValueType().getName() + " sans convertisseur");
+        }
+        ExcelCell excelCell = methodMapping.getExcelCell();
+        if (excelCell == null) {
+            LOGGER.warn("Getter " + methodMapping.getMethod() + " sans ExcelCell, la première colonne sera lue");
+            return;
+        }
+        if (methodMapping.isArray()) {
+            if (methodMapping.getRepeatableExcelCell() == null) {
+                errors.add(name + " : tableau sans RepeatableExcelCell");
+                return;
+            }
+            if (!methodMapping.getMethod().isAnnotationPresent(ExcelCell.class)) {
+                // colonnes du getter indexé, vérifiées avec lui
+                return;
+            }
+        }
+        if (methodMapping.getHeader() != null) {
+            validateHeader(methodMapping, headers, errors);
+            return;
+        }
+        // les lettres, "A" par défaut, sont ignorées dès qu'un numéro est donné
+        if (excelCell.value() != 0 && StringUtils.isNotBlank(excelCell.name())
+                && !DEFAULT_COLUMN_NAME.equals(excelCell.name())) {
+            errors.add(name + " : colonne " + excelCell.value() + " et lettres " + excelCell.name()
+                    + " à la fois");
+            return;
+        }
+        if (methodMapping.getColumn() < 0) {
+            errors.add(name + " : lettres de colonne invalides " + excelCell.name());
+            return;
+        }
+        checkColumn(methodMapping.getColumn(), name, columns, errors);
+        for (int index = 1; methodMapping.getColumnDelta(index) >= 0; index++) {
+            checkColumn(methodMapping.getColumn() + methodMapping.getColumnDelta(index), name, columns, errors);
+        }
+    }
+
+    private static void validateHeader(MethodMapping methodMapping, Map<String, String> headers, List<String> errors) {
+        String name = methodMapping.getMethod().getName();
+        ExcelCell excelCell = methodMapping.getExcelCell();
+        if (excelCell.value() != 0 || !DEFAULT_COLUMN_NAME.equals(excelCell.name())) {
+            errors.add(name + " : libellé " + methodMapping.getHeader() + " et colonne à la fois");
+            return;
+        }
+        String previous = headers.put(methodMapping.getHeader(), name);
+        if (previous != null) {
+            errors.add(name + " : libellé " + methodMapping.getHeader() + " déjà lu par " + previous);
+        }
+    }
+
+    private static void checkColumn(int column, String name, Map<Integer, String> columns, List<String> errors) {
+        String previous = columns.put(Integer.valueOf(column), name);
+        if (previous != null) {
+            errors.add(name + " : colonne " + column + " déjà lue par " + previous);
+        }
+    }
+
+    /**
+     * Préchauffage d'une interface de ligne enregistrée : chaque setter puis chaque getter est appelé sur une ligne en
+     * mémoire avec une valeur exemple ({@link ConverterRegistry#getSampleValue(Class)}). Les erreurs d'un appel sont
+     * ignorées.
+     * 
+     * @param clazz
+     *            non null
+     * @param iterations
+     *            nombre d'appels de chaque méthode
+     * @throws IllegalArgumentException
+     *             si l'interface est mal décrite, voir {@link #register(Class)}
+     */
+    public static void warmUp(Class<?> clazz, int iterations) {
+        RowMapping mapping = register(clazz);
+        Object row = RowProxyFactory.newInstance(clazz, new ExcelRowInvocationHandler(clazz,
+                new MemoryRowBackend(0, false)));
+        List<MethodMapping> setters = new ArrayList<MethodMapping>();
+        List<MethodMapping> getters = new ArrayList<MethodMapping>();
+        for (MethodMapping methodMapping : getMostSpecificMappings(mapping)) {
+            if (methodMapping.getExcelCell() == null) {
+                continue;
+            }
+            switch (methodMapping.getKind()) {
+                case SETTER:
+                case INDEXED_SETTER:
+                    setters.add(methodMapping);
+                    break;
+                case GETTER:
+                case INDEXED_GETTER:
+                    getters.add(methodMapping);
+                    break;
+                default:
+                    break;
+            }
+        }
+        for (int i = 0; i < iterations; i++) {
+            for (MethodMapping setter : setters) {
+                Object value = ConverterRegistry.getSampleValue(setter.getValueType());
+                invoke(row, setter, value);
+            }
+            for (MethodMapping getter : getters) {
+                invoke(row, getter, null);
+            }
+        }
+        LOGGER.debug("Interface de ligne " + clazz.getName() + " préchauffée (" + iterations + " appels)");
+    }
+
+    private static void invoke(Object row, MethodMapping methodMapping, Object value) {
+        Method method = methodMapping.getMethod();
+        boolean indexed = methodMapping.getKind() == MethodKind.INDEXED_GETTER
+                || methodMapping.getKind() == MethodKind.INDEXED_SETTER;
+        List<Object> args = new ArrayList<Object>(2);
+        if (indexed) {
+            args.add(Integer.valueOf(0));
+        }
+        if (methodMapping.getKind() == MethodKind.SETTER || methodMapping.getKind() == MethodKind.INDEXED_SETTER) {
+            if (value == null && method.getParameterTypes()[args.size()].isPrimitive()) {
+                return;
+            }
+            args.add(value);
+        }
+        try {
+            method.invoke(row, args.toArray());
+        } catch (IllegalAccessException e) {
+            LOGGER.debug("Préchauffage de " + method + " impossible", e);
+        } catch (InvocationTargetException e) {
+            LOGGER.debug("Préchauffage de " + method + " en erreur", e.getCause());
+        }
+    }
+
+    /**
+     * @return true si l'interface a été enregistrée par {@link #register(Class)}
+     */
+    public static boolean isRegistered(Class<?> clazz) {
+        return REGISTERED.containsKey(clazz);
+    }
+
+    private ExcelSchemaRegistry() {
+    }
+}
@@ -0,0 +1,100 @@
+package org.excelaccess.excel;
+
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_STRING;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.excelaccess.excel.backend.RowBackend;
+import org.excelaccess.excel.backend.SheetBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ligne d'en-tête d'une feuille : numéro de colonne de chaque libellé. <br/>
+ * La ligne est lue à la première utilisation puis conservée jusqu'à sa modification ({@link #invalidate()}) ; chaque
+ * lecture incrémente la version, voir {@link ColumnBinding}.
+ * 
+ * @author Loic Abemonty
+ */
+final class HeaderTable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HeaderTable.class);
+
+    private final SheetBackend sheet;
+
+    private final int rowNum;
+
+    private final Map<String, Integer> columns = new HashMap<String, Integer>();
+
+    private int version;
+
+    private boolean modified = true;
+
+    /**
+     * @param sheet
+     *            non null
+     * @param rowNum
+     *            numéro de la ligne d'en-tête, 0-based
+     */
+    HeaderTable(SheetBackend sheet, int rowNum) {
+        this.sheet = sheet;
+        this.rowNum = rowNum;
+    }
+
+    /**
+     * Version de la table, la ligne d'en-tête étant relue si elle a été modifiée.
+     */
+    int getVersion() {
+        if (this.modified) {
+            load();
+        }
+        return this.version;
+    }
+
+    /**
+     * Numéro de colonne d'un libellé, comparé sans les espaces qui l'entourent. Pour un libellé présent plusieurs
+     * fois, la première colonne est retenue.
+     * 
+     * @param header
+     *            non null
+     * @return -1 si le libellé est absent
+     */
+    int getColumn(String header) {
+        if (this.modified) {
+            load();
+        }
+        Integer column = this.columns.get(header);
+        return column == null ? -1 : column.intValue();
+    }
+
+    /**
+     * La ligne d'en-tête sera relue à la prochaine utilisation.
+     */
+    void invalidate() {
+        this.modified = true;
+    }
+
+    int getRowNum() {
+        return rowNum;
+    }
+
+    private void load() {
+        this.columns.clear();
+        RowBackend row = this.rowNum < 0 ? null : this.sheet.getRow(this.rowNum);
+        if (row == null) {
+            LOGGER.warn("Ligne d'en-tête " + this.rowNum + " absente");
+        } else {
+            for (int column = 0; column < row.getLastCellNum(); column++) {
+                if (row.hasCell(column) && row.getCellType(column) == CELL_TYPE_STRING) {
+                    String header = row.getStringValue(column).trim();
+                    if (header.length() > 0 && !this.columns.containsKey(header)) {
+                        this.columns.put(header, Integer.valueOf(column));
+                    }
+                }
+            }
+        }
+        this.version++;
+        this.modified = false;
+    }
+}
@@ -0,0 +1,23 @@
+package org.excelaccess.excel;
+
+/**
+ * Lecture de la clé d'une ligne, pour l'index de {@link RowHandler}.
+ * 
+ * @param <K>
+ *            Classe identifiant une ligne, comparée par {@link Object#equals(Object)}
+ * @param <L>
+ *            Classe représentant les données d'une ligne
+ * @author Loic Abemonty
+ */
+public interface KeyExtractor<K, L> {
+
+    /**
+     * Clé d'une ligne. <br/>
+     * La ligne peut être réutilisée pour les lignes suivantes : elle ne doit pas être conservée dans la clé.
+     * 
+     * @param row
+     *            la ligne, non null
+     * @return la clé, null si la ligne n'a pas à être indexée
+     */
+    K getKey(L row);
+}
@@ -0,0 +1,21 @@
+package org.excelaccess.excel;
+
+/**
+ * Traitement des lignes lues au fil de l'eau.
+ * 
+ * @param <T>
+ *            Classe représentant les données d'une ligne
+ * @see ExcelAccessor#stream(java.io.InputStream, Class, RowConsumer)
+ * @author Loic Abemonty
+ */
+public interface RowConsumer<T> {
+
+    /**
+     * Traitement d'une ligne. <br/>
+     * La ligne n'est valide que pendant l'appel : elle ne doit pas être conservée, seules ses valeurs peuvent l'être.
+     * 
+     * @param row
+     *            la ligne lue, non null
+     */
+    void consume(T row);
+}
@@ -0,0 +1,86 @@
+package org.excelaccess.excel;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.excelaccess.excel.backend.RowBackend;
+import org.excelaccess.excel.backend.SheetBackend;
+
+/**
+ * Parcours des lignes existantes d'une feuille, à partir de
+ * {@link org.excelaccess.excel.model.annotation.ExcelDocument#startAtRow()}. <br/>
+ * Chaque itérateur utilise un seul objet représentant une ligne, repositionné à chaque appel de
+ * {@link Iterator#next()} : l'objet renvoyé ne doit pas être conservé d'une itération à l'autre. Les lignes absentes
+ * de la feuille sont sautées sans être recherchées.
+ * 
+ * @param <T>
+ *            Classe représentant les données d'une ligne
+ * @see ExcelAccessor#cursor(Class)
+ * @author Loic Abemonty
+ */
+public class RowCursor<T> implements Iterable<T> {
+
+    private final Class<T> clazz;
+
+    private final SheetBackend sheet;
+
+    private final int startAtRow;
+
+    private final ColumnBinding columnBinding;
+
+    RowCursor(Class<T> clazz, SheetBackend sheet, int startAtRow, ColumnBinding columnBinding) {
+        this.clazz = clazz;
+        this.sheet = sheet;
+        this.startAtRow = startAtRow;
+        this.columnBinding = columnBinding;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+
+            private final Iterator<RowBackend> rows = sheet.rowIterator();
+
+            private ExcelRowInvocationHandler handler;
+
+            private T row;
+
+            /**
+             * prochaine ligne à renvoyer, null si elle n'a pas encore été recherchée.
+             */
+            private RowBackend next;
+
+            @Override
+            public boolean hasNext() {
+                while (this.next == null && this.rows.hasNext()) {
+                    RowBackend candidate = this.rows.next();
+                    if (candidate.getRowNum() >= startAtRow) {
+                        this.next = candidate;
+                    }
+                }
+                return this.next != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (this.handler == null) {
+                    this.handler = new ExcelRowInvocationHandler(clazz, this.next);
+                    this.handler.setColumnBinding(columnBinding);
+                    this.row = RowProxyFactory.newInstance(clazz, this.handler);
+                } else {
+                    this.handler.setRow(this.next);
+                }
+                this.next = null;
+                return this.row;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
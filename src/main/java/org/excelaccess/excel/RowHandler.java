@@ -1,20 +1,35 @@
 package org.excelaccess.excel;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
-import org.apache.poi.hssf.usermodel.HSSFSheet;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.excelaccess.excel.backend.RowBackend;
+import org.excelaccess.excel.backend.SheetBackend;
+import org.excelaccess.excel.index.KeyColumns;
+import org.excelaccess.excel.index.KeyIndexFile;
+import org.excelaccess.excel.index.MissFilter;
+import org.excelaccess.excel.index.ObjectIntHashMap;
+import org.excelaccess.excel.index.PostingsIndex;
+import org.excelaccess.excel.index.RowKey;
+import org.excelaccess.excel.mapping.RowMappingRegistry;
 import org.excelaccess.excel.model.IndexableRow;
 import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.excelaccess.excel.model.annotation.ExcelKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Classe utilitaire pour gérer les lignes en cours d'utilisation.<br/>
  * Gestion de plusieurs types de lignes indépendemment les uns des autres.
+ * <p/>
+ * Les lignes sont identifiées par {@link #identifyResource(IndexableRow, Object)}, à redéfinir, ou par les colonnes
+ * clés de l'interface de ligne ({@link ExcelKey}) : dans ce cas la classe peut être utilisée directement, voir
+ * {@link #RowHandler(ExcelAccessor, Class, Class)}.
  * 
  * @param <K>
  *            Classe identifiant une ligne
@@ -23,7 +38,7 @@ import org.slf4j.LoggerFactory;
  * 
  * @author Loic Abemonty
  */
-public abstract class RowHandler<K, L extends IndexableRow> {
+public class RowHandler<K, L extends IndexableRow> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RowHandler.class);
 
@@ -35,12 +50,72 @@ public abstract class RowHandler<K, L extends IndexableRow> {
     /**
      * Gestion des lignes déjà considérées, classées par clé de ligne.
      */
-    private final Map<K, Integer> rows = new HashMap<K, Integer>();
+    private final ObjectIntHashMap<K> rows = new ObjectIntHashMap<K>();
 
     private Class<L> resourceClass;
 
     private Class<K> resourceKeyClass;
 
+    /**
+     * Lecture de la clé des lignes, null sans index.
+     */
+    private final KeyExtractor<K, L> keyExtractor;
+
+    /**
+     * true une fois les clés de toutes les lignes de la feuille lues.
+     */
+    private boolean indexed;
+
+    /**
+     * Colonnes clés de l'interface de ligne, null si elles ne sont pas utilisées.
+     */
+    private KeyColumns keyColumns;
+
+    /**
+     * Lignes par clé composite, construit à la première recherche par colonnes clés.
+     */
+    private ObjectIntHashMap<RowKey> keyIndex;
+
+    /**
+     * Lignes par valeur de chaque colonne clé, pour les clés partielles ; construit avec {@link #keyIndex}.
+     */
+    private PostingsIndex postingsIndex;
+
+    /**
+     * Fichier d'enregistrement de l'index des colonnes clés, null sans enregistrement.
+     */
+    private File indexFile;
+
+    /**
+     * Fichier du classeur, dont l'empreinte valide {@link #indexFile}.
+     */
+    private File workbookFile;
+
+    /**
+     * Valeurs des colonnes clés de toutes les lignes indexées, à enregistrer dans {@link #indexFile}.
+     */
+    private KeyIndexFile indexedRows;
+
+    /**
+     * true si l'index a été lu dans {@link #indexFile}.
+     */
+    private boolean indexFileLoaded;
+
+    /**
+     * Taux de faux positifs du filtre des clés absentes, 0 sans filtre.
+     */
+    private double missFilterRate;
+
+    /**
+     * Nombre de lignes prévues pour le filtre des clés absentes, 0 pour le déduire de la feuille.
+     */
+    private int missFilterExpectedRows;
+
+    /**
+     * Filtre des clés absentes de la recherche ligne à ligne, construit à la première recherche.
+     */
+    private MissFilter missFilter;
+
     /**
      * Constructeur.
      * 
@@ -48,13 +123,183 @@ public abstract class RowHandler<K, L extends IndexableRow> {
      *            l'accesseur du fichier Excel.
      */
     public RowHandler(ExcelAccessor excelAccessor) {
+        this(excelAccessor, null);
+    }
+
+    /**
+     * Constructeur avec index : à la première recherche infructueuse, les clés de toutes les lignes de la feuille sont
+     * lues en un seul parcours, puis les recherches se font par {@link Object#equals(Object)} sur la clé, sans appel à
+     * {@link #identifyResource(IndexableRow, Object)}. Une clé absente de l'index donne directement une nouvelle
+     * ligne. <br/>
+     * Pour deux lignes de même clé, la première est retenue. Les clés des lignes ne doivent pas être modifiées après
+     * leur indexation, ni des lignes ajoutées à la feuille en dehors de ce handler.
+     * 
+     * @param excelAccessor
+     *            l'accesseur du fichier Excel.
+     * @param keyExtractor
+     *            la lecture de la clé d'une ligne, null pour une recherche ligne à ligne
+     */
+    public RowHandler(ExcelAccessor excelAccessor, KeyExtractor<K, L> keyExtractor) {
         this.excelAccessor = excelAccessor;
+        this.keyExtractor = keyExtractor;
         findParameterizedClass();
+        initializeKeyColumns();
+    }
+
+    /**
+     * Constructeur sans sous-classe, pour une interface de ligne ayant des colonnes clés ({@link ExcelKey}). <br/>
+     * Une clé dont toutes les valeurs sont renseignées est recherchée dans un index construit en un seul parcours de la
+     * feuille, à partir des valeurs des cellules et sans créer d'objet ligne. Une clé partielle est recherchée, dans le
+     * même parcours, par colonne clé : une valeur null accepte toute valeur (voir {@link #isMatching(Object, Object)})
+     * et la ligne trouvée est la première correspondant aux valeurs renseignées. Une ligne créée est indexée avec les
+     * valeurs de la clé recherchée.
+     * 
+     * @param excelAccessor
+     *            l'accesseur du fichier Excel.
+     * @param resourceKeyClass
+     *            la classe des clés, fournissant les valeurs des colonnes clés par des méthodes de même nom
+     * @param resourceClass
+     *            l'interface de ligne
+     * @throws IllegalArgumentException
+     *             si l'interface de ligne n'a pas de colonne clé et que
+     *             {@link #identifyResource(IndexableRow, Object)} n'est pas redéfinie
+     */
+    public RowHandler(ExcelAccessor excelAccessor, Class<K> resourceKeyClass, Class<L> resourceClass) {
+        this.excelAccessor = excelAccessor;
+        this.keyExtractor = null;
+        this.resourceKeyClass = resourceKeyClass;
+        this.resourceClass = resourceClass;
+        initializeKeyColumns();
+        if (this.keyColumns == null && !isIdentifyResourceOverridden()) {
+            throw new IllegalArgumentException("Aucune colonne clé dans " + resourceClass.getName());
+        }
     }
 
+    /**
+     * Ajout de lignes déjà connues.
+     * 
+     * @param rows
+     *            numéros de ligne par clé
+     * @return les lignes gérées, voir {@link #getRows()}
+     */
     public Map<K, Integer> addRows(Map<K, Integer> rows) {
         this.rows.putAll(rows);
-        return this.rows;
+        return getRows();
+    }
+
+    /**
+     * Activation d'un filtre de Bloom, dimensionné pour deux fois les lignes de la feuille.
+     * 
+     * @param falsePositiveRate
+     *            taux de faux positifs, strictement entre 0 et 1
+     * @see #enableMissFilter(int, double)
+     */
+    public void enableMissFilter(double falsePositiveRate) {
+        enableMissFilter(0, falsePositiveRate);
+    }
+
+    /**
+     * Activation d'un filtre de Bloom sur les colonnes clés ({@link ExcelKey}) pour la recherche ligne à ligne : une clé
+     * complète absente du filtre donne directement une nouvelle ligne, sans parcours de la feuille ni appel à
+     * {@link #identifyResource(IndexableRow, Object)}. Le filtre est construit à la première recherche, en un parcours
+     * des cellules clés. Il n'est jamais activé sans cet appel. <br/>
+     * <b>Contrat :</b> {@link #identifyResource(IndexableRow, Object)} ne doit accepter une ligne que si chaque valeur
+     * renseignée de la clé (lue par les méthodes de même nom que les getters {@link ExcelKey}) est égale, au sens de
+     * {@link Object#equals(Object)}, à la cellule clé correspondante, et ne doit comparer aucune autre colonne. Une
+     * comparaison différente (autres colonnes, casse ignorée, espaces retirés...) fait écarter à tort des lignes
+     * existantes : une ligne en double est alors créée. <br/>
+     * Sans redéfinition, ou avec un {@link KeyExtractor}, les clés absentes sont déjà écartées par l'index.
+     * 
+     * @param expectedRows
+     *            nombre de lignes prévues, lignes créées comprises ; 0 pour deux fois les lignes de la feuille
+     * @param falsePositiveRate
+     *            taux de faux positifs, strictement entre 0 et 1 : plus il est faible, plus le filtre est gros
+     * @throws IllegalArgumentException
+     *             si le taux n'est pas entre 0 et 1 ou si le nombre de lignes est négatif
+     * @throws IllegalStateException
+     *             si l'interface de ligne n'a pas de colonne clé
+     */
+    public void enableMissFilter(int expectedRows, double falsePositiveRate) {
+        if (expectedRows < 0) {
+            throw new IllegalArgumentException("Nombre de lignes prévues négatif : " + expectedRows);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Taux de faux positifs invalide : " + falsePositiveRate);
+        }
+        if (RowMappingRegistry.getMapping(this.resourceClass).getKeyMappings().isEmpty()) {
+            throw new IllegalStateException("Aucune colonne clé dans " + this.resourceClass.getName());
+        }
+        this.missFilterRate = falsePositiveRate;
+        this.missFilterExpectedRows = expectedRows;
+        this.missFilter = null;
+    }
+
+    /**
+     * Filtre des clés absentes et ses compteurs.
+     * 
+     * @return null s'il n'est pas activé ou pas encore construit
+     * @see #enableMissFilter(double)
+     */
+    public MissFilter getMissFilter() {
+        return missFilter;
+    }
+
+    /**
+     * Enregistrement de l'index des colonnes clés ({@link ExcelKey}) dans un fichier, lu à la place de la feuille lors
+     * de la première recherche s'il correspond encore au classeur (voir {@link KeyIndexFile}) ; sinon, ou s'il est
+     * illisible, la feuille est relue.
+     * 
+     * @param indexFile
+     *            fichier d'index, à côté du classeur
+     * @param workbookFile
+     *            fichier du classeur ouvert par l'accesseur
+     * @throws IllegalStateException
+     *             si les lignes ne sont pas recherchées par colonnes clés
+     * @see #saveIndex()
+     */
+    public void setIndexFile(File indexFile, File workbookFile) {
+        if (this.keyColumns == null) {
+            throw new IllegalStateException("Pas de colonne clé indexée pour " + this.resourceClass.getName());
+        }
+        this.indexFile = indexFile;
+        this.workbookFile = workbookFile;
+    }
+
+    /**
+     * Enregistrement de l'index, lignes créées comprises, dans le fichier d'index. Le classeur doit avoir été
+     * enregistré auparavant, l'index portant son empreinte.
+     * 
+     * @throws IOException
+     *             en cas d'erreur d'écriture
+     * @throws IllegalStateException
+     *             sans fichier d'index, voir {@link #setIndexFile(File, File)}
+     */
+    public void saveIndex() throws IOException {
+        if (this.indexFile == null) {
+            throw new IllegalStateException("Aucun fichier d'index pour " + this.resourceClass.getName());
+        }
+        if (this.keyIndex == null) {
+            indexKeyColumns();
+        }
+        this.indexedRows.write(this.indexFile, this.workbookFile, this.resourceClass, this.keyColumns);
+    }
+
+    /**
+     * @return true si l'index des colonnes clés a été lu dans le fichier d'index plutôt que dans la feuille
+     */
+    public boolean isIndexFileLoaded() {
+        return indexFileLoaded;
+    }
+
+    /**
+     * Dimensionnement préalable du cache des lignes, évitant ses agrandissements successifs quand le nombre de clés
+     * recherchées est connu.
+     * 
+     * @param expectedRows
+     *            nombre de clés attendues
+     */
+    public void ensureCapacity(int expectedRows) {
+        this.rows.ensureCapacity(expectedRows);
     }
 
     /**
@@ -72,18 +317,25 @@ public abstract class RowHandler<K, L extends IndexableRow> {
      */
     public L findRow(K resourceKey) {
         L row = null;
-        Integer rowNumber = null;
-
-        Map<K, Integer> rows = this.getRows();
 
-        rowNumber = rows.get(resourceKey);
-        if (rowNumber == null) {
-            row = searchOrCreateRow(resourceKey);
-        } else {
+        int rowNumber = this.rows.get(resourceKey, -1);
+        if (rowNumber < 0 && this.keyExtractor != null && !this.indexed) {
+            index();
+            rowNumber = this.rows.get(resourceKey, -1);
+        }
+        if (rowNumber < 0 && this.keyColumns != null) {
+            row = findRowByKeyColumns(resourceKey);
+        } else if (rowNumber >= 0) {
             row = excelAccessor.parse(rowNumber, this.resourceClass);
+        } else if (this.keyExtractor != null) {
+            // la clé n'existe pas dans la feuille
+            row = excelAccessor.add(this.resourceClass);
+        } else if (this.missFilterRate > 0) {
+            row = searchOrCreateFilteredRow(resourceKey);
+        } else {
+            row = searchOrCreateRow(resourceKey);
         }
-        rows.put(resourceKey, row.getRowNum());
-        this.addRows(rows);
+        this.rows.put(resourceKey, row.getRowNum());
 
         return row;
     }
@@ -105,8 +357,187 @@ public abstract class RowHandler<K, L extends IndexableRow> {
         return row;
     }
 
+    /**
+     * Lecture des clés de toutes les lignes de la feuille, les lignes déjà connues étant conservées.
+     */
+    private void index() {
+        this.rows.ensureCapacity(this.rows.size() + countRows());
+        for (L row : this.excelAccessor.cursor(this.resourceClass)) {
+            K key = this.keyExtractor.getKey(row);
+            if (key != null && !this.rows.containsKey(key)) {
+                this.rows.put(key, row.getRowNum());
+            }
+        }
+        this.indexed = true;
+    }
+
+    /**
+     * Recherche par les colonnes clés, création de la ligne si aucune ne correspond.
+     */
+    private L findRowByKeyColumns(K resourceKey) {
+        if (this.keyIndex == null) {
+            indexKeyColumns();
+        }
+        Object[] keyValues = this.keyColumns.getKeyValues(resourceKey);
+        RowKey rowKey = this.keyColumns.getRowKey(resourceKey);
+        int rowNumber;
+        if (rowKey != null) {
+            rowNumber = this.keyIndex.get(rowKey, -1);
+        } else {
+            rowNumber = this.postingsIndex.findFirst(keyValues);
+        }
+        if (rowNumber >= 0) {
+            return excelAccessor.parse(rowNumber, this.resourceClass);
+        }
+        // la clé n'existe pas dans la feuille
+        L row = excelAccessor.add(this.resourceClass);
+        addKeyRow(row.getRowNum(), keyValues);
+        return row;
+    }
+
+    /**
+     * Recherche ligne à ligne précédée du filtre des clés absentes.
+     */
+    private L searchOrCreateFilteredRow(K resourceKey) {
+        if (this.missFilter == null) {
+            KeyColumns filterColumns = KeyColumns.of(this.resourceClass, this.resourceKeyClass);
+            // par défaut, place pour autant de lignes créées que de lignes existantes
+            int expectedRows = this.missFilterExpectedRows > 0 ? this.missFilterExpectedRows : 2 * countRows();
+            this.missFilter = new MissFilter(filterColumns, expectedRows, this.missFilterRate);
+            readKeyColumns(filterColumns);
+        }
+        Object[] keyValues = this.missFilter.getKeyColumns().getKeyValues(resourceKey);
+        L row;
+        if (this.missFilter.mightContain(keyValues)) {
+            ExcelDocument excelDocument = this.resourceClass.getAnnotation(ExcelDocument.class);
+            int lastRowNum = excelAccessor.getSheet(excelDocument.sheetName()).getLastRowNum();
+            row = searchOrCreateRow(resourceKey);
+            if (row.getRowNum() <= lastRowNum) {
+                return row;
+            }
+            this.missFilter.recordFalsePositive(keyValues);
+        } else {
+            // la clé n'existe pas dans la feuille
+            row = excelAccessor.add(this.resourceClass);
+        }
+        addKeyRow(row.getRowNum(), keyValues);
+        return row;
+    }
+
+    /**
+     * Lecture des clés de toutes les lignes de la feuille, directement dans les cellules.
+     */
+    private void indexKeyColumns() {
+        this.postingsIndex = new PostingsIndex(this.keyColumns.size());
+        if (this.indexFile != null) {
+            KeyIndexFile loaded = null;
+            try {
+                loaded = KeyIndexFile.read(this.indexFile, this.workbookFile, this.resourceClass, this.keyColumns);
+            } catch (IOException e) {
+                LOGGER.warn("Fichier d'index " + this.indexFile + " illisible : lecture de la feuille.", e);
+            }
+            if (loaded != null) {
+                this.keyIndex = new ObjectIntHashMap<RowKey>(loaded.size());
+                for (int i = 0; i < loaded.size(); i++) {
+                    addKeyRow(loaded.getRowNum(i), loaded.getValues(i));
+                }
+                this.indexedRows = loaded;
+                this.indexFileLoaded = true;
+                return;
+            }
+            this.indexedRows = new KeyIndexFile();
+        }
+        this.keyIndex = new ObjectIntHashMap<RowKey>(countRows());
+        readKeyColumns(this.keyColumns);
+    }
+
+    /**
+     * Ajout d'une ligne aux index construits : {@link #keyIndex}, {@link #postingsIndex}, {@link #missFilter} et
+     * {@link #indexedRows}. Pour deux lignes de même clé, la première est retenue.
+     */
+    private void addKeyRow(int rowNum, Object[] values) {
+        if (this.keyIndex != null) {
+            RowKey rowKey = new RowKey(values);
+            if (!this.keyIndex.containsKey(rowKey)) {
+                this.keyIndex.put(rowKey, rowNum);
+            }
+        }
+        if (this.postingsIndex != null) {
+            this.postingsIndex.add(rowNum, values);
+        }
+        if (this.missFilter != null) {
+            this.missFilter.add(values);
+        }
+        if (this.indexedRows != null) {
+            this.indexedRows.add(rowNum, values);
+        }
+    }
+
+    /**
+     * Lecture des colonnes clés de toutes les lignes de la feuille, directement dans les cellules, vers les index
+     * construits (voir {@link #addKeyRow(int, Object[])}).
+     */
+    private void readKeyColumns(KeyColumns columns) {
+        ExcelDocument excelDocument = this.resourceClass.getAnnotation(ExcelDocument.class);
+        int startRow = excelDocument.startAtRow();
+        SheetBackend sheet = excelAccessor.getSheet(excelDocument.sheetName());
+        ColumnBinding columnBinding = excelAccessor.getColumnBinding(this.resourceClass, excelDocument.sheetName(),
+                sheet);
+
+        ExcelRowInvocationHandler handler = null;
+        Iterator<RowBackend> sheetRows = sheet.rowIterator();
+        while (sheetRows.hasNext()) {
+            RowBackend sheetRow = sheetRows.next();
+            if (sheetRow.getRowNum() < startRow) {
+                continue;
+            }
+            if (handler == null) {
+                handler = new ExcelRowInvocationHandler(this.resourceClass, sheetRow);
+                handler.setColumnBinding(columnBinding);
+            } else {
+                handler.setRow(sheetRow);
+            }
+            addKeyRow(sheetRow.getRowNum(), columns.readRowValues(handler));
+        }
+    }
+
+    /**
+     * Nombre de lignes de la zone, d'après le numéro de la dernière ligne de la feuille.
+     */
+    private int countRows() {
+        ExcelDocument excelDocument = this.resourceClass.getAnnotation(ExcelDocument.class);
+        SheetBackend sheet = excelAccessor.getSheet(excelDocument.sheetName());
+        return Math.max(0, sheet.getLastRowNum() - excelDocument.startAtRow() + 1);
+    }
+
+    /**
+     * Les colonnes clés sont utilisées sauf si {@link #identifyResource(IndexableRow, Object)} est redéfinie ou si un
+     * {@link KeyExtractor} est fourni.
+     */
+    private void initializeKeyColumns() {
+        if (this.keyExtractor != null || isIdentifyResourceOverridden()) {
+            return;
+        }
+        this.keyColumns = KeyColumns.of(this.resourceClass, this.resourceKeyClass);
+    }
+
+    private boolean isIdentifyResourceOverridden() {
+        for (Class<?> clazz = getClass(); !RowHandler.class.equals(clazz); clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if ("identifyResource".equals(method.getName()) && method.getParameterTypes().length == 2) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     @SuppressWarnings("unchecked")
     private void findParameterizedClass() {
+        if (!(getClass().getGenericSuperclass() instanceof ParameterizedType)) {
+            throw new IllegalStateException("Les classes de la clé et de la ligne doivent être précisées, voir "
+                    + "RowHandler(ExcelAccessor, Class, Class)");
+        }
         if (this.resourceClass == null) {
             Type type = ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[1];
             // manage the parameterized entity type.
@@ -133,22 +564,40 @@ public abstract class RowHandler<K, L extends IndexableRow> {
 
     /**
      * Lecture des lignes gérées jusqu'à présent.
+     * 
+     * @return vue modifiable des lignes gérées : les modifications sont prises en compte par les recherches
      */
     protected Map<K, Integer> getRows() {
-        return this.rows;
+        return this.rows.asMap();
     }
 
     /**
      * Méthode de vérification qu'une ressource {resource} peut être référencée par la clé {resourceKey}.<br/>
-     * La ressource ici est une ligne d'un fichier excel.
+     * La ressource ici est une ligne d'un fichier excel. <br/>
+     * Par défaut, comparaison des colonnes clés ({@link ExcelKey}) par {@link #isMatching(Object, Object)}.
      * 
      * @param resource
      *            la ressource
      * @param resourceKey
      *            une clé pouvant représenter la ressource
      * @return true si la clé correspond à la ressource
+     * @throws UnsupportedOperationException
+     *             si l'interface de ligne n'a pas de colonne clé
      */
-    abstract protected boolean identifyResource(L resource, K resourceKey);
+    protected boolean identifyResource(L resource, K resourceKey) {
+        if (this.keyColumns == null) {
+            throw new UnsupportedOperationException("identifyResource doit être redéfinie pour "
+                    + this.resourceClass.getName());
+        }
+        Object[] keyValues = this.keyColumns.getKeyValues(resourceKey);
+        Object[] rowValues = this.keyColumns.getRowValues(resource);
+        for (int i = 0; i < keyValues.length; i++) {
+            if (!isMatching(keyValues[i], rowValues[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
 
     /**
      * Compare 2 objets, en passant par la méthode compare de l'attribut1, si l'attribut1 est null alors la méthode est
@@ -192,13 +641,7 @@ public abstract class RowHandler<K, L extends IndexableRow> {
         int startRow = excelDocument.startAtRow();
         String sheetName = excelDocument.sheetName();
 
-        HSSFWorkbook excelWorkBook = excelAccessor.getExcelWorkBook();
-        int sheetIndex = excelWorkBook.getSheetIndex(sheetName);
-        if (sheetIndex < 0) {
-            sheetIndex = 0;
-            LOGGER.warn("Impossible d'accéder à la feuille " + sheetName + " : utilisation de la première.");
-        }
-        HSSFSheet sheet = excelWorkBook.getSheetAt(sheetIndex);
+        SheetBackend sheet = excelAccessor.getSheet(sheetName);
         // "<=" car il faut inclure la dernière ligne dans la recherche
         for (int i = startRow; i <= sheet.getLastRowNum(); i++) {
             row = excelAccessor.parse(i, this.resourceClass);
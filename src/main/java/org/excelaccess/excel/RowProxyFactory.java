@@ -0,0 +1,170 @@
+package org.excelaccess.excel;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.excelaccess.excel.processor.ExcelDocumentProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fabrique des objets représentant une ligne. <br/>
+ * Si une implémentation a été générée à la compilation par {@link ExcelDocumentProcessor}, elle est utilisée ; sinon
+ * un proxy est créé. La classe et son constructeur sont résolus une seule fois par interface de ligne, la création
+ * d'une ligne se limite ensuite à un appel de constructeur.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public final class RowProxyFactory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RowProxyFactory.class);
+
+    private static final ConcurrentMap<Class<?>, Constructor<?>> CONSTRUCTORS = new ConcurrentHashMap<Class<?>, Constructor<?>>();
+
+    /**
+     * Création d'un objet représentant une ligne.
+     * 
+     * @param <T>
+     *            l'interface de la ligne
+     * @param clazz
+     *            non null
+     * @param invocationHandler
+     *            le gestionnaire de la ligne, non null
+     * @return non null
+     */
+    public static <T> T newInstance(Class<T> clazz, ExcelRowInvocationHandler invocationHandler) {
+        return newInstance(clazz, getConstructor(clazz), invocationHandler);
+    }
+
+    private static <T> T newInstance(Class<T> clazz, Constructor<?> constructor,
+            ExcelRowInvocationHandler invocationHandler) {
+        try {
+            return clazz.cast(constructor.newInstance(invocationHandler));
+        } catch (InstantiationException e) {
+            throw new IllegalStateException("Impossible de créer la ligne " + clazz.getName(), e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Impossible de créer la ligne " + clazz.getName(), e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Impossible de créer la ligne " + clazz.getName(), e.getCause());
+        }
+    }
+
+    private static Constructor<?> getConstructor(Class<?> clazz) {
+        Constructor<?> constructor = CONSTRUCTORS.get(clazz);
+        if (constructor == null) {
+            constructor = resolveConstructor(clazz);
+            Constructor<?> previous = CONSTRUCTORS.putIfAbsent(clazz, constructor);
+            if (previous != null) {
+                constructor = previous;
+            }
+        }
+        return constructor;
+    }
+
+    /**
+     * Nom de l'implémentation générée pour une interface de ligne : même paquetage, suffixe
+     * {@link ExcelDocumentProcessor#GENERATED_SUFFIX}, les classes imbriquées séparées par "_".
+     * 
+     * @param clazz
+     *            non null
+     * @return le nom complet de la classe générée
+     */
+    public static String getGeneratedClassName(Class<?> clazz) {
+        String name = clazz.getName();
+        int packageEnd = name.lastIndexOf('.');
+        String packagePrefix = name.substring(0, packageEnd + 1);
+        String simpleName = name.substring(packageEnd + 1).replace('$', '_');
+        return packagePrefix + simpleName + ExcelDocumentProcessor.GENERATED_SUFFIX;
+    }
+
+    /**
+     * Création d'un proxy représentant une ligne, sans considérer d'éventuelle implémentation générée.
+     * 
+     * @param <T>
+     *            l'interface de la ligne
+     * @param clazz
+     *            non null
+     * @param invocationHandler
+     *            le gestionnaire de la ligne, non null
+     * @return non null
+     */
+    public static <T> T newProxyInstance(Class<T> clazz, ExcelRowInvocationHandler invocationHandler) {
+        return newInstance(clazz, resolveProxyConstructor(clazz), invocationHandler);
+    }
+
+    /**
+     * Chargeurs de classes à essayer : celui du thread courant, comme historiquement, puis celui de l'interface.
+     */
+    private static List<ClassLoader> getClassLoaders(Class<?> clazz) {
+        List<ClassLoader> classLoaders = new ArrayList<ClassLoader>(2);
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        if (contextClassLoader != null) {
+            classLoaders.add(contextClassLoader);
+        }
+        if (clazz.getClassLoader() != contextClassLoader) {
+            classLoaders.add(clazz.getClassLoader());
+        }
+        return classLoaders;
+    }
+
+    private static Constructor<?> resolveConstructor(Class<?> clazz) {
+        Constructor<?> generatedConstructor = resolveGeneratedConstructor(clazz);
+        if (generatedConstructor != null) {
+            return generatedConstructor;
+        }
+        return resolveProxyConstructor(clazz);
+    }
+
+    private static Constructor<?> resolveProxyConstructor(Class<?> clazz) {
+        IllegalArgumentException notVisible = null;
+        for (ClassLoader classLoader : getClassLoaders(clazz)) {
+            try {
+                return Proxy.getProxyClass(classLoader, clazz).getConstructor(InvocationHandler.class);
+            } catch (IllegalArgumentException e) {
+                // interface non visible de ce chargeur
+                notVisible = e;
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException("Proxy sans constructeur pour " + clazz.getName(), e);
+            }
+        }
+        throw notVisible;
+    }
+
+    private static Constructor<?> resolveGeneratedConstructor(Class<?> clazz) {
+        String generatedClassName = getGeneratedClassName(clazz);
+        Class<?> generatedClass = null;
+        for (ClassLoader classLoader : getClassLoaders(clazz)) {
+            try {
+                generatedClass = Class.forName(generatedClassName, true, classLoader);
+                break;
+            } catch (ClassNotFoundException e) {
+                // chargeur suivant
+            }
+        }
+        if (generatedClass == null) {
+            // pas d'implémentation générée
+            return null;
+        }
+        try {
+            if (!clazz.isAssignableFrom(generatedClass)) {
+                LOGGER.warn("La classe " + generatedClassName + " n'implémente pas " + clazz.getName() + " : utilisation d'un proxy.");
+                return null;
+            }
+            LOGGER.debug("Utilisation de l'implémentation générée " + generatedClassName);
+            return generatedClass.getConstructor(ExcelRowInvocationHandler.class);
+        } catch (NoSuchMethodException e) {
+            LOGGER.warn("La classe " + generatedClassName + " n'a pas le constructeur attendu : utilisation d'un proxy.");
+            return null;
+        }
+    }
+
+    private RowProxyFactory() {
+    }
+}
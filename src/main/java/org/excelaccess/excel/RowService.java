@@ -3,8 +3,8 @@ package org.excelaccess.excel;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.apache.poi.hssf.usermodel.HSSFSheet;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.excelaccess.excel.backend.SheetBackend;
+import org.excelaccess.excel.index.ObjectIntHashMap;
 import org.excelaccess.excel.model.IndexableRow;
 import org.excelaccess.excel.model.annotation.ExcelDocument;
 import org.slf4j.Logger;
@@ -33,7 +33,7 @@ public abstract class RowService<R> {
      * Gestion des lignes déjà considérées, classées par type de ligne, puis par clé de ligne.<br/>
      * Il n'y a normalement qu'un seul type de ligne par RowService, mais il est possible d'en avoir plusieurs.
      */
-    private final Map<Class<?>, Map<R, Integer>> typedRows = new HashMap<Class<?>, Map<R, Integer>>();
+    private final Map<Class<?>, ObjectIntHashMap<R>> typedRows = new HashMap<Class<?>, ObjectIntHashMap<R>>();
 
     /**
      * Constructeur.
@@ -60,20 +60,19 @@ public abstract class RowService<R> {
      */
     public <T extends IndexableRow> T findRow(Class<T> resourceClazz, R resourceKey) {
         T row = null;
-        Integer rowNumber = null;
 
-        Map<R, Integer> rows = this.getRows(resourceClazz);
+        ObjectIntHashMap<R> rows = this.typedRows.get(resourceClazz);
         if (rows == null) {
-            rows = new HashMap<R, Integer>();
+            rows = new ObjectIntHashMap<R>();
+            this.typedRows.put(resourceClazz, rows);
         }
-        rowNumber = rows.get(resourceKey);
-        if (rowNumber == null) {
+        int rowNumber = rows.get(resourceKey, -1);
+        if (rowNumber < 0) {
             row = searchOrCreateRow(resourceClazz, resourceKey);
         } else {
             row = excelAccessor.parse(rowNumber, resourceClazz);
         }
         rows.put(resourceKey, row.getRowNum());
-        this.putRows(resourceClazz, rows);
 
         return row;
     }
@@ -85,12 +84,26 @@ public abstract class RowService<R> {
         return null; // TODO faire l'union des rows
     }
 
+    /**
+     * @return vue modifiable des lignes gérées pour ce type de ligne, null si aucune
+     */
     public Map<R, Integer> getRows(Class<?> resourceClazz) {
-        return this.typedRows.get(resourceClazz);
+        ObjectIntHashMap<R> rows = this.typedRows.get(resourceClazz);
+        return rows == null ? null : rows.asMap();
     }
 
+    /**
+     * Remplacement des lignes gérées pour ce type de ligne. <br/>
+     * Les lignes sont recopiées : les modifications suivantes se font par la vue renvoyée par
+     * {@link #getRows(Class)}, pas par la table fournie.
+     * 
+     * @return les lignes remplacées, null si aucune
+     */
     public Map<R, Integer> putRows(Class<?> resourceClazz, Map<R, Integer> rows) {
-        return this.typedRows.put(resourceClazz, rows);
+        ObjectIntHashMap<R> typed = new ObjectIntHashMap<R>(rows.size());
+        typed.putAll(rows);
+        ObjectIntHashMap<R> previous = this.typedRows.put(resourceClazz, typed);
+        return previous == null ? null : previous.asMap();
     }
 
     /**
@@ -128,13 +141,7 @@ public abstract class RowService<R> {
         int startRow = excelDocument.startAtRow();
         String sheetName = excelDocument.sheetName();
 
-        HSSFWorkbook excelWorkBook = excelAccessor.getExcelWorkBook();
-        int sheetIndex = excelWorkBook.getSheetIndex(sheetName);
-        if (sheetIndex < 0) {
-            sheetIndex = 0;
-            LOGGER.warn("Impossible d'accéder à la feuille " + sheetName + " : utilisation de la première.");
-        }
-        HSSFSheet sheet = excelWorkBook.getSheetAt(sheetIndex);
+        SheetBackend sheet = excelAccessor.getSheet(sheetName);
         // "<=" car il faut inclure la dernière ligne dans la recherche
         for (int i = startRow; i <= sheet.getLastRowNum(); i++) {
             row = excelAccessor.parse(i, resourceClazz);
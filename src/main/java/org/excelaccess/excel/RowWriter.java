@@ -0,0 +1,24 @@
+package org.excelaccess.excel;
+
+/**
+ * Ecriture d'un objet dans une ligne, pour {@link ExcelAccessor#addAll(Class, Iterable, RowWriter)}.
+ * 
+ * @param <S>
+ *            Classe des objets à écrire
+ * @param <T>
+ *            Classe représentant les données d'une ligne
+ * @author Loic Abemonty
+ */
+public interface RowWriter<S, T> {
+
+    /**
+     * Ecriture d'un objet. <br/>
+     * La ligne est réutilisée pour les objets suivants : elle ne doit pas être conservée.
+     * 
+     * @param source
+     *            l'objet à écrire
+     * @param row
+     *            la ligne créée, non null
+     */
+    void write(S source, T row);
+}
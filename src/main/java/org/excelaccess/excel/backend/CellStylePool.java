@@ -0,0 +1,84 @@
+package org.excelaccess.excel.backend;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * Styles de cellule d'un document POI par style de base et format de données : chaque combinaison est créée une seule
+ * fois, par copie du style de base. <br/>
+ * Le style partagé d'une cellule (souvent le style par défaut du document) n'est ainsi jamais modifié, et le nombre
+ * de styles reste celui des combinaisons utilisées, loin de la limite des documents .xls (4000).
+ * 
+ * @author Loic Abemonty
+ */
+public final class CellStylePool {
+
+    /**
+     * Pools par document. Les pools ne conservent que des numéros de style : pas de référence vers le document.
+     */
+    private static final Map<Workbook, CellStylePool> POOLS = new WeakHashMap<Workbook, CellStylePool>();
+
+    /**
+     * Pool d'un document, créé à la première demande.
+     * 
+     * @param workbook
+     *            non null
+     * @return non null
+     */
+    public static CellStylePool of(Workbook workbook) {
+        synchronized (POOLS) {
+            CellStylePool pool = POOLS.get(workbook);
+            if (pool == null) {
+                pool = new CellStylePool();
+                POOLS.put(workbook, pool);
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * numéro du style créé, par numéro du style de base et format.
+     */
+    private final Map<Integer, Short> styles = new HashMap<Integer, Short>();
+
+    private CellStylePool() {
+    }
+
+    /**
+     * Style de même apparence que le style de base, avec le format de données demandé.
+     * 
+     * @param workbook
+     *            document du style de base
+     * @param baseStyle
+     *            style actuel de la cellule
+     * @param dataFormat
+     *            format de données
+     * @return le style de base s'il a déjà ce format, sinon le style du pool
+     */
+    public CellStyle getStyle(Workbook workbook, CellStyle baseStyle, short dataFormat) {
+        if (baseStyle.getDataFormat() == dataFormat) {
+            return baseStyle;
+        }
+        Integer key = Integer.valueOf((baseStyle.getIndex() << 16) | (dataFormat & 0xffff));
+        Short styleIndex = this.styles.get(key);
+        if (styleIndex != null) {
+            return workbook.getCellStyleAt(styleIndex.shortValue());
+        }
+        CellStyle style = workbook.createCellStyle();
+        style.cloneStyleFrom(baseStyle);
+        style.setDataFormat(dataFormat);
+        this.styles.put(key, Short.valueOf(style.getIndex()));
+        return style;
+    }
+
+    /**
+     * Nombre de styles créés.
+     */
+    public int size() {
+        return this.styles.size();
+    }
+}
@@ -0,0 +1,66 @@
+package org.excelaccess.excel.backend;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbookPr;
+
+/**
+ * Système de dates (1900 ou 1904) d'un document POI, déterminé une seule fois par document et partagé par toutes ses
+ * lignes. <br/>
+ * Pour un .xlsx il est lu dans les propriétés du document. POI ne l'expose pas publiquement pour un .xls : il est
+ * déterminé à la première date lue en comparant la conversion de POI à celle du système 1900.
+ * 
+ * @author Loic Abemonty
+ */
+final class DateSystem {
+
+    private final Workbook workbook;
+
+    /**
+     * null tant que le système n'est pas connu.
+     */
+    private Boolean date1904;
+
+    /**
+     * @param workbook
+     *            non null
+     */
+    DateSystem(Workbook workbook) {
+        this.workbook = workbook;
+        XSSFWorkbook xssfWorkbook = null;
+        if (workbook instanceof XSSFWorkbook) {
+            xssfWorkbook = (XSSFWorkbook) workbook;
+        } else if (workbook instanceof SXSSFWorkbook) {
+            xssfWorkbook = ((SXSSFWorkbook) workbook).getXSSFWorkbook();
+        }
+        if (xssfWorkbook != null) {
+            CTWorkbookPr workbookPr = xssfWorkbook.getCTWorkbook().getWorkbookPr();
+            this.date1904 = Boolean.valueOf(workbookPr != null && workbookPr.isSetDate1904()
+                    && workbookPr.getDate1904());
+        }
+    }
+
+    /**
+     * @return true si le système de dates de ce document s'applique à la cellule
+     */
+    boolean isFor(Workbook cellWorkbook) {
+        return cellWorkbook == this.workbook;
+    }
+
+    /**
+     * @param cell
+     *            cellule du document contenant une date valide, sert à déterminer le système s'il n'est pas connu
+     * @param value
+     *            valeur de la cellule
+     * @return true pour le système 1904
+     */
+    boolean isDate1904(Cell cell, double value) {
+        if (this.date1904 == null) {
+            this.date1904 = Boolean.valueOf(!DateUtil.getJavaDate(value, false).equals(cell.getDateCellValue()));
+        }
+        return this.date1904.booleanValue();
+    }
+}
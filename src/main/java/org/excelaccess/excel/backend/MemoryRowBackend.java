@@ -0,0 +1,177 @@
+package org.excelaccess.excel.backend;
+
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_BLANK;
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_BOOLEAN;
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_NUMERIC;
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_STRING;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.excelaccess.excel.utils.ExcelDates;
+
+/**
+ * Ligne stockée en mémoire, sans document POI : un tableau de valeurs indexé par colonne. <br/>
+ * Utilisée par la lecture au fil de l'eau ; les formats d'affichage sont ignorés.
+ * 
+ * @author Loic Abemonty
+ */
+public class MemoryRowBackend implements RowBackend {
+
+    private static final Object BLANK = new Object();
+
+    private final int rowNum;
+
+    private final boolean date1904;
+
+    /**
+     * valeurs par colonne : String, Double, Boolean, {@link #BLANK} ou null si la cellule n'existe pas.
+     */
+    private Object[] values = new Object[16];
+
+    /**
+     * @param rowNum
+     *            0-based
+     * @param date1904
+     *            true si le document utilise les dates à partir de 1904
+     */
+    public MemoryRowBackend(int rowNum, boolean date1904) {
+        this.rowNum = rowNum;
+        this.date1904 = date1904;
+    }
+
+    @Override
+    public int getRowNum() {
+        return this.rowNum;
+    }
+
+    @Override
+    public boolean hasCell(int column) {
+        return getValue(column) != null;
+    }
+
+    @Override
+    public int getLastCellNum() {
+        int column = this.values.length;
+        while (column > 0 && this.values[column - 1] == null) {
+            column--;
+        }
+        return column;
+    }
+
+    @Override
+    public void createCell(int column, int cellType) {
+        setValue(column, BLANK);
+    }
+
+    @Override
+    public int getCellType(int column) {
+        Object value = getValue(column);
+        if (value instanceof String) {
+            return CELL_TYPE_STRING;
+        }
+        if (value instanceof Double) {
+            return CELL_TYPE_NUMERIC;
+        }
+        if (value instanceof Boolean) {
+            return CELL_TYPE_BOOLEAN;
+        }
+        return CELL_TYPE_BLANK;
+    }
+
+    @Override
+    public String getStringValue(int column) {
+        Object value = getValue(column);
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Boolean) {
+            throw new IllegalStateException("Cellule booléenne, colonne " + column);
+        }
+        if (value instanceof Double) {
+            throw new IllegalStateException("Cellule numérique, colonne " + column);
+        }
+        return "";
+    }
+
+    @Override
+    public double getNumericValue(int column) {
+        Object value = getValue(column);
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        if (value instanceof String || value instanceof Boolean) {
+            throw new IllegalStateException("Cellule non numérique, colonne " + column);
+        }
+        return 0;
+    }
+
+    @Override
+    public Date getDateValue(int column) {
+        long localMillis = getLocalDateValue(column);
+        if (localMillis == ExcelDates.INVALID) {
+            return null;
+        }
+        return new Date(ExcelDates.toInstantMillis(localMillis));
+    }
+
+    @Override
+    public long getLocalDateValue(int column) {
+        Object value = getValue(column);
+        if (!(value instanceof Double)) {
+            return ExcelDates.INVALID;
+        }
+        return ExcelDates.toLocalMillis((Double) value, this.date1904);
+    }
+
+    @Override
+    public void setStringValue(int column, String value) {
+        setValue(column, value);
+    }
+
+    @Override
+    public void setNumericValue(int column, double value) {
+        setValue(column, Double.valueOf(value));
+    }
+
+    @Override
+    public boolean getBooleanValue(int column) {
+        Object value = getValue(column);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof String || value instanceof Double) {
+            throw new IllegalStateException("Cellule non booléenne, colonne " + column);
+        }
+        return false;
+    }
+
+    @Override
+    public void setBooleanValue(int column, boolean value) {
+        setValue(column, Boolean.valueOf(value));
+    }
+
+    @Override
+    public void setDateValue(int column, Date value) {
+        setValue(column, Double.valueOf(ExcelDates.toSerial(ExcelDates.toLocalMillis(value), this.date1904)));
+    }
+
+    @Override
+    public void setDataFormat(int column, short dataFormat) {
+        // pas de mise en forme
+    }
+
+    private Object getValue(int column) {
+        if (column < 0 || column >= this.values.length) {
+            return null;
+        }
+        return this.values[column];
+    }
+
+    private void setValue(int column, Object value) {
+        if (column >= this.values.length) {
+            this.values = Arrays.copyOf(this.values, Math.max(column + 1, this.values.length * 2));
+        }
+        this.values[column] = value;
+    }
+}
@@ -0,0 +1,173 @@
+package org.excelaccess.excel.backend;
+
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_BLANK;
+
+import java.util.Date;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.excelaccess.excel.utils.ExcelDates;
+
+/**
+ * Stockage d'une ligne POI.
+ * 
+ * @author Loic Abemonty
+ */
+public class PoiRowBackend implements RowBackend {
+
+    private Row row;
+
+    /**
+     * système de dates du document, partagé par ses lignes ; null tant qu'aucune date n'a été lue.
+     */
+    private DateSystem dateSystem;
+
+    /**
+     * @param row
+     *            non null
+     */
+    public PoiRowBackend(Row row) {
+        this(row, null);
+    }
+
+    /**
+     * @param row
+     *            non null sauf pour un parcours
+     * @param dateSystem
+     *            système de dates du document, null pour le déterminer à la première date lue
+     */
+    PoiRowBackend(Row row, DateSystem dateSystem) {
+        this.row = row;
+        this.dateSystem = dateSystem;
+    }
+
+    /**
+     * Repositionnement sur une autre ligne, pour les parcours.
+     */
+    void setRow(Row row) {
+        this.row = row;
+    }
+
+    @Override
+    public int getRowNum() {
+        return this.row.getRowNum();
+    }
+
+    @Override
+    public boolean hasCell(int column) {
+        return this.row.getCell(column) != null;
+    }
+
+    @Override
+    public int getLastCellNum() {
+        return this.row.getLastCellNum();
+    }
+
+    @Override
+    public void createCell(int column, int cellType) {
+        this.row.createCell(column, cellType);
+    }
+
+    @Override
+    public int getCellType(int column) {
+        Cell cell = this.row.getCell(column);
+        return cell == null ? CELL_TYPE_BLANK : cell.getCellType();
+    }
+
+    @Override
+    public String getStringValue(int column) {
+        return this.row.getCell(column).getStringCellValue();
+    }
+
+    @Override
+    public double getNumericValue(int column) {
+        return this.row.getCell(column).getNumericCellValue();
+    }
+
+    @Override
+    public Date getDateValue(int column) {
+        return this.row.getCell(column).getDateCellValue();
+    }
+
+    @Override
+    public long getLocalDateValue(int column) {
+        Cell cell = this.row.getCell(column);
+        double value = cell.getNumericCellValue();
+        if (!DateUtil.isValidExcelDate(value)) {
+            return ExcelDates.INVALID;
+        }
+        return ExcelDates.toLocalMillis(value, isDate1904(cell, value));
+    }
+
+    /**
+     * Système de dates du document de la ligne, voir {@link DateSystem}.
+     * 
+     * @param cell
+     *            cellule de la ligne contenant une date valide
+     * @param value
+     *            valeur de la cellule
+     */
+    private boolean isDate1904(Cell cell, double value) {
+        Workbook workbook = this.row.getSheet().getWorkbook();
+        if (this.dateSystem == null || !this.dateSystem.isFor(workbook)) {
+            // ligne construite hors d'un document connu
+            this.dateSystem = new DateSystem(workbook);
+        }
+        return this.dateSystem.isDate1904(cell, value);
+    }
+
+    @Override
+    public boolean getBooleanValue(int column) {
+        return this.row.getCell(column).getBooleanCellValue();
+    }
+
+    @Override
+    public void setStringValue(int column, String value) {
+        getOrCreateCell(column).setCellValue(value);
+    }
+
+    @Override
+    public void setNumericValue(int column, double value) {
+        getOrCreateCell(column).setCellValue(value);
+    }
+
+    @Override
+    public void setDateValue(int column, Date value) {
+        getOrCreateCell(column).setCellValue(value);
+    }
+
+    @Override
+    public void setBooleanValue(int column, boolean value) {
+        getOrCreateCell(column).setCellValue(value);
+    }
+
+    @Override
+    public void setDataFormat(int column, short dataFormat) {
+        Cell cell = getOrCreateCell(column);
+        Workbook workbook = this.row.getSheet().getWorkbook();
+        CellStyle baseStyle = cell.getCellStyle();
+        CellStyle style = CellStylePool.of(workbook).getStyle(workbook, baseStyle, dataFormat);
+        if (style.getIndex() != baseStyle.getIndex()) {
+            // le style de base, partagé, n'est pas modifié
+            cell.setCellStyle(style);
+        }
+    }
+
+    private Cell getOrCreateCell(int column) {
+        Cell cell = this.row.getCell(column);
+        if (cell == null) {
+            cell = this.row.createCell(column);
+        }
+        return cell;
+    }
+
+    /**
+     * Ligne POI sous-jacente.
+     */
+    public Row getRow() {
+        return row;
+    }
+}
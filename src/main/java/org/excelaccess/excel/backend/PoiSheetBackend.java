@@ -0,0 +1,109 @@
+package org.excelaccess.excel.backend;
+
+import java.util.Iterator;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * Stockage d'une feuille POI.
+ * 
+ * @author Loic Abemonty
+ */
+public class PoiSheetBackend implements SheetBackend {
+
+    private final Sheet sheet;
+
+    private final Sheet templateSheet;
+
+    private final DateSystem dateSystem;
+
+    /**
+     * @param sheet
+     *            non null
+     */
+    public PoiSheetBackend(Sheet sheet) {
+        this(sheet, null, new DateSystem(sheet.getWorkbook()));
+    }
+
+    /**
+     * @param sheet
+     *            non null
+     * @param templateSheet
+     *            feuille du modèle d'un document écrit au fil de l'eau, dont les lignes précèdent celles de la feuille ;
+     *            peut être null
+     * @param dateSystem
+     *            système de dates du document, partagé par toutes ses feuilles, non null
+     */
+    PoiSheetBackend(Sheet sheet, Sheet templateSheet, DateSystem dateSystem) {
+        this.sheet = sheet;
+        this.templateSheet = templateSheet;
+        this.dateSystem = dateSystem;
+    }
+
+    @Override
+    public RowBackend getRow(int rowNumber) {
+        Row row = this.sheet.getRow(rowNumber);
+        if (row == null) {
+            return null;
+        }
+        return new PoiRowBackend(row, this.dateSystem);
+    }
+
+    @Override
+    public RowBackend createRow(int rowNumber) {
+        return new PoiRowBackend(this.sheet.createRow(rowNumber), this.dateSystem);
+    }
+
+    @Override
+    public int getLastRowNum() {
+        int lastRowNum = getLastRowNum(this.sheet);
+        if (this.templateSheet != null) {
+            lastRowNum = Math.max(lastRowNum, getLastRowNum(this.templateSheet));
+        }
+        return lastRowNum;
+    }
+
+    @Override
+    public Iterator<RowBackend> rowIterator() {
+        final Iterator<Row> rows = this.sheet.rowIterator();
+        return new Iterator<RowBackend>() {
+
+            /**
+             * même instance pour toutes les lignes.
+             */
+            private final PoiRowBackend current = new PoiRowBackend(null, PoiSheetBackend.this.dateSystem);
+
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public RowBackend next() {
+                this.current.setRow(rows.next());
+                return this.current;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static int getLastRowNum(Sheet sheet) {
+        // POI renvoie 0 pour une feuille vide
+        if (sheet.getPhysicalNumberOfRows() == 0) {
+            return -1;
+        }
+        return sheet.getLastRowNum();
+    }
+
+    /**
+     * Feuille POI sous-jacente.
+     */
+    public Sheet getSheet() {
+        return sheet;
+    }
+}
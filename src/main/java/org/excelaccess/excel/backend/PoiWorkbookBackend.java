@@ -0,0 +1,87 @@
+package org.excelaccess.excel.backend;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Stockage par défaut : un document POI, .xls, .xlsx ou .xlsx écrit au fil de l'eau.
+ * 
+ * @author Loic Abemonty
+ */
+public class PoiWorkbookBackend implements WorkbookBackend {
+
+    private final Workbook workbook;
+
+    /**
+     * système de dates du document, déterminé une seule fois.
+     */
+    private final DateSystem dateSystem;
+
+    /**
+     * @param workbook
+     *            non null
+     */
+    public PoiWorkbookBackend(Workbook workbook) {
+        checkNotNull(workbook, "workbook");
+        this.workbook = workbook;
+        this.dateSystem = new DateSystem(workbook);
+    }
+
+    @Override
+    public SheetBackend getSheet(String sheetName) {
+        int sheetIndex = this.workbook.getSheetIndex(sheetName);
+        if (sheetIndex < 0) {
+            return null;
+        }
+        return getSheetAt(sheetIndex);
+    }
+
+    @Override
+    public SheetBackend getSheetAt(int sheetIndex) {
+        if (sheetIndex < 0 || sheetIndex >= this.workbook.getNumberOfSheets()) {
+            return null;
+        }
+        Sheet sheet = this.workbook.getSheetAt(sheetIndex);
+        Sheet templateSheet = null;
+        if (this.workbook instanceof SXSSFWorkbook) {
+            // les lignes du modèle ne sont pas visibles au travers de la feuille SXSSF
+            templateSheet = ((SXSSFWorkbook) this.workbook).getXSSFWorkbook().getSheetAt(sheetIndex);
+        }
+        return new PoiSheetBackend(sheet, templateSheet, this.dateSystem);
+    }
+
+    @Override
+    public SheetBackend createSheet(String sheetName) {
+        return getSheetAt(this.workbook.getSheetIndex(this.workbook.createSheet(sheetName)));
+    }
+
+    @Override
+    public int getNumberOfSheets() {
+        return this.workbook.getNumberOfSheets();
+    }
+
+    @Override
+    public void write(OutputStream outputStream) throws IOException {
+        this.workbook.write(outputStream);
+    }
+
+    @Override
+    public void dispose() {
+        if (this.workbook instanceof SXSSFWorkbook) {
+            ((SXSSFWorkbook) this.workbook).dispose();
+        }
+    }
+
+    /**
+     * Document POI sous-jacent.
+     */
+    public Workbook getWorkbook() {
+        return workbook;
+    }
+}
@@ -0,0 +1,146 @@
+package org.excelaccess.excel.backend;
+
+import java.util.Date;
+
+/**
+ * Stockage d'une ligne : lecture et écriture typées des cellules, désignées par leur numéro de colonne. <br/>
+ * Les types de cellule sont ceux de POI ({@link org.apache.poi.ss.usermodel.Cell#CELL_TYPE_STRING}...).
+ * 
+ * @author Loic Abemonty
+ */
+public interface RowBackend {
+
+    /**
+     * Numéro de la ligne, 0-based.
+     */
+    int getRowNum();
+
+    /**
+     * @param column
+     *            0-based
+     * @return true si la cellule existe, même vide
+     */
+    boolean hasCell(int column);
+
+    /**
+     * Numéro de la dernière cellule existante plus un, comme {@link org.apache.poi.ss.usermodel.Row#getLastCellNum()}.
+     * 
+     * @return 0 ou négatif si la ligne n'a aucune cellule
+     */
+    int getLastCellNum();
+
+    /**
+     * Création d'une cellule vide.
+     * 
+     * @param column
+     *            0-based
+     * @param cellType
+     *            type de cellule POI
+     */
+    void createCell(int column, int cellType);
+
+    /**
+     * Type de la cellule.
+     * 
+     * @param column
+     *            0-based
+     * @return type de cellule POI, {@link org.apache.poi.ss.usermodel.Cell#CELL_TYPE_BLANK} si la cellule n'existe pas
+     */
+    int getCellType(int column);
+
+    /**
+     * @param column
+     *            0-based
+     * @return la valeur texte de la cellule
+     */
+    String getStringValue(int column);
+
+    /**
+     * @param column
+     *            0-based
+     * @return la valeur numérique de la cellule
+     */
+    double getNumericValue(int column);
+
+    /**
+     * Valeur numérique convertie en date selon le système de dates du document.
+     * 
+     * @param column
+     *            0-based
+     * @return null si la cellule ne contient pas de date valide
+     */
+    Date getDateValue(int column);
+
+    /**
+     * Valeur numérique convertie par calcul en date locale selon le système de dates du document, sans objet
+     * intermédiaire.
+     * 
+     * @param column
+     *            0-based
+     * @return millisecondes locales depuis 1970, {@link org.excelaccess.excel.utils.ExcelDates#INVALID} si la
+     *         cellule ne contient pas de date valide
+     * @see org.excelaccess.excel.utils.ExcelDates
+     */
+    long getLocalDateValue(int column);
+
+    /**
+     * Lecture d'une cellule booléenne.
+     * 
+     * @param column
+     *            0-based
+     * @return la valeur
+     * @throws IllegalStateException
+     *             si la cellule n'est pas booléenne
+     */
+    boolean getBooleanValue(int column);
+
+    /**
+     * Ecriture d'un texte, la cellule est créée si nécessaire.
+     * 
+     * @param column
+     *            0-based
+     * @param value
+     *            non null
+     */
+    void setStringValue(int column, String value);
+
+    /**
+     * Ecriture d'un nombre, la cellule est créée si nécessaire.
+     * 
+     * @param column
+     *            0-based
+     * @param value
+     *            la valeur
+     */
+    void setNumericValue(int column, double value);
+
+    /**
+     * Ecriture d'une date, la cellule est créée si nécessaire.
+     * 
+     * @param column
+     *            0-based
+     * @param value
+     *            non null
+     */
+    void setDateValue(int column, Date value);
+
+    /**
+     * Ecriture d'un booléen, la cellule est créée si nécessaire.
+     * 
+     * @param column
+     *            0-based
+     * @param value
+     *            la valeur
+     */
+    void setBooleanValue(int column, boolean value);
+
+    /**
+     * Format Excel d'affichage de la cellule. Peut être ignoré par les stockages sans mise en forme.
+     * 
+     * @param column
+     *            0-based
+     * @param dataFormat
+     *            index du format Excel
+     */
+    void setDataFormat(int column, short dataFormat);
+}
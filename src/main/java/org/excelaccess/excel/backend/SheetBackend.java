@@ -0,0 +1,45 @@
+package org.excelaccess.excel.backend;
+
+import java.util.Iterator;
+
+/**
+ * Stockage d'une feuille : accès et création des lignes.
+ * 
+ * @author Loic Abemonty
+ */
+public interface SheetBackend {
+
+    /**
+     * Accès à une ligne.
+     * 
+     * @param rowNumber
+     *            0-based
+     * @return null si la ligne n'existe pas
+     */
+    RowBackend getRow(int rowNumber);
+
+    /**
+     * Création d'une ligne, remplaçant l'éventuelle ligne existante.
+     * 
+     * @param rowNumber
+     *            0-based
+     * @return la ligne créée, non null
+     */
+    RowBackend createRow(int rowNumber);
+
+    /**
+     * Numéro de la dernière ligne de la feuille.
+     * 
+     * @return 0-based, -1 si la feuille ne contient aucune ligne
+     */
+    int getLastRowNum();
+
+    /**
+     * Parcours des lignes existantes, dans l'ordre. <br/>
+     * La ligne renvoyée peut être la même instance d'un appel à l'autre, repositionnée sur la ligne suivante : elle ne
+     * doit pas être conservée.
+     * 
+     * @return non null
+     */
+    Iterator<RowBackend> rowIterator();
+}
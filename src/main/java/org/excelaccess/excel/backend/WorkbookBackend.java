@@ -0,0 +1,63 @@
+package org.excelaccess.excel.backend;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Stockage d'un document : accès aux feuilles par leur nom. <br/>
+ * Point d'extension de {@link org.excelaccess.excel.ExcelAccessor}, l'implémentation par défaut étant
+ * {@link PoiWorkbookBackend}.
+ * 
+ * @author Loic Abemonty
+ */
+public interface WorkbookBackend {
+
+    /**
+     * Recherche d'une feuille.
+     * 
+     * @param sheetName
+     *            nom de la feuille
+     * @return null si la feuille n'existe pas
+     */
+    SheetBackend getSheet(String sheetName);
+
+    /**
+     * Accès à une feuille par sa position.
+     * 
+     * @param sheetIndex
+     *            0-based
+     * @return null si la feuille n'existe pas
+     */
+    SheetBackend getSheetAt(int sheetIndex);
+
+    /**
+     * Création d'une feuille.
+     * 
+     * @param sheetName
+     *            nom de la feuille
+     * @return la feuille créée, non null
+     */
+    SheetBackend createSheet(String sheetName);
+
+    /**
+     * Nombre de feuilles du document.
+     */
+    int getNumberOfSheets();
+
+    /**
+     * Ecrit le contenu du document. Cette méthode ne ferme pas le flux.
+     * 
+     * @param outputStream
+     *            non null
+     * @throws IOException
+     *             s'il est impossible d'écrire
+     * @throws UnsupportedOperationException
+     *             si le stockage ne permet pas l'écriture
+     */
+    void write(OutputStream outputStream) throws IOException;
+
+    /**
+     * Libération des ressources du document (fichiers temporaires...).
+     */
+    void dispose();
+}
@@ -0,0 +1,51 @@
+package org.excelaccess.excel.convert;
+
+import org.excelaccess.excel.backend.RowBackend;
+import org.excelaccess.excel.mapping.MethodMapping;
+
+/**
+ * Conversion entre une cellule et un type Java, dans les deux sens. <br/>
+ * Le convertisseur d'une méthode est résolu une seule fois, à la description de la méthode (voir
+ * {@link MethodMapping#getConverter()}), d'après son type de valeur et {@link ConverterRegistry}. Les instances sont
+ * partagées entre threads.
+ * 
+ * @param <T>
+ *            le type Java
+ * @author Loic Abemonty
+ */
+public interface CellConverter<T> {
+
+    /**
+     * Type de la cellule créée pour écrire une valeur.
+     * 
+     * @return un type de cellule POI, par exemple {@link org.apache.poi.ss.usermodel.Cell#CELL_TYPE_NUMERIC}
+     */
+    int getCellType();
+
+    /**
+     * Lecture d'une cellule non vide.
+     * 
+     * @param row
+     *            la ligne, non null
+     * @param column
+     *            0-based
+     * @param cellType
+     *            type de la cellule, autre que vide
+     * @param methodMapping
+     *            description du getter, pour la langue en particulier
+     * @return la valeur, null si la cellule ne peut être convertie
+     */
+    T read(RowBackend row, int column, int cellType, MethodMapping methodMapping);
+
+    /**
+     * Ecriture d'une valeur.
+     * 
+     * @param row
+     *            la ligne, non null
+     * @param column
+     *            0-based
+     * @param value
+     *            non null
+     */
+    void write(RowBackend row, int column, T value);
+}
@@ -0,0 +1,122 @@
+package org.excelaccess.excel.convert;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.ClassUtils;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+
+/**
+ * Convertisseurs par type Java. <br/>
+ * Sont fournis : {@link String}, les types primitifs et leurs classes, {@link java.math.BigDecimal},
+ * {@link java.util.Date}, les dates Joda ({@link org.joda.time.DateTime}, {@link org.joda.time.LocalDate},
+ * {@link org.joda.time.LocalDateTime}) et les énumérations, par leur nom. <br/>
+ * Les convertisseurs ajoutés doivent l'être avant la première utilisation des interfaces de ligne concernées : le
+ * convertisseur d'une méthode est résolu une seule fois.
+ * 
+ * @author Loic Abemonty
+ */
+public final class ConverterRegistry {
+
+    private static final ConcurrentMap<Class<?>, CellConverter<?>> CONVERTERS =
+            new ConcurrentHashMap<Class<?>, CellConverter<?>>();
+    /**
+     * valeurs exemples des types fournis, voir {@link #getSampleValue(Class)}.
+     */
+    private static final Map<Class<?>, Object> SAMPLES = new HashMap<Class<?>, Object>();
+    static {
+        StandardConverters.registerAll();
+        SAMPLES.put(String.class, "0");
+        SAMPLES.put(Integer.class, Integer.valueOf(0));
+        SAMPLES.put(Long.class, Long.valueOf(0));
+        SAMPLES.put(Double.class, Double.valueOf(0));
+        SAMPLES.put(Float.class, Float.valueOf(0));
+        SAMPLES.put(Short.class, Short.valueOf((short) 0));
+        SAMPLES.put(Byte.class, Byte.valueOf((byte) 0));
+        SAMPLES.put(Boolean.class, Boolean.FALSE);
+        SAMPLES.put(Character.class, Character.valueOf('0'));
+        SAMPLES.put(BigDecimal.class, BigDecimal.ZERO);
+        SAMPLES.put(Date.class, new Date(0));
+        SAMPLES.put(DateTime.class, new DateTime(0));
+        SAMPLES.put(LocalDate.class, new LocalDate(0));
+        SAMPLES.put(LocalDateTime.class, new LocalDateTime(0));
+    }
+
+    private ConverterRegistry() {
+    }
+
+    /**
+     * Ajout ou remplacement du convertisseur d'un type.
+     * 
+     * @param <T>
+     *            le type Java
+     * @param type
+     *            non null ; pour un type primitif, la classe correspondante doit aussi être enregistrée
+     * @param converter
+     *            non null
+     */
+    public static <T> void register(Class<T> type, CellConverter<? super T> converter) {
+        if (type == null || converter == null) {
+            throw new IllegalArgumentException("Le type et le convertisseur sont obligatoires.");
+        }
+        CONVERTERS.put(type, converter);
+    }
+
+    /**
+     * Convertisseur d'un type.
+     * 
+     * @param type
+     *            peut être null
+     * @return null si le type n'a pas de convertisseur
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static CellConverter<?> get(Class<?> type) {
+        if (type == null) {
+            return null;
+        }
+        CellConverter<?> converter = CONVERTERS.get(type);
+        if (converter == null && type.isEnum()) {
+            converter = new EnumConverter(type);
+            CellConverter<?> previous = CONVERTERS.putIfAbsent(type, converter);
+            if (previous != null) {
+                converter = previous;
+            }
+        }
+        return converter;
+    }
+
+    /**
+     * Valeur exemple d'un type : vérification des formats, préchauffage des interfaces de ligne.
+     * 
+     * @param type
+     *            peut être null
+     * @return null si le type n'est ni un type fourni ni une énumération avec au moins une valeur ; pour un tableau, un
+     *         tableau d'un élément
+     */
+    public static Object getSampleValue(Class<?> type) {
+        if (type == null) {
+            return null;
+        }
+        if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return constants.length == 0 ? null : constants[0];
+        }
+        if (type.isArray()) {
+            // tableau d'un élément
+            Object array = Array.newInstance(type.getComponentType(), 1);
+            Object element = getSampleValue(type.getComponentType());
+            if (element != null) {
+                Array.set(array, 0, element);
+            }
+            return array;
+        }
+        return SAMPLES.get(ClassUtils.primitiveToWrapper(type));
+    }
+}
@@ -0,0 +1,50 @@
+package org.excelaccess.excel.convert;
+
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_STRING;
+
+import org.apache.commons.lang.StringUtils;
+import org.excelaccess.excel.backend.RowBackend;
+import org.excelaccess.excel.mapping.MethodMapping;
+
+/**
+ * Enumération écrite par son nom.
+ * 
+ * @param <E>
+ *            l'énumération
+ * @author Loic Abemonty
+ */
+final class EnumConverter<E extends Enum<E>> implements CellConverter<E> {
+
+    private final Class<E> type;
+
+    EnumConverter(Class<E> type) {
+        this.type = type;
+    }
+
+    @Override
+    public int getCellType() {
+        return CELL_TYPE_STRING;
+    }
+
+    @Override
+    public E read(RowBackend row, int column, int cellType, MethodMapping methodMapping) {
+        if (cellType != CELL_TYPE_STRING) {
+            return null;
+        }
+        String value = row.getStringValue(column);
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(this.type, value.trim());
+        } catch (IllegalArgumentException e) {
+            // nom inconnu
+            return null;
+        }
+    }
+
+    @Override
+    public void write(RowBackend row, int column, E value) {
+        row.setStringValue(column, value.name());
+    }
+}
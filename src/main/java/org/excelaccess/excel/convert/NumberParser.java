@@ -0,0 +1,148 @@
+package org.excelaccess.excel.convert;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Lecture d'un nombre dans une chaîne, avec le même résultat que {@link NumberFormat#parse(String)} pour une langue. <br/>
+ * Les chaînes simples (signe, chiffres, séparateur décimal) sont lues directement, sans allocation de
+ * {@link NumberFormat} ; les autres (séparateurs de milliers, exposant, texte après le nombre...) passent par un
+ * {@link NumberFormat} propre à chaque thread. Les instances, une par langue, sont partagées entre threads.
+ * 
+ * @author Loic Abemonty
+ */
+public final class NumberParser {
+
+    private static final ConcurrentMap<Locale, NumberParser> PARSERS = new ConcurrentHashMap<Locale, NumberParser>();
+
+    /**
+     * nombre de chiffres d'un entier lu directement : pas de dépassement de capacité d'un long.
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /**
+     * Lecteur d'une langue, créé à la première demande.
+     * 
+     * @param locale
+     *            non null
+     * @return non null
+     */
+    public static NumberParser forLocale(Locale locale) {
+        NumberParser parser = PARSERS.get(locale);
+        if (parser == null) {
+            parser = new NumberParser(locale);
+            NumberParser previous = PARSERS.putIfAbsent(locale, parser);
+            if (previous != null) {
+                parser = previous;
+            }
+        }
+        return parser;
+    }
+
+    private final char decimalSeparator;
+
+    private final char minusSign;
+
+    /**
+     * true si le format de la langue n'a ni préfixe ni suffixe autre que le signe moins : lecture directe possible.
+     */
+    private final boolean simpleFormat;
+
+    private final ThreadLocal<NumberFormat> numberFormat;
+
+    private NumberParser(final Locale locale) {
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols(locale);
+        this.decimalSeparator = symbols.getDecimalSeparator();
+        this.minusSign = symbols.getMinusSign();
+        NumberFormat format = NumberFormat.getInstance(locale);
+        if (format instanceof DecimalFormat) {
+            DecimalFormat decimalFormat = (DecimalFormat) format;
+            this.simpleFormat = decimalFormat.getPositivePrefix().length() == 0
+                    && decimalFormat.getPositiveSuffix().length() == 0
+                    && decimalFormat.getNegativeSuffix().length() == 0
+                    && decimalFormat.getNegativePrefix().equals(String.valueOf(this.minusSign))
+                    && !decimalFormat.isParseBigDecimal() && !decimalFormat.isParseIntegerOnly();
+        } else {
+            this.simpleFormat = false;
+        }
+        this.numberFormat = new ThreadLocal<NumberFormat>() {
+            @Override
+            protected NumberFormat initialValue() {
+                return NumberFormat.getInstance(locale);
+            }
+        };
+    }
+
+    /**
+     * Lecture du nombre au début de la chaîne.
+     * 
+     * @param value
+     *            non null
+     * @return un {@link Long} pour un entier, un {@link Double} sinon
+     * @throws ParseException
+     *             si la chaîne ne commence pas par un nombre
+     */
+    public Number parse(String value) throws ParseException {
+        Number number = this.simpleFormat ? parseSimple(value) : null;
+        if (number == null) {
+            number = this.numberFormat.get().parse(value);
+        }
+        return number;
+    }
+
+    /**
+     * Lecture directe d'une chaîne de la forme <code>[-]chiffres[séparateur chiffres]</code>.
+     * 
+     * @return null si la chaîne n'a pas cette forme
+     */
+    private Number parseSimple(String value) {
+        int length = value.length();
+        int start = length > 0 && value.charAt(0) == this.minusSign ? 1 : 0;
+        int separator = -1;
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == this.decimalSeparator && separator < 0) {
+                separator = i;
+            } else if (c < '0' || c > '9') {
+                return null;
+            }
+        }
+        int integerDigits = (separator < 0 ? length : separator) - start;
+        if (integerDigits == 0 || separator == length - 1) {
+            // pas de chiffre avant ou après le séparateur
+            return null;
+        }
+        boolean negative = start == 1;
+        if (separator < 0 || isZeros(value, separator + 1, length)) {
+            if (integerDigits > MAX_LONG_DIGITS) {
+                return null;
+            }
+            long integer = Long.parseLong(value.substring(start, separator < 0 ? length : separator));
+            if (negative && integer == 0) {
+                // NumberFormat donne -0.0
+                return Double.valueOf(-0.0d);
+            }
+            return Long.valueOf(negative ? -integer : integer);
+        }
+        StringBuilder decimal = new StringBuilder(length);
+        if (negative) {
+            decimal.append('-');
+        }
+        decimal.append(value, start, separator).append('.').append(value, separator + 1, length);
+        return Double.valueOf(decimal.toString());
+    }
+
+    private static boolean isZeros(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (value.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,343 @@
+package org.excelaccess.excel.convert;
+
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.excelaccess.excel.utils.ExcelDates;
+import org.joda.time.Chronology;
+import org.joda.time.chrono.ISOChronology;
+
+/**
+ * Format de sortie d'une valeur, voir {@link org.excelaccess.excel.model.annotation.ExcelCellFormat#outputFormat()},
+ * analysé une seule fois : même résultat que {@link String#format(Locale, String, Object...)} avec la valeur comme
+ * unique argument. <br/>
+ * Les formats composés de texte et de champs simples (<tt>%s</tt>, <tt>%d</tt>, champs de date <tt>%tY</tt>,
+ * <tt>%tm</tt>, <tt>%td</tt>...) portant sur la valeur sont produits directement ; les autres passent par un
+ * {@link Formatter} propre à chaque thread. Les instances sont partagées entre threads.
+ * 
+ * @author Loic Abemonty
+ */
+public final class OutputFormat {
+
+    /**
+     * syntaxe d'un champ de {@link Formatter}.
+     */
+    private static final Pattern SPECIFIER = Pattern
+            .compile("%(\\d+\\$)?([-#+ 0,(<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])");
+
+    /**
+     * champs de date produits directement.
+     */
+    private static final String DATE_FIELDS = "YymdeHMSLFTRD";
+
+    /**
+     * en deçà (1er janvier 1900), le calendrier julien de {@link java.util.GregorianCalendar} peut s'appliquer.
+     */
+    private static final long MIN_LOCAL_MILLIS = -2208988800000L;
+
+    private static final Chronology UTC = ISOChronology.getInstanceUTC();
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    /**
+     * Analyse d'un format.
+     * 
+     * @param pattern
+     *            format de {@link Formatter}, non null
+     * @param locale
+     *            langue du formatage, non null
+     * @return non null
+     */
+    public static OutputFormat compile(String pattern, Locale locale) {
+        return new OutputFormat(pattern, locale);
+    }
+
+    private final String pattern;
+
+    private final Locale locale;
+
+    /**
+     * texte (String), champs de date (Character) et autres champs ({@link Field}) du format, null si le format passe
+     * par {@link Formatter}.
+     */
+    private final Object[] segments;
+
+    private final boolean dateSegments;
+
+    private final ThreadLocal<Formatter> formatter;
+
+    private OutputFormat(String pattern, final Locale locale) {
+        this.pattern = pattern;
+        this.locale = locale;
+        List<Object> parts = '0' == new DecimalFormatSymbols(locale).getZeroDigit() ? split(pattern) : null;
+        this.segments = parts == null ? null : parts.toArray();
+        boolean dates = false;
+        if (parts != null) {
+            for (Object part : parts) {
+                dates |= part instanceof Character && DATE_FIELDS.indexOf((Character) part) >= 0;
+            }
+        }
+        this.dateSegments = dates;
+        this.formatter = new ThreadLocal<Formatter>() {
+            @Override
+            protected Formatter initialValue() {
+                return new Formatter(new StringBuilder(), locale);
+            }
+        };
+    }
+
+    /**
+     * Découpage du format en texte et en champs produits directement : <tt>'s'</tt>, <tt>'d'</tt> ou un champ de
+     * date.
+     * 
+     * @return null si un élément du format n'est pas produit directement
+     */
+    private static List<Object> split(String pattern) {
+        List<Object> parts = new ArrayList<Object>();
+        Matcher matcher = SPECIFIER.matcher(pattern);
+        int ordinaryIndex = 0;
+        int end = 0;
+        while (matcher.find()) {
+            if (!addText(parts, pattern.substring(end, matcher.start()))) {
+                return null;
+            }
+            end = matcher.end();
+            String index = matcher.group(1);
+            String flags = matcher.group(2);
+            char conversion = matcher.group(6).charAt(0);
+            boolean date = matcher.group(5) != null;
+            if (matcher.group(3) != null || matcher.group(4) != null) {
+                return null;
+            }
+            if (!date && (conversion == '%' || conversion == 'n')) {
+                if (index != null || flags.length() > 0) {
+                    return null;
+                }
+                parts.add(conversion == '%' ? "%" : LINE_SEPARATOR);
+                continue;
+            }
+            // seule la valeur, premier argument, est formatée
+            int argument;
+            if ("<".equals(flags)) {
+                argument = 1;
+            } else if (flags.length() > 0) {
+                return null;
+            } else if (index != null) {
+                argument = Integer.parseInt(index.substring(0, index.length() - 1));
+            } else {
+                argument = ++ordinaryIndex;
+            }
+            if (argument != 1) {
+                return null;
+            }
+            if (date ? DATE_FIELDS.indexOf(conversion) < 0 : conversion != 's' && conversion != 'd') {
+                return null;
+            }
+            if (date) {
+                parts.add(Character.valueOf(conversion));
+            } else {
+                parts.add(conversion == 's' ? Field.STRING : Field.DECIMAL);
+            }
+        }
+        if (!addText(parts, pattern.substring(end))) {
+            return null;
+        }
+        return parts;
+    }
+
+    private static boolean addText(List<Object> parts, String text) {
+        if (text.indexOf('%') >= 0) {
+            return false;
+        }
+        if (text.length() > 0) {
+            parts.add(text);
+        }
+        return true;
+    }
+
+    /**
+     * Formatage d'une valeur.
+     * 
+     * @param value
+     *            non null
+     * @return la valeur formatée
+     * @throws IllegalFormatException
+     *             si le format ne s'applique pas à la valeur
+     */
+    public String format(Object value) {
+        if (this.segments != null) {
+            String formatted = formatDirectly(value);
+            if (formatted != null) {
+                return formatted;
+            }
+        }
+        return formatWithFormatter(value);
+    }
+
+    private String formatWithFormatter(Object value) {
+        Formatter threadFormatter = this.formatter.get();
+        StringBuilder builder = (StringBuilder) threadFormatter.out();
+        builder.setLength(0);
+        threadFormatter.format(this.pattern, value);
+        return builder.toString();
+    }
+
+    /**
+     * Vérifie que le format s'applique aux valeurs d'un type, en formatant une valeur exemple (voir
+     * {@link ConverterRegistry#getSampleValue(Class)}). Pour un type sans valeur exemple, seule la syntaxe du format est
+     * vérifiée.
+     * 
+     * @param type
+     *            type des valeurs, peut être null
+     * @throws IllegalFormatException
+     *             si le format est invalide ou ne s'applique pas au type
+     */
+    public void check(Class<?> type) {
+        Object sample = ConverterRegistry.getSampleValue(type);
+        formatWithFormatter(sample);
+        if (sample != null) {
+            format(sample);
+        }
+    }
+
+    /**
+     * @return null si la valeur n'est pas d'un type produit directement
+     */
+    private String formatDirectly(Object value) {
+        long localMillis = 0;
+        if (this.dateSegments) {
+            if (!(value instanceof Date)) {
+                return null;
+            }
+            // champs locaux dans le fuseau par défaut du JDK, comme le Calendar de Formatter
+            localMillis = ExcelDates.toLocalMillis((Date) value);
+            if (localMillis < MIN_LOCAL_MILLIS) {
+                return null;
+            }
+        }
+        StringBuilder builder = new StringBuilder(this.pattern.length() + 16);
+        for (Object segment : this.segments) {
+            if (segment instanceof String) {
+                builder.append((String) segment);
+                continue;
+            }
+            if (segment == Field.STRING) {
+                if (value instanceof Formattable) {
+                    return null;
+                }
+                builder.append(value.toString());
+            } else if (segment == Field.DECIMAL) {
+                if (!(value instanceof Integer || value instanceof Long || value instanceof Short
+                        || value instanceof Byte)) {
+                    return null;
+                }
+                builder.append(((Number) value).longValue());
+            } else {
+                appendDateField(builder, (Character) segment, localMillis);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void appendDateField(StringBuilder builder, char field, long localMillis) {
+        switch (field) {
+            case 'Y':
+                appendPadded(builder, UTC.year().get(localMillis), 4);
+                break;
+            case 'y':
+                appendPadded(builder, UTC.year().get(localMillis) % 100, 2);
+                break;
+            case 'm':
+                appendPadded(builder, UTC.monthOfYear().get(localMillis), 2);
+                break;
+            case 'd':
+                appendPadded(builder, UTC.dayOfMonth().get(localMillis), 2);
+                break;
+            case 'e':
+                builder.append(UTC.dayOfMonth().get(localMillis));
+                break;
+            case 'H':
+                appendPadded(builder, UTC.hourOfDay().get(localMillis), 2);
+                break;
+            case 'M':
+                appendPadded(builder, UTC.minuteOfHour().get(localMillis), 2);
+                break;
+            case 'S':
+                appendPadded(builder, UTC.secondOfMinute().get(localMillis), 2);
+                break;
+            case 'L':
+                appendPadded(builder, UTC.millisOfSecond().get(localMillis), 3);
+                break;
+            case 'F':
+                appendDateField(builder, 'Y', localMillis);
+                builder.append('-');
+                appendDateField(builder, 'm', localMillis);
+                builder.append('-');
+                appendDateField(builder, 'd', localMillis);
+                break;
+            case 'T':
+                appendDateField(builder, 'R', localMillis);
+                builder.append(':');
+                appendDateField(builder, 'S', localMillis);
+                break;
+            case 'R':
+                appendDateField(builder, 'H', localMillis);
+                builder.append(':');
+                appendDateField(builder, 'M', localMillis);
+                break;
+            case 'D':
+                appendDateField(builder, 'm', localMillis);
+                builder.append('/');
+                appendDateField(builder, 'd', localMillis);
+                builder.append('/');
+                appendDateField(builder, 'y', localMillis);
+                break;
+            default:
+                throw new IllegalStateException("champ de date non géré : " + field);
+        }
+    }
+
+    private static void appendPadded(StringBuilder builder, int value, int size) {
+        for (int limit = 10; size > 1; size--, limit *= 10) {
+            if (value < limit) {
+                builder.append('0');
+            }
+        }
+        builder.append(value);
+    }
+
+    /**
+     * @return true si le format est produit sans {@link Formatter} pour les valeurs de son type
+     */
+    public boolean isDirect() {
+        return this.segments != null;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public String toString() {
+        return "OutputFormat[" + pattern + ", " + locale + "]";
+    }
+
+    /**
+     * Champs autres que les dates produits directement.
+     */
+    private enum Field {
+        STRING, DECIMAL
+    }
+}
@@ -0,0 +1,424 @@
+package org.excelaccess.excel.convert;
+
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_BOOLEAN;
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_NUMERIC;
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_STRING;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.Date;
+
+import org.apache.commons.lang.StringUtils;
+import org.excelaccess.excel.backend.RowBackend;
+import org.excelaccess.excel.mapping.MethodMapping;
+import org.excelaccess.excel.utils.ExcelDates;
+import org.joda.time.Chronology;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+import org.joda.time.chrono.ISOChronology;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+
+/**
+ * Convertisseurs fournis par {@link ConverterRegistry}. <br/>
+ * Une cellule texte est lue dans le type demandé : les nombres dans la langue de la méthode (voir
+ * {@link MethodMapping#getNumberParser()}), les dates au format ISO.
+ * 
+ * @author Loic Abemonty
+ */
+final class StandardConverters {
+
+    /**
+     * chronologie des dates locales : sans fuseau horaire, les millisecondes sont celles de la date locale.
+     */
+    private static final Chronology UTC = ISOChronology.getInstanceUTC();
+
+    private static final DateTimeFormatter DATE_TIME_PARSER = ISODateTimeFormat.dateTimeParser();
+
+    private static final DateTimeFormatter LOCAL_DATE_PARSER = ISODateTimeFormat.localDateParser().withChronology(UTC);
+
+    private static final DateTimeFormatter LOCAL_DATE_TIME_PARSER = ISODateTimeFormat.localDateOptionalTimeParser()
+            .withChronology(UTC);
+
+    private StandardConverters() {
+    }
+
+    static void registerAll() {
+        ConverterRegistry.register(String.class, new StringConverter());
+        register(Integer.class, int.class, new IntegerConverter());
+        register(Long.class, long.class, new LongConverter());
+        register(Double.class, double.class, new DoubleConverter());
+        register(Float.class, float.class, new FloatConverter());
+        register(Short.class, short.class, new ShortConverter());
+        register(Byte.class, byte.class, new ByteConverter());
+        register(Boolean.class, boolean.class, new BooleanConverter());
+        register(Character.class, char.class, new CharacterConverter());
+        ConverterRegistry.register(BigDecimal.class, new BigDecimalConverter());
+        ConverterRegistry.register(Date.class, new DateConverter());
+        ConverterRegistry.register(DateTime.class, new DateTimeConverter());
+        ConverterRegistry.register(LocalDate.class, new LocalDateConverter());
+        ConverterRegistry.register(LocalDateTime.class, new LocalDateTimeConverter());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void register(Class<T> type, Class<?> primitiveType, CellConverter<T> converter) {
+        ConverterRegistry.register(type, converter);
+        ConverterRegistry.register((Class<T>) primitiveType, converter);
+    }
+
+    /**
+     * Texte d'une cellule texte, sinon la partie entière d'un nombre.
+     */
+    static final class StringConverter implements CellConverter<String> {
+
+        @Override
+        public int getCellType() {
+            return CELL_TYPE_STRING;
+        }
+
+        @Override
+        public String read(RowBackend row, int column, int cellType, MethodMapping methodMapping) {
+            if (CELL_TYPE_STRING == cellType) {
+                return row.getStringValue(column);
+            }
+            // numerique version, ne renvoie pas d'erreur si ce n'est pas une string
+            return String.format("%d", Double.valueOf(row.getNumericValue(column)).intValue());
+        }
+
+        @Override
+        public void write(RowBackend row, int column, String value) {
+            row.setStringValue(column, value);
+        }
+    }
+
+    /**
+     * Nombre d'une cellule numérique, ou lu dans une cellule texte.
+     */
+    abstract static class NumberConverter<N extends Number> implements CellConverter<N> {
+
+        @Override
+        public int getCellType() {
+            return CELL_TYPE_NUMERIC;
+        }
+
+        @Override
+        public N read(RowBackend row, int column, int cellType, MethodMapping methodMapping) {
+            if (CELL_TYPE_STRING == cellType) {
+                String value = row.getStringValue(column);
+                if (StringUtils.isBlank(value)) {
+                    return null;
+                }
+                try {
+                    return fromString(value, methodMapping);
+                } catch (ParseException e) {
+                    return null;
+                }
+            }
+            return fromDouble(row.getNumericValue(column));
+        }
+
+        @Override
+        public void write(RowBackend row, int column, N value) {
+            row.setNumericValue(column, value.doubleValue());
+        }
+
+        /**
+         * Lecture dans une chaîne non vide.
+         */
+        protected N fromString(String value, MethodMapping methodMapping) throws ParseException {
+            return fromNumber(methodMapping.getNumberParser().parse(value));
+        }
+
+        protected abstract N fromNumber(Number value);
+
+        protected abstract N fromDouble(double value);
+    }
+
+    static final class IntegerConverter extends NumberConverter<Integer> {
+
+        @Override
+        protected Integer fromNumber(Number value) {
+            return Integer.valueOf(value.intValue());
+        }
+
+        @Override
+        protected Integer fromDouble(double value) {
+            return Integer.valueOf((int) value);
+        }
+    }
+
+    static final class LongConverter extends NumberConverter<Long> {
+
+        @Override
+        protected Long fromNumber(Number value) {
+            return Long.valueOf(value.longValue());
+        }
+
+        @Override
+        protected Long fromDouble(double value) {
+            return Long.valueOf((long) value);
+        }
+    }
+
+    static final class DoubleConverter extends NumberConverter<Double> {
+
+        @Override
+        protected Double fromNumber(Number value) {
+            return Double.valueOf(value.doubleValue());
+        }
+
+        @Override
+        protected Double fromDouble(double value) {
+            return Double.valueOf(value);
+        }
+    }
+
+    static final class FloatConverter extends NumberConverter<Float> {
+
+        @Override
+        protected Float fromNumber(Number value) {
+            return Float.valueOf(value.floatValue());
+        }
+
+        @Override
+        protected Float fromDouble(double value) {
+            return Float.valueOf((float) value);
+        }
+    }
+
+    static final class ShortConverter extends NumberConverter<Short> {
+
+        @Override
+        protected Short fromNumber(Number value) {
+            return Short.valueOf(value.shortValue());
+        }
+
+        @Override
+        protected Short fromDouble(double value) {
+            return Short.valueOf((short) value);
+        }
+    }
+
+    static final class ByteConverter extends NumberConverter<Byte> {
+
+        @Override
+        protected Byte fromNumber(Number value) {
+            return Byte.valueOf(value.byteValue());
+        }
+
+        @Override
+        protected Byte fromDouble(double value) {
+            return Byte.valueOf((byte) value);
+        }
+    }
+
+    /**
+     * Un nombre lu dans une cellule texte est tronqué à sa partie entière.
+     */
+    static final class BigDecimalConverter extends NumberConverter<BigDecimal> {
+
+        @Override
+        protected BigDecimal fromNumber(Number value) {
+            return BigDecimal.valueOf(value.longValue());
+        }
+
+        @Override
+        protected BigDecimal fromDouble(double value) {
+            return BigDecimal.valueOf(value);
+        }
+    }
+
+    /**
+     * Booléen d'une cellule booléenne, "true" ou "false" dans une cellule texte, différent de zéro dans une cellule
+     * numérique.
+     */
+    static final class BooleanConverter implements CellConverter<Boolean> {
+
+        @Override
+        public int getCellType() {
+            return CELL_TYPE_BOOLEAN;
+        }
+
+        @Override
+        public Boolean read(RowBackend row, int column, int cellType, MethodMapping methodMapping) {
+            switch (cellType) {
+                case CELL_TYPE_BOOLEAN:
+                    return Boolean.valueOf(row.getBooleanValue(column));
+                case CELL_TYPE_STRING:
+                    String value = StringUtils.trim(row.getStringValue(column));
+                    if ("true".equalsIgnoreCase(value)) {
+                        return Boolean.TRUE;
+                    }
+                    if ("false".equalsIgnoreCase(value)) {
+                        return Boolean.FALSE;
+                    }
+                    return null;
+                default:
+                    return Boolean.valueOf(row.getNumericValue(column) != 0);
+            }
+        }
+
+        @Override
+        public void write(RowBackend row, int column, Boolean value) {
+            row.setBooleanValue(column, value.booleanValue());
+        }
+    }
+
+    /**
+     * Premier caractère d'une cellule texte.
+     */
+    static final class CharacterConverter implements CellConverter<Character> {
+
+        @Override
+        public int getCellType() {
+            return CELL_TYPE_STRING;
+        }
+
+        @Override
+        public Character read(RowBackend row, int column, int cellType, MethodMapping methodMapping) {
+            if (CELL_TYPE_STRING != cellType) {
+                return null;
+            }
+            String value = row.getStringValue(column);
+            return value.length() == 0 ? null : Character.valueOf(value.charAt(0));
+        }
+
+        @Override
+        public void write(RowBackend row, int column, Character value) {
+            row.setStringValue(column, value.toString());
+        }
+    }
+
+    /**
+     * Date d'une cellule numérique, calculée sans {@link java.util.Calendar} (voir {@link ExcelDates}), ou lue au
+     * format ISO dans une cellule texte.
+     */
+    abstract static class AbstractDateConverter<D> implements CellConverter<D> {
+
+        @Override
+        public int getCellType() {
+            return CELL_TYPE_NUMERIC;
+        }
+
+        @Override
+        public D read(RowBackend row, int column, int cellType, MethodMapping methodMapping) {
+            if (CELL_TYPE_STRING == cellType) {
+                String value = row.getStringValue(column);
+                if (StringUtils.isBlank(value)) {
+                    return null;
+                }
+                try {
+                    return fromString(value);
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+            long localMillis = row.getLocalDateValue(column);
+            if (localMillis == ExcelDates.INVALID) {
+                return null;
+            }
+            return fromLocalMillis(localMillis);
+        }
+
+        @Override
+        public void write(RowBackend row, int column, D value) {
+            row.setDateValue(column, toDate(value));
+        }
+
+        /**
+         * @throws IllegalArgumentException
+         *             si la chaîne n'est pas une date ISO
+         */
+        protected abstract D fromString(String value);
+
+        /**
+         * @param localMillis
+         *            date locale, voir {@link ExcelDates}
+         */
+        protected abstract D fromLocalMillis(long localMillis);
+
+        protected abstract Date toDate(D value);
+    }
+
+    /**
+     * Les chaînes sont lues comme par {@link DateTime#DateTime(Object)}, avec un analyseur créé une seule fois.
+     */
+    static final class DateConverter extends AbstractDateConverter<Date> {
+
+        @Override
+        protected Date fromString(String value) {
+            return new Date(DATE_TIME_PARSER.parseMillis(value));
+        }
+
+        @Override
+        protected Date fromLocalMillis(long localMillis) {
+            return new Date(ExcelDates.toInstantMillis(localMillis));
+        }
+
+        @Override
+        protected Date toDate(Date value) {
+            return value;
+        }
+    }
+
+    static final class DateTimeConverter extends AbstractDateConverter<DateTime> {
+
+        @Override
+        protected DateTime fromString(String value) {
+            return new DateTime(DATE_TIME_PARSER.parseMillis(value));
+        }
+
+        @Override
+        protected DateTime fromLocalMillis(long localMillis) {
+            return new DateTime(ExcelDates.toInstantMillis(localMillis));
+        }
+
+        @Override
+        protected Date toDate(DateTime value) {
+            return value.toDate();
+        }
+    }
+
+    /**
+     * Les chaînes sont lues comme par {@link LocalDate#LocalDate(Object)}.
+     */
+    static final class LocalDateConverter extends AbstractDateConverter<LocalDate> {
+
+        @Override
+        protected LocalDate fromString(String value) {
+            return new LocalDate(LOCAL_DATE_PARSER.parseMillis(value), UTC);
+        }
+
+        @Override
+        protected LocalDate fromLocalMillis(long localMillis) {
+            return new LocalDate(localMillis, UTC);
+        }
+
+        @Override
+        protected Date toDate(LocalDate value) {
+            return value.toDateTimeAtStartOfDay().toDate();
+        }
+    }
+
+    /**
+     * Les chaînes sont lues comme par {@link LocalDateTime#LocalDateTime(Object)}.
+     */
+    static final class LocalDateTimeConverter extends AbstractDateConverter<LocalDateTime> {
+
+        @Override
+        protected LocalDateTime fromString(String value) {
+            return new LocalDateTime(LOCAL_DATE_TIME_PARSER.parseMillis(value), UTC);
+        }
+
+        @Override
+        protected LocalDateTime fromLocalMillis(long localMillis) {
+            return new LocalDateTime(localMillis, UTC);
+        }
+
+        @Override
+        protected Date toDate(LocalDateTime value) {
+            return value.toDateTime().toDate();
+        }
+    }
+}
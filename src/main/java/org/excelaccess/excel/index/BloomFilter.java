@@ -0,0 +1,107 @@
+package org.excelaccess.excel.index;
+
+/**
+ * Filtre de Bloom : ensemble probabiliste sans faux négatif. Un objet ajouté est toujours reconnu ; un objet non
+ * ajouté est reconnu avec une probabilité proche du taux de faux positifs demandé, tant que le nombre d'objets
+ * ajoutés ne dépasse pas celui prévu. <br/>
+ * Les positions sont calculées par double hachage du {@link Object#hashCode()}.
+ * 
+ * @author Loic Abemonty
+ */
+public final class BloomFilter {
+
+    private final long[] bits;
+
+    private final int bitCount;
+
+    private final int hashCount;
+
+    private int size;
+
+    /**
+     * @param expectedSize
+     *            nombre d'objets prévus
+     * @param falsePositiveRate
+     *            taux de faux positifs, strictement entre 0 et 1
+     * @throws IllegalArgumentException
+     *             si le taux n'est pas entre 0 et 1
+     */
+    public BloomFilter(int expectedSize, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Taux de faux positifs invalide : " + falsePositiveRate);
+        }
+        int n = Math.max(1, expectedSize);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+        this.hashCount = Math.max(1, (int) Math.round((double) this.bitCount / n * Math.log(2)));
+        this.bits = new long[(this.bitCount + 63) >>> 6];
+    }
+
+    /**
+     * @param object
+     *            non null
+     */
+    public void put(Object object) {
+        int h1 = mix(object.hashCode());
+        int h2 = mix(h1 ^ 0x5bd1e995) | 1;
+        for (int i = 0; i < this.hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % this.bitCount;
+            this.bits[bit >>> 6] |= 1L << bit;
+        }
+        this.size++;
+    }
+
+    /**
+     * @param object
+     *            non null
+     * @return false si l'objet n'a certainement pas été ajouté
+     */
+    public boolean mightContain(Object object) {
+        int h1 = mix(object.hashCode());
+        int h2 = mix(h1 ^ 0x5bd1e995) | 1;
+        for (int i = 0; i < this.hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % this.bitCount;
+            if ((this.bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Nombre d'ajouts.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Taille du filtre en bits.
+     */
+    public int getBitCount() {
+        return this.bitCount;
+    }
+
+    public int getHashCount() {
+        return this.hashCount;
+    }
+
+    /**
+     * Taux de faux positifs attendu pour le nombre d'ajouts courant.
+     */
+    public double getExpectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) this.hashCount * this.size / this.bitCount), this.hashCount);
+    }
+
+    /**
+     * Finalisation de MurmurHash3, dispersant les hashCode proches.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,37 @@
+package org.excelaccess.excel.index;
+
+import java.util.Arrays;
+
+/**
+ * Liste d'entiers sans boxing, pour les listes de lignes de {@link PostingsIndex}.
+ * 
+ * @author Loic Abemonty
+ */
+final class IntList {
+
+    private int[] values = new int[4];
+
+    private int size;
+
+    void add(int value) {
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        this.values[this.size++] = value;
+    }
+
+    int get(int index) {
+        return this.values[index];
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Recherche dans une liste triée.
+     */
+    boolean contains(int value) {
+        return Arrays.binarySearch(this.values, 0, this.size, value) >= 0;
+    }
+}
@@ -0,0 +1,174 @@
+package org.excelaccess.excel.index;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.List;
+
+import org.apache.commons.lang.ClassUtils;
+import org.excelaccess.excel.ExcelRowInvocationHandler;
+import org.excelaccess.excel.mapping.MethodMapping;
+import org.excelaccess.excel.mapping.RowMappingRegistry;
+import org.excelaccess.excel.model.annotation.ExcelKey;
+
+/**
+ * Colonnes clés d'une interface de ligne ({@link ExcelKey}) et lecture de leurs valeurs, dans une ligne ou dans un
+ * objet clé. <br/>
+ * Les valeurs d'un objet clé sont lues par les méthodes de même nom que les getters des colonnes clés. Avec une seule
+ * colonne clé, l'objet clé peut aussi être directement la valeur de la colonne.
+ * 
+ * @author Loic Abemonty
+ */
+public final class KeyColumns {
+
+    /**
+     * Description des colonnes clés.
+     * 
+     * @param rowClass
+     *            interface de ligne, non null
+     * @param keyClass
+     *            classe des objets clés, non null
+     * @return null si l'interface n'a aucune colonne clé
+     * @throws IllegalArgumentException
+     *             si la classe des objets clés ne fournit pas toutes les valeurs
+     */
+    public static KeyColumns of(Class<?> rowClass, Class<?> keyClass) {
+        List<MethodMapping> mappings = RowMappingRegistry.getMapping(rowClass).getKeyMappings();
+        if (mappings.isEmpty()) {
+            return null;
+        }
+        Method[] keyMethods = new Method[mappings.size()];
+        for (int i = 0; i < keyMethods.length; i++) {
+            MethodMapping mapping = mappings.get(i);
+            String name = mapping.getMethod().getName();
+            try {
+                keyMethods[i] = keyClass.getMethod(name);
+                try {
+                    keyMethods[i].setAccessible(true);
+                } catch (SecurityException e) {
+                    // appel sans raccourci
+                }
+            } catch (NoSuchMethodException e) {
+                if (keyMethods.length > 1 || !ClassUtils.isAssignable(keyClass, mapping.getValueType(), true)) {
+                    throw new IllegalArgumentException("La clé " + keyClass.getName() + " ne fournit pas " + name
+                            + "() pour " + rowClass.getName(), e);
+                }
+                // l'objet clé est la valeur de l'unique colonne clé
+                keyMethods[i] = null;
+            }
+        }
+        return new KeyColumns(mappings, keyMethods);
+    }
+
+    private final List<MethodMapping> mappings;
+
+    /**
+     * méthodes de lecture des valeurs d'un objet clé ; null pour l'objet clé lui-même.
+     */
+    private final Method[] keyMethods;
+
+    private KeyColumns(List<MethodMapping> mappings, Method[] keyMethods) {
+        this.mappings = mappings;
+        this.keyMethods = keyMethods;
+    }
+
+    /**
+     * Getters des colonnes clés, dans l'ordre des valeurs des clés.
+     */
+    public List<MethodMapping> getMappings() {
+        return mappings;
+    }
+
+    /**
+     * Nombre de colonnes clés.
+     */
+    public int size() {
+        return this.keyMethods.length;
+    }
+
+    /**
+     * Valeurs d'un objet clé.
+     * 
+     * @param key
+     *            non null
+     * @return une valeur par colonne clé, null pour une valeur non renseignée
+     */
+    public Object[] getKeyValues(Object key) {
+        Object[] values = new Object[this.keyMethods.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = this.keyMethods[i] == null ? key : invoke(this.keyMethods[i], key);
+        }
+        return values;
+    }
+
+    /**
+     * Clé composite d'un objet clé.
+     * 
+     * @param key
+     *            non null
+     * @return null si une des valeurs n'est pas renseignée
+     */
+    public RowKey getRowKey(Object key) {
+        Object[] values = getKeyValues(key);
+        for (Object value : values) {
+            if (value == null) {
+                return null;
+            }
+        }
+        return new RowKey(values);
+    }
+
+    /**
+     * Clé composite d'une ligne, lue directement dans les cellules sans objet représentant la ligne.
+     * 
+     * @param handler
+     *            handler positionné sur la ligne, non null
+     * @return non null
+     */
+    public RowKey readRowKey(ExcelRowInvocationHandler handler) {
+        return new RowKey(readRowValues(handler));
+    }
+
+    /**
+     * Valeurs des colonnes clés d'une ligne, lues directement dans les cellules sans objet représentant la ligne.
+     * 
+     * @param handler
+     *            handler positionné sur la ligne, non null
+     * @return une valeur par colonne clé, null pour une cellule vide
+     */
+    public Object[] readRowValues(ExcelRowInvocationHandler handler) {
+        Object[] values = new Object[this.keyMethods.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = handler.handle(this.mappings.get(i), -1, null);
+        }
+        return values;
+    }
+
+    /**
+     * Valeurs des colonnes clés d'un objet représentant une ligne.
+     * 
+     * @param row
+     *            non null
+     * @return une valeur par colonne clé
+     */
+    public Object[] getRowValues(Object row) {
+        Object[] values = new Object[this.keyMethods.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = invoke(this.mappings.get(i).getMethod(), row);
+        }
+        return values;
+    }
+
+    private static Object invoke(Method method, Object target) {
+        try {
+            return method.invoke(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Méthode inaccessible : " + method, e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new UndeclaredThrowableException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package org.excelaccess.excel.index;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.excelaccess.excel.mapping.MethodMapping;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+/**
+ * Valeurs des colonnes clés des lignes d'une feuille, enregistrées dans un fichier à côté du classeur pour éviter de
+ * relire la feuille au redémarrage. <br/>
+ * Le fichier est lu en entier puis décodé en mémoire ({@link ByteBuffer}), sans projection : il reste remplaçable
+ * aussitôt après la lecture, y compris sous Windows. Il n'est utilisé que si son empreinte
+ * correspond : taille et date de modification du classeur, interface de ligne et colonnes clés, somme de contrôle des
+ * valeurs enregistrées.
+ * 
+ * @author Loic Abemonty
+ */
+public final class KeyIndexFile {
+
+    /**
+     * "EXKI".
+     */
+    private static final int MAGIC = 0x45584b49;
+
+    private static final int VERSION = 1;
+
+    private static final String CHARSET = "UTF-8";
+
+    private static final byte NULL = 0;
+
+    private static final byte STRING = 1;
+
+    private static final byte INTEGER = 2;
+
+    private static final byte LONG = 3;
+
+    private static final byte DOUBLE = 4;
+
+    private static final byte FLOAT = 5;
+
+    private static final byte BIG_DECIMAL = 6;
+
+    private static final byte DATE = 7;
+
+    private static final byte DATE_TIME = 8;
+
+    private final IntList rowNums = new IntList();
+
+    private final List<Object[]> values = new ArrayList<Object[]>();
+
+    /**
+     * Ajout d'une ligne.
+     * 
+     * @param rowNum
+     *            numéro de la ligne
+     * @param rowValues
+     *            une valeur par colonne clé, conservée par référence
+     */
+    public void add(int rowNum, Object[] rowValues) {
+        this.rowNums.add(rowNum);
+        this.values.add(rowValues);
+    }
+
+    /**
+     * Nombre de lignes.
+     */
+    public int size() {
+        return this.rowNums.size();
+    }
+
+    public int getRowNum(int index) {
+        return this.rowNums.get(index);
+    }
+
+    public Object[] getValues(int index) {
+        return this.values.get(index);
+    }
+
+    /**
+     * Enregistrement, par remplacement d'un fichier temporaire. Le classeur doit avoir été enregistré auparavant : son
+     * empreinte est celle du moment.
+     * 
+     * @param indexFile
+     *            fichier d'index
+     * @param workbookFile
+     *            fichier du classeur, existant
+     * @param rowClass
+     *            interface de ligne
+     * @param keyColumns
+     *            colonnes clés de l'interface
+     * @throws IOException
+     *             en cas d'erreur d'écriture, ou pour une valeur d'un type non supporté
+     */
+    public void write(File indexFile, File workbookFile, Class<?> rowClass, KeyColumns keyColumns)
+            throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        for (int i = 0; i < size(); i++) {
+            payload.writeInt(getRowNum(i));
+            for (Object value : getValues(i)) {
+                writeValue(payload, value);
+            }
+        }
+        payload.close();
+        byte[] data = payloadBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        File tmpFile = new File(indexFile.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(tmpFile));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(workbookFile.length());
+            out.writeLong(workbookFile.lastModified());
+            writeString(out, signature(rowClass, keyColumns));
+            out.writeInt(size());
+            out.writeInt(data.length);
+            out.writeLong(crc.getValue());
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        if (!tmpFile.renameTo(indexFile) && !(indexFile.delete() && tmpFile.renameTo(indexFile))) {
+            throw new IOException("Impossible de remplacer " + indexFile);
+        }
+    }
+
+    /**
+     * Lecture d'un fichier d'index.
+     * 
+     * @param indexFile
+     *            fichier d'index
+     * @param workbookFile
+     *            fichier du classeur
+     * @param rowClass
+     *            interface de ligne
+     * @param keyColumns
+     *            colonnes clés de l'interface
+     * @return null si le fichier n'existe pas ou ne correspond plus au classeur
+     * @throws IOException
+     *             en cas d'erreur de lecture ou de fichier corrompu
+     */
+    public static KeyIndexFile read(File indexFile, File workbookFile, Class<?> rowClass, KeyColumns keyColumns)
+            throws IOException {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        long length = indexFile.length();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Fichier d'index corrompu : " + indexFile);
+        }
+        byte[] content = new byte[(int) length];
+        DataInputStream in = new DataInputStream(new FileInputStream(indexFile));
+        try {
+            in.readFully(content);
+        } finally {
+            in.close();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != workbookFile.length()
+                    || buffer.getLong() != workbookFile.lastModified()
+                    || !signature(rowClass, keyColumns).equals(readString(buffer))) {
+                return null;
+            }
+            int rowCount = buffer.getInt();
+            int dataLength = buffer.getInt();
+            long checksum = buffer.getLong();
+            if (checksum(buffer.slice(), dataLength) != checksum) {
+                throw new IOException("Somme de contrôle invalide : " + indexFile);
+            }
+            KeyIndexFile keyIndexFile = new KeyIndexFile();
+            for (int i = 0; i < rowCount; i++) {
+                int rowNum = buffer.getInt();
+                Object[] rowValues = new Object[keyColumns.size()];
+                for (int j = 0; j < rowValues.length; j++) {
+                    rowValues[j] = readValue(buffer);
+                }
+                keyIndexFile.add(rowNum, rowValues);
+            }
+            return keyIndexFile;
+        } catch (RuntimeException e) {
+            // BufferUnderflowException, IllegalArgumentException...
+            throw new IOException("Fichier d'index corrompu : " + indexFile, e);
+        }
+    }
+
+    /**
+     * Description de ce qui est indexé : feuille, première ligne, colonnes clés et leurs types.
+     */
+    private static String signature(Class<?> rowClass, KeyColumns keyColumns) {
+        ExcelDocument excelDocument = rowClass.getAnnotation(ExcelDocument.class);
+        StringBuilder signature = new StringBuilder(rowClass.getName());
+        signature.append('|').append(excelDocument.sheetName()).append('|').append(excelDocument.startAtRow());
+        for (MethodMapping mapping : keyColumns.getMappings()) {
+            // colonne désignée par son libellé : sa position dans la feuille peut changer sans changer les clés
+            String column = mapping.getHeader() == null ? String.valueOf(mapping.getColumn()) : mapping.getHeader();
+            signature.append('|').append(column).append(':').append(mapping.getValueType().getName());
+        }
+        return signature.toString();
+    }
+
+    private static long checksum(ByteBuffer data, int length) {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[8192];
+        for (int remaining = length; remaining > 0;) {
+            int count = Math.min(chunk.length, remaining);
+            data.get(chunk, 0, count);
+            crc.update(chunk, 0, count);
+            remaining -= count;
+        }
+        return crc.getValue();
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(BIG_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof Date) {
+            out.writeByte(DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof DateTime) {
+            out.writeByte(DATE_TIME);
+            out.writeLong(((DateTime) value).getMillis());
+            writeString(out, ((DateTime) value).getZone().getID());
+        } else {
+            throw new IOException("Type de clé non supporté : " + value.getClass().getName());
+        }
+    }
+
+    private static Object readValue(ByteBuffer buffer) throws IOException {
+        byte type = buffer.get();
+        switch (type) {
+        case NULL:
+            return null;
+        case STRING:
+            return readString(buffer);
+        case INTEGER:
+            return Integer.valueOf(buffer.getInt());
+        case LONG:
+            return Long.valueOf(buffer.getLong());
+        case DOUBLE:
+            return Double.valueOf(buffer.getDouble());
+        case FLOAT:
+            return Float.valueOf(buffer.getFloat());
+        case BIG_DECIMAL:
+            return new BigDecimal(readString(buffer));
+        case DATE:
+            return new Date(buffer.getLong());
+        case DATE_TIME:
+            long millis = buffer.getLong();
+            return new DateTime(millis, DateTimeZone.forID(readString(buffer)));
+        default:
+            throw new IOException("Type de valeur inconnu : " + type);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(CHARSET);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, CHARSET);
+    }
+}
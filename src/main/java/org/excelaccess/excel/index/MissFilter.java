@@ -0,0 +1,121 @@
+package org.excelaccess.excel.index;
+
+/**
+ * Filtre de Bloom sur les clés composites des lignes d'une feuille, pour créer une ligne sans parcourir la feuille
+ * quand la clé recherchée en est certainement absente. <br/>
+ * Seules les clés dont toutes les valeurs sont renseignées peuvent être écartées. Les compteurs permettent d'ajuster
+ * le taux de faux positifs : mémoire contre parcours évités.
+ * 
+ * @author Loic Abemonty
+ */
+public final class MissFilter {
+
+    private final KeyColumns keyColumns;
+
+    private final BloomFilter bloomFilter;
+
+    private long lookups;
+
+    private long definiteMisses;
+
+    private long falsePositives;
+
+    /**
+     * @param keyColumns
+     *            colonnes clés, non null
+     * @param expectedRows
+     *            nombre de lignes prévues, lignes créées comprises
+     * @param falsePositiveRate
+     *            taux de faux positifs, strictement entre 0 et 1
+     */
+    public MissFilter(KeyColumns keyColumns, int expectedRows, double falsePositiveRate) {
+        this.keyColumns = keyColumns;
+        this.bloomFilter = new BloomFilter(expectedRows, falsePositiveRate);
+    }
+
+    /**
+     * Ajout des valeurs des colonnes clés d'une ligne, une ligne ayant une cellule clé vide étant ignorée : aucune clé
+     * complète ne lui correspond.
+     * 
+     * @param values
+     *            une valeur par colonne clé
+     */
+    public void add(Object[] values) {
+        if (isComplete(values)) {
+            this.bloomFilter.put(new RowKey(values));
+        }
+    }
+
+    /**
+     * @param keyValues
+     *            valeurs d'un objet clé, voir {@link KeyColumns#getKeyValues(Object)}
+     * @return false si aucune ligne ne correspond certainement à la clé ; true si la clé est partielle
+     */
+    public boolean mightContain(Object[] keyValues) {
+        if (!isComplete(keyValues)) {
+            return true;
+        }
+        this.lookups++;
+        if (this.bloomFilter.mightContain(new RowKey(keyValues))) {
+            return true;
+        }
+        this.definiteMisses++;
+        return false;
+    }
+
+    /**
+     * Signalement d'une clé acceptée par le filtre mais absente de la feuille, une clé partielle étant ignorée.
+     * 
+     * @param keyValues
+     *            valeurs de l'objet clé
+     */
+    public void recordFalsePositive(Object[] keyValues) {
+        if (isComplete(keyValues)) {
+            this.falsePositives++;
+        }
+    }
+
+    private static boolean isComplete(Object[] values) {
+        for (Object value : values) {
+            if (value == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public KeyColumns getKeyColumns() {
+        return keyColumns;
+    }
+
+    public BloomFilter getBloomFilter() {
+        return bloomFilter;
+    }
+
+    /**
+     * Nombre de clés complètes soumises au filtre.
+     */
+    public long getLookups() {
+        return lookups;
+    }
+
+    /**
+     * Nombre de clés écartées par le filtre, donc de parcours évités.
+     */
+    public long getDefiniteMisses() {
+        return definiteMisses;
+    }
+
+    /**
+     * Nombre de clés acceptées par le filtre puis non trouvées dans la feuille.
+     */
+    public long getFalsePositives() {
+        return falsePositives;
+    }
+
+    @Override
+    public String toString() {
+        return "MissFilter[lookups=" + lookups + ", definiteMisses=" + definiteMisses + ", falsePositives="
+                + falsePositives + ", bits=" + bloomFilter.getBitCount() + "]";
+    }
+}
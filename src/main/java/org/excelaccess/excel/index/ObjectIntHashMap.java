@@ -0,0 +1,369 @@
+package org.excelaccess.excel.index;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Table de hachage objet vers entier, à adressage ouvert : ni boxing des valeurs ni objet par entrée. <br/>
+ * Les clés sont comparées par {@link Object#equals(Object)}, la clé null est acceptée. Pas de synchronisation.
+ * 
+ * @param <K>
+ *            Classe des clés
+ * @author Loic Abemonty
+ */
+public final class ObjectIntHashMap<K> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * marque d'un emplacement de la clé null.
+     */
+    private static final Object NULL_KEY = new Object();
+
+    private Object[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    /**
+     * taille au-delà de laquelle la table est agrandie (3/4 de la capacité).
+     */
+    private int threshold;
+
+    private Map<K, Integer> view;
+
+    /**
+     * Table vide de capacité par défaut.
+     */
+    public ObjectIntHashMap() {
+        this(0);
+    }
+
+    /**
+     * @param expectedSize
+     *            nombre de clés attendues, la table n'est pas agrandie avant
+     */
+    public ObjectIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Agrandissement préalable de la table, pour éviter les agrandissements successifs lors d'un chargement.
+     * 
+     * @param expectedSize
+     *            nombre de clés attendues
+     */
+    public void ensureCapacity(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (capacity > this.keys.length) {
+            rehash(capacity);
+        }
+    }
+
+    /**
+     * @param key
+     *            peut être null
+     * @param missingValue
+     *            valeur renvoyée si la clé est absente
+     * @return la valeur associée à la clé, ou missingValue
+     */
+    public int get(Object key, int missingValue) {
+        Object k = key == null ? NULL_KEY : key;
+        int mask = this.keys.length - 1;
+        for (int i = indexFor(k, mask);; i = (i + 1) & mask) {
+            Object current = this.keys[i];
+            if (current == null) {
+                return missingValue;
+            }
+            if (current == k || current.equals(k)) {
+                return this.values[i];
+            }
+        }
+    }
+
+    public boolean containsKey(Object key) {
+        Object k = key == null ? NULL_KEY : key;
+        int mask = this.keys.length - 1;
+        for (int i = indexFor(k, mask);; i = (i + 1) & mask) {
+            Object current = this.keys[i];
+            if (current == null) {
+                return false;
+            }
+            if (current == k || current.equals(k)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Association d'une valeur à une clé, la valeur précédente étant remplacée.
+     * 
+     * @param key
+     *            peut être null
+     * @param value
+     *            valeur quelconque
+     */
+    public void put(K key, int value) {
+        Object k = key == null ? NULL_KEY : key;
+        int mask = this.keys.length - 1;
+        int i = indexFor(k, mask);
+        for (Object current = this.keys[i]; current != null; current = this.keys[i]) {
+            if (current == k || current.equals(k)) {
+                this.values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        this.keys[i] = k;
+        this.values[i] = value;
+        if (++this.size > this.threshold) {
+            rehash(this.keys.length * 2);
+        }
+    }
+
+    /**
+     * Suppression d'une clé, les clés suivantes de la même séquence étant rapprochées de leur emplacement.
+     * 
+     * @param key
+     *            peut être null
+     * @param missingValue
+     *            valeur renvoyée si la clé est absente
+     * @return la valeur qui était associée à la clé, ou missingValue
+     */
+    public int remove(Object key, int missingValue) {
+        Object k = key == null ? NULL_KEY : key;
+        int mask = this.keys.length - 1;
+        int i = indexFor(k, mask);
+        for (Object current = this.keys[i]; !(current == k || k.equals(current)); current = this.keys[i]) {
+            if (current == null) {
+                return missingValue;
+            }
+            i = (i + 1) & mask;
+        }
+        int value = this.values[i];
+        // décalage arrière : chaque clé suivante reste accessible depuis son emplacement d'origine
+        for (int j = (i + 1) & mask; this.keys[j] != null; j = (j + 1) & mask) {
+            int home = indexFor(this.keys[j], mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                this.keys[i] = this.keys[j];
+                this.values[i] = this.values[j];
+                i = j;
+            }
+        }
+        this.keys[i] = null;
+        this.size--;
+        return value;
+    }
+
+    /**
+     * Ajout de toutes les entrées d'une table.
+     * 
+     * @param map
+     *            sans valeur null
+     */
+    public void putAll(Map<? extends K, Integer> map) {
+        ensureCapacity(this.size + map.size());
+        for (Map.Entry<? extends K, Integer> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue().intValue());
+        }
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Suppression de toutes les entrées, la capacité étant conservée.
+     */
+    public void clear() {
+        Arrays.fill(this.keys, null);
+        this.size = 0;
+    }
+
+    /**
+     * Copie de la table, avec boxing des valeurs.
+     * 
+     * @return une nouvelle table, modifiable
+     */
+    @SuppressWarnings("unchecked")
+    public Map<K, Integer> toMap() {
+        Map<K, Integer> map = new HashMap<K, Integer>(this.size * 4 / 3 + 1);
+        for (int i = 0; i < this.keys.length; i++) {
+            Object k = this.keys[i];
+            if (k != null) {
+                map.put(k == NULL_KEY ? null : (K) k, Integer.valueOf(this.values[i]));
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Vue de la table en {@link Map}, avec boxing des valeurs : les modifications de la vue sont faites dans la table et
+     * inversement. Les itérateurs de la vue ne permettent pas de suppression, à faire par {@link Map#remove(Object)}.
+     * 
+     * @return toujours la même vue
+     */
+    public Map<K, Integer> asMap() {
+        if (this.view == null) {
+            this.view = new MapView();
+        }
+        return this.view;
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object k = oldKeys[j];
+            if (k != null) {
+                int i = indexFor(k, mask);
+                while (this.keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                this.keys[i] = k;
+                this.values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new Object[capacity];
+        this.values = new int[capacity];
+        this.threshold = capacity / 4 * 3;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 4 * 3 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Dispersion du hashCode, les clés ayant des hashCode proches (chaînes, entiers) étant courantes.
+     */
+    private static int indexFor(Object key, int mask) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Vue de la table, voir {@link ObjectIntHashMap#asMap()}.
+     */
+    private final class MapView extends AbstractMap<K, Integer> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return ObjectIntHashMap.this.containsKey(key);
+        }
+
+        @Override
+        public Integer get(Object key) {
+            return containsKey(key) ? Integer.valueOf(ObjectIntHashMap.this.get(key, 0)) : null;
+        }
+
+        @Override
+        public Integer put(K key, Integer value) {
+            Integer previous = get(key);
+            ObjectIntHashMap.this.put(key, value.intValue());
+            return previous;
+        }
+
+        @Override
+        public Integer remove(Object key) {
+            if (!containsKey(key)) {
+                return null;
+            }
+            return Integer.valueOf(ObjectIntHashMap.this.remove(key, 0));
+        }
+
+        @Override
+        public void clear() {
+            ObjectIntHashMap.this.clear();
+        }
+
+        @Override
+        public Set<Map.Entry<K, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<K, Integer>>() {
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public Iterator<Map.Entry<K, Integer>> iterator() {
+                    return new EntryIterator();
+                }
+            };
+        }
+    }
+
+    /**
+     * Parcours des emplacements occupés, sans suppression.
+     */
+    private final class EntryIterator implements Iterator<Map.Entry<K, Integer>> {
+
+        private final Object[] iteratedKeys = keys;
+
+        private int next = advance(0);
+
+        private int advance(int from) {
+            int i = from;
+            while (i < this.iteratedKeys.length && this.iteratedKeys[i] == null) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < this.iteratedKeys.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, Integer> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Object k = this.iteratedKeys[this.next];
+            final K key = k == NULL_KEY ? null : (K) k;
+            this.next = advance(this.next + 1);
+            return new AbstractMap.SimpleEntry<K, Integer>(key, Integer.valueOf(get(key, 0))) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public Integer setValue(Integer value) {
+                    put(key, value.intValue());
+                    return super.setValue(value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Suppression par Map.remove(Object)");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.excelaccess.excel.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index des lignes par valeur de chaque colonne clé (listes de lignes triées), pour les recherches sur une clé
+ * partielle. <br/>
+ * Une valeur de clé null accepte toute valeur, comme {@link org.excelaccess.excel.RowHandler#isMatching(Object, Object)}
+ * : la ligne trouvée est la première ligne dont toutes les colonnes renseignées de la clé sont égales, celle que
+ * trouverait un parcours ligne à ligne.
+ * 
+ * @author Loic Abemonty
+ */
+public final class PostingsIndex {
+
+    /**
+     * par colonne clé, les lignes triées de chaque valeur.
+     */
+    private final List<Map<Object, IntList>> postings;
+
+    private int firstRow = -1;
+
+    private int lastRow = -1;
+
+    /**
+     * @param columnCount
+     *            nombre de colonnes clés
+     */
+    public PostingsIndex(int columnCount) {
+        this.postings = new ArrayList<Map<Object, IntList>>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            this.postings.add(new HashMap<Object, IntList>());
+        }
+    }
+
+    /**
+     * Ajout d'une ligne, les lignes devant être ajoutées par numéro croissant.
+     * 
+     * @param rowNum
+     *            numéro de la ligne, supérieur à celui des lignes déjà ajoutées
+     * @param values
+     *            une valeur par colonne clé, null pour une cellule vide
+     * @throws IllegalArgumentException
+     *             si la ligne précède une ligne déjà ajoutée
+     */
+    public void add(int rowNum, Object[] values) {
+        if (rowNum <= this.lastRow) {
+            throw new IllegalArgumentException("Ligne " + rowNum + " ajoutée après la ligne " + this.lastRow);
+        }
+        if (this.firstRow < 0) {
+            this.firstRow = rowNum;
+        }
+        this.lastRow = rowNum;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                // aucune clé renseignée ne correspond à une cellule vide
+                continue;
+            }
+            Map<Object, IntList> columnPostings = this.postings.get(i);
+            IntList rows = columnPostings.get(values[i]);
+            if (rows == null) {
+                rows = new IntList();
+                columnPostings.put(values[i], rows);
+            }
+            rows.add(rowNum);
+        }
+    }
+
+    /**
+     * Recherche de la première ligne correspondant à une clé, par intersection des listes des valeurs renseignées en
+     * partant de la plus courte.
+     * 
+     * @param keyValues
+     *            une valeur par colonne clé, null pour accepter toute valeur
+     * @return le numéro de la ligne, -1 si aucune ne correspond
+     */
+    public int findFirst(Object[] keyValues) {
+        List<IntList> candidates = new ArrayList<IntList>(keyValues.length);
+        IntList shortest = null;
+        for (int i = 0; i < keyValues.length; i++) {
+            if (keyValues[i] == null) {
+                continue;
+            }
+            IntList rows = this.postings.get(i).get(keyValues[i]);
+            if (rows == null) {
+                return -1;
+            }
+            candidates.add(rows);
+            if (shortest == null || rows.size() < shortest.size()) {
+                shortest = rows;
+            }
+        }
+        if (shortest == null) {
+            // aucune valeur renseignée : toutes les lignes correspondent
+            return this.firstRow;
+        }
+        for (int i = 0; i < shortest.size(); i++) {
+            int rowNum = shortest.get(i);
+            if (containsAll(candidates, shortest, rowNum)) {
+                return rowNum;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean containsAll(List<IntList> candidates, IntList shortest, int rowNum) {
+        for (IntList rows : candidates) {
+            if (rows != shortest && !rows.contains(rowNum)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
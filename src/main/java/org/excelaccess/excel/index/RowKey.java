@@ -0,0 +1,57 @@
+package org.excelaccess.excel.index;
+
+import java.util.Arrays;
+
+/**
+ * Clé composite d'une ligne : une valeur par colonne clé, comparées par {@link Object#equals(Object)}.
+ * 
+ * @author Loic Abemonty
+ */
+public final class RowKey {
+
+    private final Object[] values;
+
+    private final int hashCode;
+
+    /**
+     * @param values
+     *            les valeurs des colonnes clés, dans l'ordre de {@link KeyColumns#getMappings()} ; le tableau n'est pas
+     *            copié
+     */
+    public RowKey(Object[] values) {
+        this.values = values;
+        this.hashCode = Arrays.hashCode(values);
+    }
+
+    /**
+     * Valeur d'une colonne clé.
+     * 
+     * @param index
+     *            position de la colonne dans la clé
+     */
+    public Object getValue(int index) {
+        return this.values[index];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof RowKey)) {
+            return false;
+        }
+        RowKey other = (RowKey) obj;
+        return this.hashCode == other.hashCode && Arrays.equals(this.values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "RowKey" + Arrays.toString(this.values);
+    }
+}
@@ -0,0 +1,106 @@
+package org.excelaccess.excel.mapping;
+
+/**
+ * Nature d'une méthode d'une interface de ligne, déterminée une seule fois d'après son nom et ses paramètres.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public enum MethodKind {
+
+    /**
+     * Méthode annotée {@link org.excelaccess.excel.model.annotation.ExcelInternal}.
+     */
+    INTERNAL,
+
+    /**
+     * <tt>toString()</tt>.
+     */
+    TO_STRING,
+
+    /**
+     * <tt>hashCode()</tt>.
+     */
+    HASH_CODE,
+
+    /**
+     * <tt>equals(Object)</tt>.
+     */
+    EQUALS,
+
+    /**
+     * Getter sans paramètre : <tt>getXxx()</tt>, <tt>hasXxx()</tt> ou <tt>isXxx()</tt>.
+     */
+    GETTER,
+
+    /**
+     * Getter indexé : <tt>getXxx(int)</tt>.
+     */
+    INDEXED_GETTER,
+
+    /**
+     * Setter classique : <tt>setXxx(value)</tt>.
+     */
+    SETTER,
+
+    /**
+     * Setter indexé : <tt>setXxx(int, value)</tt>.
+     */
+    INDEXED_SETTER,
+
+    /**
+     * Méthode non gérée, elle retourne null.
+     */
+    UNKNOWN;
+
+    /**
+     * vérifie qu'un nom de méthode est un nom de getter, en <tt>"getXxx()"</tt> , <tt>"hasXxx()"</tt> ou
+     * <tt>"isXxx()"</tt>, mais pas <tt>"isNullXxx()"</tt>.
+     */
+    private static boolean isMethodNameGetter(final String methodName) {
+
+        return methodName.startsWith("get") || methodName.startsWith("has")
+                || (methodName.startsWith("is") && !methodName.startsWith("isNull"));
+    }
+
+    private static boolean isMethodNameSetter(final String methodName) {
+        return methodName.startsWith("set");
+    }
+
+    /**
+     * Détermine la nature d'une méthode.
+     * 
+     * @param methodName
+     *            non null
+     * @param parameterCount
+     *            nombre de paramètres de la méthode
+     * @param internal
+     *            true si la méthode est annotée {@link org.excelaccess.excel.model.annotation.ExcelInternal}
+     * @return non null
+     */
+    public static MethodKind of(String methodName, int parameterCount, boolean internal) {
+        if (internal) {
+            return INTERNAL;
+        }
+        if ("toString".equals(methodName) && parameterCount == 0) {
+            return TO_STRING;
+        } else if ("hashCode".equals(methodName) && parameterCount == 0) {
+            return HASH_CODE;
+        } else if ("equals".equals(methodName) && parameterCount == 1) {
+            return EQUALS;
+        } else if (isMethodNameGetter(methodName)) {
+            if (parameterCount == 0) {
+                return GETTER;
+            } else if (parameterCount == 1) {
+                return INDEXED_GETTER;
+            }
+        } else if (isMethodNameSetter(methodName)) {
+            if (parameterCount == 1) {
+                return SETTER;
+            } else if (parameterCount == 2) {
+                return INDEXED_SETTER;
+            }
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,369 @@
+package org.excelaccess.excel.mapping;
+
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_BLANK;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang.StringUtils;
+import org.excelaccess.excel.convert.CellConverter;
+import org.excelaccess.excel.convert.ConverterRegistry;
+import org.excelaccess.excel.convert.NumberParser;
+import org.excelaccess.excel.convert.OutputFormat;
+import org.excelaccess.excel.model.annotation.ExcelCell;
+import org.excelaccess.excel.model.annotation.ExcelCellFormat;
+import org.excelaccess.excel.model.annotation.ExcelInternal;
+import org.excelaccess.excel.model.annotation.ExcelInternalEnum;
+import org.excelaccess.excel.model.annotation.ExcelKey;
+import org.excelaccess.excel.model.annotation.RepeatableExcelCell;
+import org.excelaccess.excel.utils.ExcelHandlerUtils;
+import org.excelaccess.excel.utils.ExcelUtils;
+
+/**
+ * Description précalculée d'une méthode d'une interface de ligne : colonne, répétition, format, type de valeur.<br/>
+ * Les annotations sont résolues une seule fois, à la construction, y compris pour les setters qui portent leurs
+ * informations sur le getter correspondant (voir {@link ExcelHandlerUtils#getAnnotation(Class, Method)}).
+ * 
+ * @author Loic Abemonty
+ */
+public final class MethodMapping {
+
+    /**
+     * Détermine le numéro de la colonne d'une cellule. Gestion des lettres et des chiffres.
+     * 
+     * @param excelCell
+     *            peut être null
+     * @see ExcelCell
+     * @return le numéro de la colonne, 0-based
+     */
+    public static int getColumnIdForCell(ExcelCell excelCell) {
+        int columnNumber = 0;
+        if (excelCell != null) {
+            columnNumber = excelCell.value();
+            if (columnNumber == 0 && StringUtils.isNotBlank(excelCell.name())) {
+                columnNumber = ExcelUtils.computeColumnIndexFromLetters(excelCell.name());
+            }
+        }
+        return columnNumber;
+    }
+
+    private final Method method;
+
+    private final MethodKind kind;
+
+    private final ExcelInternalEnum excelInternal;
+
+    private final ExcelCell excelCell;
+
+    private final int column;
+
+    /**
+     * libellé de la colonne dans la ligne d'en-tête, null si la colonne est désignée par son numéro.
+     */
+    private final String header;
+
+    /**
+     * position de {@link #header} dans {@link RowMapping#getHeaders()}, -1 sans libellé.
+     */
+    private final int headerSlot;
+
+    private final RepeatableExcelCell repeatableExcelCell;
+
+    private final ExcelCellFormat excelCellFormat;
+
+    private final boolean key;
+
+    private final Class<?> valueType;
+
+    /**
+     * type des éléments d'un accès groupé à une cellule répétée, null si la valeur n'est pas un tableau.
+     */
+    private final Class<?> elementType;
+
+    /**
+     * valeur d'un getter de type primitif pour une cellule vide ou illisible, null pour un type objet.
+     */
+    private final Object defaultValue;
+
+    /**
+     * conversion entre la cellule et le type de la valeur (de ses éléments pour un tableau), null si le type n'est pas
+     * géré.
+     */
+    private final CellConverter<Object> converter;
+
+    private final int cellType;
+
+    /**
+     * lecture des nombres dans la langue de {@link ExcelCellFormat}, null pour la langue par défaut.
+     */
+    private final NumberParser numberParser;
+
+    /**
+     * format de sortie de {@link ExcelCellFormat#outputFormat()}, null si aucun.
+     */
+    private final OutputFormat outputFormat;
+
+    /**
+     * Construction de la description d'une méthode.
+     * 
+     * @param method
+     *            non null
+     * @param headers
+     *            libellés de colonne de l'interface, complétés par celui de la méthode
+     */
+    MethodMapping(Method method, List<String> headers) {
+        this.method = method;
+
+        ExcelInternal internal = ExcelHandlerUtils.getAnnotation(ExcelInternal.class, method);
+        this.excelInternal = internal == null ? null : internal.value();
+        this.kind = MethodKind.of(method.getName(), method.getParameterTypes().length, internal != null);
+        this.excelCell = ExcelHandlerUtils.getAnnotation(ExcelCell.class, method);
+        this.column = getColumnIdForCell(this.excelCell);
+        if (this.excelCell != null && StringUtils.isNotBlank(this.excelCell.header())) {
+            this.header = this.excelCell.header().trim();
+            int slot = headers.indexOf(this.header);
+            if (slot < 0) {
+                slot = headers.size();
+                headers.add(this.header);
+            }
+            this.headerSlot = slot;
+        } else {
+            this.header = null;
+            this.headerSlot = -1;
+        }
+        this.repeatableExcelCell = ExcelHandlerUtils.getAnnotation(RepeatableExcelCell.class, method);
+        this.excelCellFormat = ExcelHandlerUtils.getAnnotation(ExcelCellFormat.class, method);
+        this.key = this.kind == MethodKind.GETTER && this.excelCell != null
+                && method.isAnnotationPresent(ExcelKey.class);
+
+        // type de la valeur manipulée : le retour d'un getter, le dernier paramètre d'un setter (après l'index)
+        Class<?> type = method.getReturnType();
+        if (void.class.equals(type)) {
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            type = parameterTypes.length < 1 ? null : parameterTypes[parameterTypes.length - 1];
+        }
+        this.valueType = type;
+        // accès groupé aux cellules répétées : chaque cellule est convertie dans le type des éléments
+        this.elementType = type != null && type.isArray() ? type.getComponentType() : null;
+        Class<?> cellValueType = this.elementType == null ? type : this.elementType;
+        this.defaultValue = type != null && type.isPrimitive() && !void.class.equals(type) ? Array.get(
+                Array.newInstance(type, 1), 0) : null;
+        this.converter = castConverter(ConverterRegistry.get(cellValueType));
+        this.cellType = this.converter == null ? CELL_TYPE_BLANK : this.converter.getCellType();
+        if (this.excelCellFormat != null && this.excelCellFormat.localLanguage() != null) {
+            this.numberParser = NumberParser.forLocale(new Locale(this.excelCellFormat.localLanguage()));
+        } else {
+            this.numberParser = null;
+        }
+        this.outputFormat = compileOutputFormat(method, this.excelCellFormat, cellValueType);
+    }
+
+    /**
+     * Analyse et vérification du format de sortie, une seule fois pour toutes les écritures.
+     * 
+     * @throws IllegalArgumentException
+     *             si le format est invalide ou ne s'applique pas au type de la valeur
+     */
+    private static OutputFormat compileOutputFormat(Method method, ExcelCellFormat excelCellFormat, Class<?> type) {
+        if (excelCellFormat == null || StringUtils.isBlank(excelCellFormat.outputFormat())) {
+            return null;
+        }
+        OutputFormat format = OutputFormat.compile(excelCellFormat.outputFormat(),
+                new Locale(excelCellFormat.localLanguage()));
+        try {
+            format.check(type);
+        } catch (IllegalFormatException e) {
+            throw new IllegalArgumentException("Format de sortie \"" + excelCellFormat.outputFormat()
+                    + "\" invalide pour " + method, e);
+        }
+        return format;
+    }
+
+    /**
+     * Le convertisseur d'un type T est appelé uniquement avec des valeurs de type T.
+     */
+    @SuppressWarnings("unchecked")
+    static CellConverter<Object> castConverter(CellConverter<?> converter) {
+        return (CellConverter<Object>) converter;
+    }
+
+    /**
+     * Décalage de colonne pour un index de cellule répétée.
+     * 
+     * @param index
+     *            0-based ; non considéré si négatif
+     * @return le décalage, négatif si l'index est hors des bornes de {@link RepeatableExcelCell}
+     */
+    public int getColumnDelta(int index) {
+        if (index < 0) {
+            return 0;
+        }
+        if (this.repeatableExcelCell == null || this.repeatableExcelCell.size() <= index) {
+            // si l'index est supérieur à zéro il faut cette annotation et que la taille de l'annotation soit correcte
+            return -1;
+        }
+        return index + (index * this.repeatableExcelCell.jump());
+    }
+
+    /**
+     * Nombre de cellules lues ou écrites par un accès groupé, voir {@link #getElementType()}.
+     * 
+     * @return {@link RepeatableExcelCell#size()}, 0 sans l'annotation
+     */
+    public int getRepeatSize() {
+        return this.repeatableExcelCell == null ? 0 : this.repeatableExcelCell.size();
+    }
+
+    /**
+     * Type de cellule POI à utiliser lors de la création de la cellule, {@code CELL_TYPE_BLANK} si le type n'est pas
+     * géré.
+     */
+    public int getCellType() {
+        return cellType;
+    }
+
+    /**
+     * Convertisseur du type de la valeur, résolu une seule fois à la construction.
+     * 
+     * @return null si le type n'a pas de convertisseur
+     * @see ConverterRegistry
+     */
+    public CellConverter<Object> getConverter() {
+        return converter;
+    }
+
+    /**
+     * Numéro de la colonne, 0-based. Sans objet pour une colonne désignée par son libellé, voir {@link #getHeader()}.
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Libellé de la colonne dans la ligne d'en-tête, voir {@link ExcelCell#header()}.
+     * 
+     * @return null si la colonne est désignée par son numéro
+     */
+    public String getHeader() {
+        return header;
+    }
+
+    /**
+     * Position du libellé de la colonne dans {@link RowMapping#getHeaders()} : les colonnes d'une feuille sont
+     * résolues une fois pour toutes dans un tableau indexé par cette position.
+     * 
+     * @return -1 si la colonne est désignée par son numéro
+     */
+    public int getHeaderSlot() {
+        return headerSlot;
+    }
+
+    /**
+     * @return null si la méthode n'a pas l'annotation
+     */
+    public ExcelCell getExcelCell() {
+        return excelCell;
+    }
+
+    /**
+     * @return null si la méthode n'a pas l'annotation
+     */
+    public ExcelCellFormat getExcelCellFormat() {
+        return excelCellFormat;
+    }
+
+    /**
+     * @return null si la méthode n'est pas une méthode interne
+     */
+    public ExcelInternalEnum getExcelInternal() {
+        return excelInternal;
+    }
+
+    /**
+     * Nature de la méthode, non null.
+     */
+    public MethodKind getKind() {
+        return kind;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Lecture des nombres dans une chaîne, dans la langue de {@link ExcelCellFormat#localLanguage()} ou à défaut dans
+     * la langue par défaut.
+     */
+    public NumberParser getNumberParser() {
+        return this.numberParser == null ? NumberParser.forLocale(Locale.getDefault()) : this.numberParser;
+    }
+
+    /**
+     * @return true pour un getter d'une colonne clé
+     * @see ExcelKey
+     */
+    public boolean isKey() {
+        return key;
+    }
+
+    /**
+     * Format de sortie analysé de {@link ExcelCellFormat#outputFormat()}.
+     * 
+     * @return null si la méthode n'a pas de format de sortie
+     */
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    /**
+     * @return null si la méthode n'a pas l'annotation
+     */
+    public RepeatableExcelCell getRepeatableExcelCell() {
+        return repeatableExcelCell;
+    }
+
+    /**
+     * Type de la valeur : type de retour d'un getter, dernier paramètre d'un setter.
+     * 
+     * @return null si indéterminable
+     */
+    public Class<?> getValueType() {
+        return valueType;
+    }
+
+    /**
+     * Type des éléments d'un getter ou d'un setter sans index dont la valeur est un tableau : accès en un seul appel à
+     * toutes les répétitions d'une {@link RepeatableExcelCell}.
+     * 
+     * @return null si la valeur n'est pas un tableau
+     */
+    public Class<?> getElementType() {
+        return elementType;
+    }
+
+    /**
+     * Valeur rendue par un getter de type primitif quand la cellule est absente, vide ou illisible : 0, false ou
+     * <tt>'\0'</tt>.
+     * 
+     * @return null pour un type objet
+     */
+    public Object getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * @return true pour un accès groupé à une cellule répétée
+     * @see #getElementType()
+     */
+    public boolean isArray() {
+        return elementType != null;
+    }
+
+    @Override
+    public String toString() {
+        return "MethodMapping[" + method.getName() + ", " + kind + ", column=" + column + "]";
+    }
+}
@@ -0,0 +1,211 @@
+package org.excelaccess.excel.mapping;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+
+/**
+ * Description précalculée d'une interface de ligne : une {@link MethodMapping} par méthode.<br/>
+ * Les instances sont partagées entre threads, voir {@link RowMappingRegistry}.
+ * 
+ * @author Loic Abemonty
+ */
+public final class RowMapping {
+
+    private final Class<?> type;
+
+    private final ExcelDocument excelDocument;
+
+    private final ConcurrentMap<Method, MethodMapping> methodMappings = new ConcurrentHashMap<Method, MethodMapping>();
+
+    /**
+     * Colonnes déclarées par numéro par l'interface, répétitions comprises.
+     */
+    private final BitSet columns = new BitSet();
+
+    /**
+     * Getters des colonnes clés, par numéro de colonne.
+     */
+    private final List<MethodMapping> keyMappings;
+
+    /**
+     * Libellés des colonnes désignées par {@link org.excelaccess.excel.model.annotation.ExcelCell#header()}, voir
+     * {@link MethodMapping#getHeaderSlot()}.
+     */
+    private final List<String> headers;
+
+    /**
+     * Construction de la description d'une interface, toutes les méthodes publiques sont analysées.
+     * 
+     * @param type
+     *            non null
+     */
+    RowMapping(Class<?> type) {
+        this.type = type;
+        this.excelDocument = type.getAnnotation(ExcelDocument.class);
+        List<MethodMapping> keys = new ArrayList<MethodMapping>();
+        List<String> headerList = new ArrayList<String>();
+        for (Method method : type.getMethods()) {
+            MethodMapping methodMapping = new MethodMapping(method, headerList);
+            this.methodMappings.put(method, methodMapping);
+            if (methodMapping.getExcelCell() != null && methodMapping.getHeader() == null) {
+                addColumns(methodMapping);
+            }
+            if (methodMapping.isKey()) {
+                keys.add(methodMapping);
+            }
+        }
+        Collections.sort(keys, new Comparator<MethodMapping>() {
+            @Override
+            public int compare(MethodMapping o1, MethodMapping o2) {
+                return o1.getColumn() - o2.getColumn();
+            }
+        });
+        this.keyMappings = Collections.unmodifiableList(keys);
+        this.headers = Collections.unmodifiableList(headerList);
+    }
+
+    private void addColumns(MethodMapping methodMapping) {
+        int column = methodMapping.getColumn();
+        if (column < 0) {
+            // lettres de colonne invalides, voir ExcelSchemaRegistry
+            return;
+        }
+        this.columns.set(column);
+        for (int index = 1; methodMapping.getColumnDelta(index) >= 0; index++) {
+            this.columns.set(column + methodMapping.getColumnDelta(index));
+        }
+    }
+
+    /**
+     * Colonnes déclarées par les annotations {@link org.excelaccess.excel.model.annotation.ExcelCell} et
+     * {@link org.excelaccess.excel.model.annotation.RepeatableExcelCell} de l'interface : les seules à lire pour
+     * utiliser une ligne.
+     * 
+     * @return une copie de l'ensemble des numéros de colonne, 0-based
+     */
+    public BitSet getColumns() {
+        return (BitSet) this.columns.clone();
+    }
+
+    /**
+     * @param column
+     *            numéro de colonne, 0-based
+     * @return true si la colonne est déclarée par l'interface
+     * @see #getColumns()
+     */
+    public boolean isColumnUsed(int column) {
+        return this.columns.get(column);
+    }
+
+    /**
+     * Getters des colonnes clés de l'interface, par numéro de colonne croissant.
+     * 
+     * @return non null, vide si aucune méthode n'a l'annotation {@link org.excelaccess.excel.model.annotation.ExcelKey}
+     */
+    public List<MethodMapping> getKeyMappings() {
+        return keyMappings;
+    }
+
+    /**
+     * Libellés des colonnes désignées par leur en-tête, dans l'ordre de {@link MethodMapping#getHeaderSlot()}.
+     * 
+     * @return non null, vide si toutes les colonnes sont désignées par leur numéro
+     */
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Numéro de la ligne d'en-tête de la feuille, voir
+     * {@link org.excelaccess.excel.model.annotation.ExcelDocument#headerRow()}.
+     * 
+     * @return -1 si l'interface n'a pas l'annotation
+     */
+    public int getHeaderRow() {
+        if (this.excelDocument == null) {
+            return -1;
+        }
+        return this.excelDocument.headerRow() >= 0 ? this.excelDocument.headerRow()
+                : this.excelDocument.startAtRow() - 1;
+    }
+
+    /**
+     * @return true si les valeurs lues sont conservées, voir
+     *         {@link org.excelaccess.excel.model.annotation.ExcelDocument#cacheValues()}
+     */
+    public boolean isCacheValues() {
+        return this.excelDocument != null && this.excelDocument.cacheValues();
+    }
+
+    /**
+     * @return null si l'interface n'a pas l'annotation
+     */
+    public ExcelDocument getExcelDocument() {
+        return excelDocument;
+    }
+
+    /**
+     * Description d'une méthode. Les méthodes inconnues (celles de {@link Object} par exemple) sont décrites à la
+     * demande puis conservées.
+     * 
+     * @param method
+     *            non null
+     * @return non null
+     */
+    public MethodMapping getMethodMapping(Method method) {
+        MethodMapping methodMapping = this.methodMappings.get(method);
+        if (methodMapping == null) {
+            // méthode hors de l'interface : sans libellé de colonne
+            methodMapping = new MethodMapping(method, new ArrayList<String>(this.headers));
+            MethodMapping previous = this.methodMappings.putIfAbsent(method, methodMapping);
+            if (previous != null) {
+                methodMapping = previous;
+            }
+        }
+        return methodMapping;
+    }
+
+    /**
+     * Description d'une méthode de l'interface d'après sa signature.
+     * 
+     * @param name
+     *            nom de la méthode
+     * @param parameterTypes
+     *            types des paramètres
+     * @return non null
+     * @throws IllegalArgumentException
+     *             si la méthode n'existe pas dans l'interface
+     */
+    public MethodMapping getMethodMapping(String name, Class<?>... parameterTypes) {
+        try {
+            return getMethodMapping(this.type.getMethod(name, parameterTypes));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Méthode " + name + " inconnue dans " + this.type.getName(), e);
+        }
+    }
+
+    /**
+     * Ensemble des méthodes décrites jusqu'à présent.
+     */
+    public Collection<MethodMapping> getMethodMappings() {
+        return Collections.unmodifiableCollection(this.methodMappings.values());
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "RowMapping[" + type.getName() + "]";
+    }
+}
@@ -0,0 +1,40 @@
+package org.excelaccess.excel.mapping;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registre des {@link RowMapping}, une par interface de ligne, calculée au premier accès puis conservée.
+ * 
+ * @author Loic Abemonty
+ */
+public final class RowMappingRegistry {
+
+    private static final ConcurrentMap<Class<?>, RowMapping> MAPPINGS = new ConcurrentHashMap<Class<?>, RowMapping>();
+
+    /**
+     * Description d'une interface de ligne.
+     * 
+     * @param clazz
+     *            non null
+     * @return non null
+     */
+    public static RowMapping getMapping(Class<?> clazz) {
+        checkNotNull(clazz, "class");
+
+        RowMapping rowMapping = MAPPINGS.get(clazz);
+        if (rowMapping == null) {
+            rowMapping = new RowMapping(clazz);
+            RowMapping previous = MAPPINGS.putIfAbsent(clazz, rowMapping);
+            if (previous != null) {
+                rowMapping = previous;
+            }
+        }
+        return rowMapping;
+    }
+
+    private RowMappingRegistry() {
+    }
+}
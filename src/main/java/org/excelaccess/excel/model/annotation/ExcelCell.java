@@ -24,4 +24,11 @@ public @interface ExcelCell {
      * Le numéro de la colonne, 0-based.
      */
     int value() default 0;
+
+    /**
+     * Le libellé de la colonne dans la ligne d'en-tête de la feuille (voir {@link ExcelDocument#headerRow()}), à la
+     * place de {@link #value()} et {@link #name()} : la colonne est retrouvée même si d'autres colonnes sont insérées
+     * dans le modèle. La ligne d'en-tête est lue une seule fois par feuille.
+     */
+    String header() default "";
 }
@@ -30,4 +30,22 @@ public @interface ExcelDocument {
      */
     int startAtRow();
 
+    /**
+     * numéro de la ligne d'en-tête, 0-based, pour les colonnes désignées par {@link ExcelCell#header()}. Par défaut la
+     * ligne précédant {@link #startAtRow()}.
+     * 
+     * @return le numéro de la ligne, négatif pour la valeur par défaut
+     */
+    int headerRow() default -1;
+
+    /**
+     * conservation des valeurs lues par les getters, pour une interface dont les getters sont appelés plusieurs fois
+     * par ligne. Une valeur est relue après l'appel d'un setter de sa colonne ou le passage à une autre ligne ; une
+     * modification de la ligne sans passer par l'interface n'est pas vue. Les valeurs mutables ({@link java.util.Date})
+     * sont partagées entre les appels.
+     * 
+     * @return true pour conserver les valeurs lues
+     */
+    boolean cacheValues() default false;
+
 }
@@ -0,0 +1,21 @@
+package org.excelaccess.excel.model.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * utiliser cette annotation sur une méthode <tt>getXxx()</tt> d'une interface de <em>getters</em>, avec
+ * {@link ExcelCell}, pour indiquer que la cellule fait partie de la clé de la ligne.
+ * <p/>
+ * Les colonnes clés permettent à {@link org.excelaccess.excel.RowHandler} de retrouver une ligne sans
+ * <tt>identifyResource</tt> : la clé recherchée fournit une valeur par colonne clé, au travers d'une méthode de même
+ * nom.
+ * 
+ * @author Loic Abemonty
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ExcelKey {
+}
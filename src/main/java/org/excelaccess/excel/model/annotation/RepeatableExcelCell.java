@@ -13,6 +13,11 @@ import java.lang.annotation.Target;
  * Une méthode utilisant cette méthode doit posséder en premier élément un
  * paramètre entier (int) ; c'est obligatoire pour le getter et pour le setter.
  * <br/>
+ * Un getter sans paramètre retournant un tableau (<tt>int[] getXxx()</tt>) et
+ * le setter correspondant (<tt>setXxx(int[])</tt>) lisent et écrivent toutes
+ * les répétitions en un seul appel ; sans annotation, ils utilisent celles du
+ * getter indexé <tt>getXxx(int)</tt>.
+ * <br/>
  * <b>Le premier élément est à la position 0.</b>
  * 
  * @author Loic Abemonty
@@ -0,0 +1,469 @@
+package org.excelaccess.excel.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+import org.excelaccess.excel.mapping.MethodKind;
+import org.excelaccess.excel.mapping.MethodMapping;
+import org.excelaccess.excel.model.annotation.ExcelCell;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.excelaccess.excel.model.annotation.ExcelInternal;
+import org.excelaccess.excel.model.annotation.RepeatableExcelCell;
+import org.excelaccess.excel.utils.ExcelHandlerUtils;
+
+/**
+ * Processeur d'annotations générant, pour chaque interface annotée {@link ExcelDocument}, une implémentation Java
+ * simple qui remplace le proxy dynamique (voir {@link org.excelaccess.excel.RowProxyFactory}). <br/>
+ * Chaque méthode générée appelle directement
+ * {@link org.excelaccess.excel.ExcelRowInvocationHandler#handle(MethodMapping, int, Object)} avec la description de
+ * la méthode résolue une seule fois au chargement de la classe.
+ * <p/>
+ * Les erreurs de description de l'interface sont signalées à la compilation : colonnes en doublon, type de retour non
+ * géré, méthodes indexées sans index entier, méthodes non reconnues. Le processeur étant déclaré comme service, il
+ * s'exécute dans toute compilation utilisant la bibliothèque : ces erreurs sont par défaut des avertissements et
+ * l'interface concernée reste gérée par le proxy dynamique. L'option <tt>-Aexcelaccess.strict=true</tt> en fait des
+ * erreurs de compilation.
+ * <p/>
+ * Les implémentations générées délèguent <tt>toString()</tt>, <tt>hashCode()</tt> et <tt>equals(Object)</tt> au
+ * gestionnaire de la ligne, comme le proxy.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+@SupportedAnnotationTypes("org.excelaccess.excel.model.annotation.ExcelDocument")
+@SupportedOptions(ExcelDocumentProcessor.STRICT_OPTION)
+public class ExcelDocumentProcessor extends AbstractProcessor {
+
+    /**
+     * Option du compilateur : <tt>true</tt> pour que les erreurs de description des interfaces soient des erreurs de
+     * compilation et non des avertissements.
+     */
+    public static final String STRICT_OPTION = "excelaccess.strict";
+
+    /**
+     * Suffixe du nom des classes générées.
+     */
+    public static final String GENERATED_SUFFIX = "_ExcelRow";
+
+    /**
+     * Types de retour gérés par les convertisseurs fournis, voir
+     * {@link org.excelaccess.excel.convert.ConverterRegistry}.
+     */
+    private static final Set<String> SUPPORTED_TYPES = new HashSet<String>(Arrays.asList("java.lang.String",
+            "java.util.Date", "org.joda.time.DateTime", "org.joda.time.LocalDate", "org.joda.time.LocalDateTime",
+            "int", "java.lang.Integer", "long", "java.lang.Long", "double", "java.lang.Double", "float",
+            "java.lang.Float", "short", "java.lang.Short", "byte", "java.lang.Byte", "boolean", "java.lang.Boolean",
+            "char", "java.lang.Character", "java.math.BigDecimal"));
+
+    private static final Map<TypeKind, String> BOXED_TYPES = new HashMap<TypeKind, String>();
+    static {
+        BOXED_TYPES.put(TypeKind.BOOLEAN, "java.lang.Boolean");
+        BOXED_TYPES.put(TypeKind.BYTE, "java.lang.Byte");
+        BOXED_TYPES.put(TypeKind.CHAR, "java.lang.Character");
+        BOXED_TYPES.put(TypeKind.DOUBLE, "java.lang.Double");
+        BOXED_TYPES.put(TypeKind.FLOAT, "java.lang.Float");
+        BOXED_TYPES.put(TypeKind.INT, "java.lang.Integer");
+        BOXED_TYPES.put(TypeKind.LONG, "java.lang.Long");
+        BOXED_TYPES.put(TypeKind.SHORT, "java.lang.Short");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(ExcelDocument.class)) {
+            if (element.getKind() != ElementKind.INTERFACE) {
+                getMessager().printMessage(Kind.ERROR, "@ExcelDocument ne s'applique qu'aux interfaces", element);
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            Map<String, ExecutableElement> methods = collectMethods(type);
+            if (validate(methods)) {
+                generate(type, methods);
+            } else if (!isStrict()) {
+                warning(type, "implémentation non générée, le proxy dynamique sera utilisé");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Ensemble des méthodes abstraites de l'interface, héritées comprises, classées par signature. Pour une même
+     * signature, la déclaration de l'interface la plus spécifique est conservée.
+     */
+    private Map<String, ExecutableElement> collectMethods(TypeElement type) {
+        Map<String, ExecutableElement> methods = new LinkedHashMap<String, ExecutableElement>();
+        for (Element member : getElements().getAllMembers(type)) {
+            if (member.getKind() != ElementKind.METHOD || !member.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+            ExecutableElement method = (ExecutableElement) member;
+            String signature = signature(method.getSimpleName().toString(), method.getParameters());
+            ExecutableElement previous = methods.get(signature);
+            if (previous == null || isMoreSpecific(method, previous)) {
+                methods.put(signature, method);
+            }
+        }
+        return methods;
+    }
+
+    private boolean isMoreSpecific(ExecutableElement method, ExecutableElement other) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror declaring = types.erasure(method.getEnclosingElement().asType());
+        TypeMirror otherDeclaring = types.erasure(other.getEnclosingElement().asType());
+        return types.isSubtype(declaring, otherDeclaring);
+    }
+
+    private String signature(String name, List<? extends VariableElement> parameters) {
+        StringBuilder signature = new StringBuilder(name).append('(');
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(erasure(parameters.get(i).asType()));
+        }
+        return signature.append(')').toString();
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    /**
+     * Recherche d'une annotation, sur la méthode ou sur le getter correspondant, comme le fait
+     * {@link ExcelHandlerUtils#getAnnotation(Class, java.lang.reflect.Method)} à l'exécution.
+     */
+    private <A extends Annotation> A getAnnotation(Class<A> annotationClazz, ExecutableElement method,
+            Map<String, ExecutableElement> methods) {
+        A annotation = method.getAnnotation(annotationClazz);
+        String methodName = method.getSimpleName().toString();
+
+        if (annotation == null && methodName.startsWith("get") && isArrayGetter(method)) {
+            // accès groupé : les informations peuvent être sur le getter indexé
+            ExecutableElement indexedGetter = methods.get(methodName + "(int)");
+            if (indexedGetter == null) {
+                indexedGetter = methods.get(methodName + "(java.lang.Integer)");
+            }
+            return indexedGetter == null ? null : indexedGetter.getAnnotation(annotationClazz);
+        }
+
+        if (annotation == null && !methodName.startsWith("get")) {
+            for (final String prefix : ExcelHandlerUtils.METHOD_PREFIXES) {
+                if (methodName.startsWith(prefix)) {
+                    // le dernier paramètre est la valeur : à exclure du get
+                    List<? extends VariableElement> parameters = method.getParameters();
+                    if (!parameters.isEmpty()) {
+                        parameters = parameters.subList(0, parameters.size() - 1);
+                    }
+                    String suffix = methodName.substring(prefix.length());
+                    ExecutableElement getter = methods.get(signature("get" + suffix, parameters));
+                    if (getter == null && "set".equals(prefix)) {
+                        // setter d'un booléen
+                        getter = methods.get(signature("is" + suffix, parameters));
+                    }
+                    if (getter == null) {
+                        return null;
+                    }
+                    return getAnnotation(annotationClazz, getter, methods);
+                }
+            }
+        }
+        return annotation;
+    }
+
+    private boolean isArrayGetter(ExecutableElement method) {
+        return method.getParameters().isEmpty() && method.getReturnType().getKind() == TypeKind.ARRAY;
+    }
+
+    private MethodKind getKind(ExecutableElement method, Map<String, ExecutableElement> methods) {
+        boolean internal = getAnnotation(ExcelInternal.class, method, methods) != null;
+        return MethodKind.of(method.getSimpleName().toString(), method.getParameters().size(), internal);
+    }
+
+    /**
+     * Vérification de l'interface.
+     * 
+     * @return false si une erreur a été signalée
+     */
+    private boolean validate(Map<String, ExecutableElement> methods) {
+        boolean valid = true;
+        Map<Integer, ExecutableElement> columns = new HashMap<Integer, ExecutableElement>();
+
+        for (ExecutableElement method : methods.values()) {
+            MethodKind kind = getKind(method, methods);
+            switch (kind) {
+                case UNKNOWN:
+                    problem(method, "méthode non gérée : ni getter, ni setter, ni méthode interne");
+                    valid = false;
+                    break;
+                case INDEXED_GETTER:
+                case INDEXED_SETTER:
+                    if (!isIndexType(method.getParameters().get(0).asType())) {
+                        problem(method, "le premier paramètre d'une méthode indexée doit être un int");
+                        valid = false;
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            ExcelCell excelCell = getAnnotation(ExcelCell.class, method, methods);
+            if (kind == MethodKind.GETTER || kind == MethodKind.INDEXED_GETTER) {
+                TypeMirror valueType = method.getReturnType();
+                boolean array = kind == MethodKind.GETTER && isArrayGetter(method);
+                if (array) {
+                    // accès groupé : chaque cellule est convertie dans le type des éléments
+                    valueType = ((ArrayType) valueType).getComponentType();
+                }
+                String returnType = erasure(valueType);
+                if (!SUPPORTED_TYPES.contains(returnType) && !isEnum(valueType)) {
+                    // un convertisseur peut être enregistré à l'exécution
+                    warning(method, "type de retour sans convertisseur fourni : " + returnType);
+                }
+                if (excelCell == null) {
+                    warning(method, "getter sans @ExcelCell, la première colonne sera lue");
+                } else if (array && getAnnotation(RepeatableExcelCell.class, method, methods) == null) {
+                    problem(method, "getter groupé (tableau) sans @RepeatableExcelCell");
+                    valid = false;
+                } else if (excelCell.header().trim().length() > 0) {
+                    // colonne désignée par son libellé : position connue seulement à la lecture de la feuille
+                    if (excelCell.value() != 0 || !"A".equals(excelCell.name())) {
+                        problem(method, "colonne désignée à la fois par son libellé et par numéro ou lettres");
+                        valid = false;
+                    }
+                } else if (!array || method.getAnnotation(ExcelCell.class) != null) {
+                    // un getter groupé sans annotation lit les colonnes du getter indexé, vérifiées avec lui
+                    valid &= checkColumns(method, excelCell, getAnnotation(RepeatableExcelCell.class, method, methods),
+                            columns);
+                }
+            } else if ((kind == MethodKind.SETTER || kind == MethodKind.INDEXED_SETTER) && excelCell == null) {
+                warning(method, "setter sans getter annoté @ExcelCell");
+            }
+        }
+        return valid;
+    }
+
+    private boolean isEnum(TypeMirror type) {
+        Element element = processingEnv.getTypeUtils().asElement(type);
+        return element != null && element.getKind() == ElementKind.ENUM;
+    }
+
+    private boolean isIndexType(TypeMirror type) {
+        return type.getKind() == TypeKind.INT || "java.lang.Integer".equals(type.toString());
+    }
+
+    /**
+     * Vérifie qu'aucune des colonnes lues par le getter ne l'est déjà par un autre.
+     */
+    private boolean checkColumns(ExecutableElement method, ExcelCell excelCell,
+            RepeatableExcelCell repeatableExcelCell, Map<Integer, ExecutableElement> columns) {
+        int column = MethodMapping.getColumnIdForCell(excelCell);
+        int size = repeatableExcelCell == null ? 1 : repeatableExcelCell.size();
+        int step = repeatableExcelCell == null ? 1 : repeatableExcelCell.jump() + 1;
+        for (int i = 0; i < size; i++) {
+            ExecutableElement other = columns.put(column + i * step, method);
+            if (other != null && other != method) {
+                problem(method, "colonne " + (column + i * step) + " déjà utilisée par " + other.getSimpleName());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type, Map<String, ExecutableElement> methods) {
+        Elements elements = getElements();
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(type).toString();
+        String simpleName = (packageName.length() == 0 ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + GENERATED_SUFFIX;
+        String interfaceName = type.getQualifiedName().toString();
+
+        StringBuilder fields = new StringBuilder();
+        StringBuilder body = new StringBuilder();
+        int methodIndex = 0;
+        for (ExecutableElement method : methods.values()) {
+            MethodKind kind = getKind(method, methods);
+            if (kind == MethodKind.TO_STRING || kind == MethodKind.HASH_CODE || kind == MethodKind.EQUALS) {
+                // implémentation de Object
+                continue;
+            }
+            String field = "M" + methodIndex++ + "_" + method.getSimpleName();
+            appendField(fields, field, method);
+            appendMethod(body, field, kind, method);
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (packageName.length() > 0) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n");
+        source.append(" * Implémentation de {@link ").append(interfaceName).append("} générée par ")
+                .append(getClass().getName()).append(", ne pas modifier.\n");
+        source.append(" */\n");
+        source.append("public final class ").append(simpleName).append(" implements ").append(interfaceName)
+                .append(" {\n\n");
+        source.append("    private static final org.excelaccess.excel.mapping.RowMapping MAPPING = ")
+                .append("org.excelaccess.excel.mapping.RowMappingRegistry.getMapping(").append(interfaceName)
+                .append(".class);\n\n");
+        source.append(fields);
+        source.append("\n    private final org.excelaccess.excel.ExcelRowInvocationHandler handler;\n\n");
+        source.append("    public ").append(simpleName)
+                .append("(org.excelaccess.excel.ExcelRowInvocationHandler handler) {\n");
+        source.append("        this.handler = handler;\n");
+        source.append("    }\n");
+        source.append(body);
+        appendObjectMethods(source);
+        source.append("}\n");
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(packageName.length() == 0 ? simpleName
+                    : packageName + "." + simpleName, type);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(source.toString());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            getMessager().printMessage(Kind.ERROR, "Impossible de générer " + simpleName + " : " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * <tt>toString()</tt>, <tt>hashCode()</tt> et <tt>equals(Object)</tt> délégués au gestionnaire, comme pour le
+     * proxy.
+     */
+    private void appendObjectMethods(StringBuilder source) {
+        String kind = MethodKind.class.getName() + ".";
+        source.append("\n    @Override\n    public java.lang.String toString() {\n");
+        source.append("        return (java.lang.String) this.handler.handleObjectMethod(").append(kind)
+                .append("TO_STRING, this, null);\n    }\n");
+        source.append("\n    @Override\n    public int hashCode() {\n");
+        source.append("        return (java.lang.Integer) this.handler.handleObjectMethod(").append(kind)
+                .append("HASH_CODE, this, null);\n    }\n");
+        source.append("\n    @Override\n    public boolean equals(java.lang.Object other) {\n");
+        source.append("        return (java.lang.Boolean) this.handler.handleObjectMethod(").append(kind)
+                .append("EQUALS, this, other);\n    }\n");
+    }
+
+    private void appendField(StringBuilder fields, String field, ExecutableElement method) {
+        fields.append("    private static final org.excelaccess.excel.mapping.MethodMapping ").append(field)
+                .append(" = MAPPING.getMethodMapping(\"").append(method.getSimpleName()).append('"');
+        for (VariableElement parameter : method.getParameters()) {
+            fields.append(", ").append(erasure(parameter.asType())).append(".class");
+        }
+        fields.append(");\n");
+    }
+
+    private void appendMethod(StringBuilder body, String field, MethodKind kind, ExecutableElement method) {
+        List<? extends VariableElement> parameters = method.getParameters();
+        TypeMirror returnType = method.getReturnType();
+        boolean isVoid = returnType.getKind() == TypeKind.VOID;
+
+        body.append("\n    @Override\n    public ").append(returnType).append(' ').append(method.getSimpleName())
+                .append('(');
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                body.append(", ");
+            }
+            body.append(parameters.get(i).asType()).append(" arg").append(i);
+        }
+        body.append(") {\n");
+
+        // index et valeur transmis au gestionnaire de la ligne
+        String index = "-1";
+        String value = "null";
+        String nullableIndex = null;
+        switch (kind) {
+            case INDEXED_GETTER:
+                index = "arg0";
+                break;
+            case SETTER:
+                value = "arg0";
+                break;
+            case INDEXED_SETTER:
+                index = "arg0";
+                value = "arg1";
+                break;
+            default:
+                break;
+        }
+        if (!"-1".equals(index) && parameters.get(0).asType().getKind() != TypeKind.INT) {
+            // index nullable : rien n'est fait s'il est null, comme au travers du proxy
+            nullableIndex = index;
+        }
+
+        String call = "this.handler.handle(" + field + ", " + index + ", " + value + ")";
+        if (isVoid) {
+            if (nullableIndex != null) {
+                body.append("        if (").append(nullableIndex).append(" != null) {\n    ");
+            }
+            body.append("        ").append(call).append(";\n");
+            if (nullableIndex != null) {
+                body.append("        }\n");
+            }
+        } else {
+            if (nullableIndex != null) {
+                call = nullableIndex + " == null ? null : " + call;
+            }
+            String castType = BOXED_TYPES.containsKey(returnType.getKind()) ? BOXED_TYPES.get(returnType.getKind())
+                    : returnType.toString();
+            body.append("        return (").append(castType).append(") (").append(call).append(");\n");
+        }
+        body.append("    }\n");
+    }
+
+    /**
+     * Erreur de description d'une interface : erreur de compilation avec {@link #STRICT_OPTION}, avertissement sinon.
+     */
+    private void problem(Element element, String message) {
+        getMessager().printMessage(isStrict() ? Kind.ERROR : Kind.WARNING, message, element);
+    }
+
+    private boolean isStrict() {
+        return Boolean.parseBoolean(processingEnv.getOptions().get(STRICT_OPTION));
+    }
+
+    private void warning(Element element, String message) {
+        getMessager().printMessage(Kind.WARNING, message, element);
+    }
+
+    private Elements getElements() {
+        return processingEnv.getElementUtils();
+    }
+
+    private Messager getMessager() {
+        return processingEnv.getMessager();
+    }
+}
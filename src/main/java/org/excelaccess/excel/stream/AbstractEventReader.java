@@ -0,0 +1,164 @@
+package org.excelaccess.excel.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.poi.POIXMLDocument;
+import org.apache.poi.hssf.model.InternalWorkbook;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Lecture évènementielle des valeurs de cellule d'un document Excel, au format .xls (voir {@link HSSFEventParser}) ou
+ * .xlsx (voir {@link XSSFEventParser}). <br/>
+ * Les sous-classes choisissent les feuilles et les colonnes à lire : les cellules des autres colonnes ne sont pas
+ * décodées.
+ * 
+ * @author Loic Abemonty
+ */
+public abstract class AbstractEventReader {
+
+    /**
+     * Création d'un document .xls vide utilisant le système de dates indiqué. <br/>
+     * Le système de dates n'est lu par POI qu'au chargement d'un document : il est positionné puis le document est
+     * relu.
+     * 
+     * @param date1904
+     *            true pour les dates à partir de 1904
+     * @return non null
+     */
+    private static HSSFWorkbook createHSSFWorkbook(boolean date1904) {
+        if (!date1904) {
+            return new HSSFWorkbook();
+        }
+        InternalWorkbook internalWorkbook = InternalWorkbook.createWorkbook();
+        DateWindow1904Record dateWindow = (DateWindow1904Record) internalWorkbook
+                .findFirstRecordBySid(DateWindow1904Record.sid);
+        dateWindow.setWindowing((short) 1);
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            HSSFWorkbook.create(internalWorkbook).write(outputStream);
+            return new HSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Impossible de créer un document en dates 1904", e);
+        }
+    }
+
+    private final List<String> sheetNames = new ArrayList<String>();
+
+    private boolean date1904;
+
+    private boolean xlsx;
+
+    /**
+     * Lecture complète d'un document, le format étant déterminé d'après l'entête du flux. Le flux n'est pas fermé.
+     * 
+     * @param excelInputStream
+     *            input stream du fichier Excel
+     * @throws IOException
+     *             si un soucis avec le flux binaire apparait ou si le format n'est pas reconnu
+     */
+    public void read(InputStream excelInputStream) throws IOException {
+        InputStream inputStream = excelInputStream;
+        if (!inputStream.markSupported()) {
+            // lecture de l'entête puis retour en arrière
+            inputStream = new PushbackInputStream(inputStream, 8);
+        }
+        if (POIFSFileSystem.hasPOIFSHeader(inputStream)) {
+            new HSSFEventParser(this).parse(inputStream);
+        } else if (POIXMLDocument.hasOOXMLHeader(inputStream)) {
+            this.xlsx = true;
+            new XSSFEventParser(this).parse(inputStream);
+        } else {
+            throw new IOException("Le flux n'est ni un document .xls ni un document .xlsx");
+        }
+    }
+
+    /**
+     * Création d'un document vide du même format et avec le même système de dates que le document lu.
+     * 
+     * @return non null
+     */
+    protected Workbook createWorkbook() {
+        if (!this.xlsx) {
+            return createHSSFWorkbook(this.date1904);
+        }
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        if (this.date1904) {
+            workbook.getCTWorkbook().addNewWorkbookPr().setDate1904(true);
+        }
+        return workbook;
+    }
+
+    /**
+     * Noms des feuilles du document, connus dès le début de la première feuille.
+     */
+    protected List<String> getSheetNames() {
+        return Collections.unmodifiableList(this.sheetNames);
+    }
+
+    /**
+     * @return true si le document utilise les dates à partir de 1904
+     */
+    protected boolean isDate1904() {
+        return this.date1904;
+    }
+
+    void addSheetName(String sheetName) {
+        this.sheetNames.add(sheetName);
+    }
+
+    void setDate1904(boolean date1904) {
+        this.date1904 = date1904;
+    }
+
+    /**
+     * Début d'une feuille.
+     * 
+     * @param sheetIndex
+     *            index de la feuille, 0-based
+     * @return true si la feuille doit être lue
+     */
+    protected abstract boolean startSheet(int sheetIndex);
+
+    /**
+     * Fin d'une feuille lue.
+     */
+    protected abstract void endSheet();
+
+    /**
+     * Déclaration d'une ligne, avant ses cellules. Ne fait rien par défaut.
+     * 
+     * @param row
+     *            numéro de la ligne, 0-based
+     */
+    protected void rowDeclared(int row) {
+        // rien par défaut
+    }
+
+    /**
+     * Rencontre d'une cellule, avant le décodage de sa valeur.
+     * 
+     * @param row
+     *            numéro de la ligne, 0-based
+     * @param column
+     *            numéro de la colonne, 0-based
+     * @return true si la valeur de la cellule doit être décodée
+     */
+    protected abstract boolean startCell(int row, int column);
+
+    protected abstract void numericCell(int row, int column, double value);
+
+    protected abstract void stringCell(int row, int column, String value);
+
+    protected abstract void booleanCell(int row, int column, boolean value);
+}
@@ -0,0 +1,163 @@
+package org.excelaccess.excel.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+
+/**
+ * Décodage d'un document .xls avec l'API évènementielle de POI, au profit d'un {@link AbstractEventReader}.
+ * 
+ * @author Loic Abemonty
+ */
+class HSSFEventParser implements HSSFListener {
+
+    private final AbstractEventReader reader;
+
+    private SSTRecord sstRecord;
+
+    /**
+     * index de la feuille en cours de lecture, -1 avant la première.
+     */
+    private int currentSheetIndex = -1;
+
+    /**
+     * profondeur des blocs BOF/EOF : 1 pour les enregistrements d'une feuille, plus pour les graphiques intégrés.
+     */
+    private int depth;
+
+    private boolean readingSheet;
+
+    /**
+     * enregistrement d'une formule dont la valeur texte est dans le prochain {@link StringRecord}.
+     */
+    private FormulaRecord pendingStringFormula;
+
+    HSSFEventParser(AbstractEventReader reader) {
+        this.reader = reader;
+    }
+
+    void parse(InputStream excelInputStream) throws IOException {
+        POIFSFileSystem fileSystem = new POIFSFileSystem(excelInputStream);
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(this);
+        new HSSFEventFactory().processWorkbookEvents(request, fileSystem);
+    }
+
+    @Override
+    public void processRecord(Record record) {
+        switch (record.getSid()) {
+            case BoundSheetRecord.sid:
+                this.reader.addSheetName(((BoundSheetRecord) record).getSheetname());
+                break;
+            case SSTRecord.sid:
+                this.sstRecord = (SSTRecord) record;
+                break;
+            case DateWindow1904Record.sid:
+                this.reader.setDate1904(((DateWindow1904Record) record).getWindowing() == 1);
+                break;
+            case BOFRecord.sid:
+                this.depth++;
+                if (this.depth == 1 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                    this.currentSheetIndex++;
+                    this.readingSheet = this.reader.startSheet(this.currentSheetIndex);
+                }
+                break;
+            case EOFRecord.sid:
+                if (this.depth == 1 && this.readingSheet) {
+                    this.reader.endSheet();
+                    this.readingSheet = false;
+                }
+                this.depth--;
+                break;
+            default:
+                if (this.depth == 1 && this.readingSheet) {
+                    processSheetRecord(record);
+                }
+                break;
+        }
+    }
+
+    private void processSheetRecord(Record record) {
+        if (record instanceof StringRecord) {
+            if (this.pendingStringFormula != null) {
+                FormulaRecord formulaRecord = this.pendingStringFormula;
+                this.pendingStringFormula = null;
+                this.reader.stringCell(formulaRecord.getRow(), formulaRecord.getColumn(),
+                        ((StringRecord) record).getString());
+            }
+            return;
+        }
+        if (record instanceof RowRecord) {
+            this.reader.rowDeclared(((RowRecord) record).getRowNumber());
+            return;
+        }
+        if (!(record instanceof CellValueRecordInterface)) {
+            return;
+        }
+        CellValueRecordInterface cellRecord = (CellValueRecordInterface) record;
+        int row = cellRecord.getRow();
+        int column = cellRecord.getColumn();
+        if (!this.reader.startCell(row, column)) {
+            // colonne non lue : la valeur n'est pas décodée
+            return;
+        }
+
+        switch (record.getSid()) {
+            case NumberRecord.sid:
+                this.reader.numericCell(row, column, ((NumberRecord) record).getValue());
+                break;
+            case LabelSSTRecord.sid:
+                this.reader.stringCell(row, column,
+                        this.sstRecord.getString(((LabelSSTRecord) record).getSSTIndex()).getString());
+                break;
+            case LabelRecord.sid:
+                this.reader.stringCell(row, column, ((LabelRecord) record).getValue());
+                break;
+            case BoolErrRecord.sid:
+                BoolErrRecord boolErrRecord = (BoolErrRecord) record;
+                if (boolErrRecord.isBoolean()) {
+                    this.reader.booleanCell(row, column, boolErrRecord.getBooleanValue());
+                }
+                break;
+            case FormulaRecord.sid:
+                // seule la valeur calculée de la formule est conservée
+                FormulaRecord formulaRecord = (FormulaRecord) record;
+                switch (formulaRecord.getCachedResultType()) {
+                    case Cell.CELL_TYPE_NUMERIC:
+                        this.reader.numericCell(row, column, formulaRecord.getValue());
+                        break;
+                    case Cell.CELL_TYPE_STRING:
+                        this.pendingStringFormula = formulaRecord;
+                        break;
+                    case Cell.CELL_TYPE_BOOLEAN:
+                        this.reader.booleanCell(row, column, formulaRecord.getCachedBooleanValue());
+                        break;
+                    default:
+                        break;
+                }
+                break;
+            default:
+                // cellules vides et autres enregistrements ignorés
+                break;
+        }
+    }
+}
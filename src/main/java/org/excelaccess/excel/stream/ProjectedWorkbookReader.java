@@ -0,0 +1,154 @@
+package org.excelaccess.excel.stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.excelaccess.excel.mapping.RowMapping;
+import org.excelaccess.excel.mapping.RowMappingRegistry;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Chargement d'un document Excel (.xls ou .xlsx) réduit aux colonnes déclarées par des interfaces de ligne. <br/>
+ * Le document obtenu a les mêmes feuilles et les mêmes lignes que l'original mais seules les feuilles des interfaces
+ * sont remplies, et seulement avec les valeurs des colonnes déclarées (voir {@link RowMapping#getColumns()}). Les
+ * styles et les formules ne sont pas repris : le document n'est destiné qu'à la lecture.
+ * 
+ * @author Loic Abemonty
+ */
+public class ProjectedWorkbookReader extends AbstractEventReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProjectedWorkbookReader.class);
+
+    private final List<Class<?>> classes = new ArrayList<Class<?>>();
+
+    private Workbook workbook;
+
+    /**
+     * Colonnes à lire par feuille, null pour une feuille non lue.
+     */
+    private BitSet[] sheetColumns;
+
+    private BitSet columns;
+
+    private Sheet sheet;
+
+    private Row row;
+
+    /**
+     * Création du lecteur.
+     * 
+     * @param classes
+     *            les interfaces de ligne, annotées {@link ExcelDocument}
+     */
+    public ProjectedWorkbookReader(Class<?>... classes) {
+        for (Class<?> clazz : classes) {
+            checkNotNull(clazz, "class");
+            if (clazz.getAnnotation(ExcelDocument.class) == null) {
+                throw new IllegalArgumentException("Class should be annotated with @ExcelDocument: " + clazz.getName());
+            }
+            this.classes.add(clazz);
+        }
+    }
+
+    /**
+     * Document chargé, à appeler après {@link #read(java.io.InputStream)}.
+     * 
+     * @return non null
+     */
+    public Workbook getWorkbook() {
+        if (this.workbook == null) {
+            // document sans feuille
+            this.workbook = createWorkbook();
+        }
+        return this.workbook;
+    }
+
+    @Override
+    protected boolean startSheet(int sheetIndex) {
+        if (this.workbook == null) {
+            initializeWorkbook();
+        }
+        this.sheet = this.workbook.getSheetAt(sheetIndex);
+        this.columns = this.sheetColumns[sheetIndex];
+        return this.columns != null;
+    }
+
+    /**
+     * Création du document avec toutes les feuilles de l'original, les noms étant connus au début de la première.
+     */
+    private void initializeWorkbook() {
+        List<String> sheetNames = getSheetNames();
+        this.workbook = createWorkbook();
+        this.sheetColumns = new BitSet[sheetNames.size()];
+        for (String sheetName : sheetNames) {
+            this.workbook.createSheet(sheetName);
+        }
+        for (Class<?> clazz : this.classes) {
+            String sheetName = clazz.getAnnotation(ExcelDocument.class).sheetName();
+            int sheetIndex = sheetNames.indexOf(sheetName);
+            if (sheetIndex < 0) {
+                sheetIndex = 0;
+                LOGGER.warn("Impossible d'accéder à la feuille " + sheetName + " : utilisation de la première.");
+            }
+            if (sheetIndex < this.sheetColumns.length) {
+                if (this.sheetColumns[sheetIndex] == null) {
+                    this.sheetColumns[sheetIndex] = new BitSet();
+                }
+                this.sheetColumns[sheetIndex].or(RowMappingRegistry.getMapping(clazz).getColumns());
+            }
+        }
+    }
+
+    @Override
+    protected void endSheet() {
+        this.sheet = null;
+        this.row = null;
+        this.columns = null;
+    }
+
+    @Override
+    protected void rowDeclared(int rowNumber) {
+        getRow(rowNumber);
+    }
+
+    @Override
+    protected boolean startCell(int rowNumber, int column) {
+        // la ligne existe même si aucune de ses colonnes n'est lue
+        this.row = getRow(rowNumber);
+        return this.columns.get(column);
+    }
+
+    @Override
+    protected void numericCell(int rowNumber, int column, double value) {
+        this.row.createCell(column).setCellValue(value);
+    }
+
+    @Override
+    protected void stringCell(int rowNumber, int column, String value) {
+        this.row.createCell(column).setCellValue(value);
+    }
+
+    @Override
+    protected void booleanCell(int rowNumber, int column, boolean value) {
+        this.row.createCell(column).setCellValue(value);
+    }
+
+    private Row getRow(int rowNumber) {
+        if (this.row != null && this.row.getRowNum() == rowNumber) {
+            return this.row;
+        }
+        Row sheetRow = this.sheet.getRow(rowNumber);
+        if (sheetRow == null) {
+            sheetRow = this.sheet.createRow(rowNumber);
+        }
+        return sheetRow;
+    }
+}
@@ -0,0 +1,124 @@
+package org.excelaccess.excel.stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.excelaccess.excel.ExcelRowInvocationHandler;
+import org.excelaccess.excel.RowConsumer;
+import org.excelaccess.excel.RowProxyFactory;
+import org.excelaccess.excel.backend.MemoryRowBackend;
+import org.excelaccess.excel.mapping.RowMapping;
+import org.excelaccess.excel.mapping.RowMappingRegistry;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lecture au fil de l'eau d'un document Excel (.xls ou .xlsx), voir {@link AbstractEventReader}. <br/>
+ * Les enregistrements sont décodés une seule fois ; seule la ligne en cours de lecture est conservée en mémoire, dans
+ * un {@link MemoryRowBackend}, puis transmise à un {@link RowConsumer} au travers de l'interface de ligne demandée. Les
+ * conversions de type sont donc celles de {@link ExcelRowInvocationHandler}.
+ * <p/>
+ * Seules les colonnes déclarées par l'interface sont décodées (voir {@link RowMapping#getColumns()}). Seules les lignes
+ * ayant au moins une cellule sont transmises, à partir de {@link ExcelDocument#startAtRow()}.
+ * 
+ * @param <T>
+ *            Classe représentant les données d'une ligne
+ * @author Loic Abemonty
+ */
+public class RowStreamReader<T> extends AbstractEventReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RowStreamReader.class);
+
+    private final Class<T> clazz;
+
+    private final RowMapping mapping;
+
+    private final RowConsumer<? super T> consumer;
+
+    private final String sheetName;
+
+    private final int startAtRow;
+
+    private int targetSheetIndex = -1;
+
+    private MemoryRowBackend bufferRow;
+
+    /**
+     * Création du lecteur.
+     * 
+     * @param clazz
+     *            l'interface de ligne, annotée {@link ExcelDocument}
+     * @param consumer
+     *            le traitement des lignes, non null
+     */
+    public RowStreamReader(Class<T> clazz, RowConsumer<? super T> consumer) {
+        checkNotNull(clazz, "class");
+        checkNotNull(consumer, "consumer");
+        ExcelDocument excelDocumentDeclaration = clazz.getAnnotation(ExcelDocument.class);
+        if (excelDocumentDeclaration == null) {
+            throw new IllegalArgumentException("Class should be annotated with @ExcelDocument: " + clazz.getName());
+        }
+        this.clazz = clazz;
+        this.mapping = RowMappingRegistry.getMapping(clazz);
+        this.consumer = consumer;
+        this.sheetName = excelDocumentDeclaration.sheetName();
+        this.startAtRow = excelDocumentDeclaration.startAtRow();
+    }
+
+    @Override
+    protected boolean startSheet(int sheetIndex) {
+        if (this.targetSheetIndex < 0) {
+            this.targetSheetIndex = getSheetNames().indexOf(this.sheetName);
+            if (this.targetSheetIndex < 0) {
+                this.targetSheetIndex = 0;
+                LOGGER.warn("Impossible d'accéder à la feuille " + sheetName + " : utilisation de la première.");
+            }
+        }
+        return sheetIndex == this.targetSheetIndex;
+    }
+
+    @Override
+    protected void endSheet() {
+        flushRow();
+    }
+
+    @Override
+    protected boolean startCell(int row, int column) {
+        if (row < this.startAtRow) {
+            return false;
+        }
+        if (this.bufferRow != null && this.bufferRow.getRowNum() != row) {
+            flushRow();
+        }
+        if (this.bufferRow == null) {
+            this.bufferRow = new MemoryRowBackend(row, isDate1904());
+        }
+        return this.mapping.isColumnUsed(column);
+    }
+
+    @Override
+    protected void numericCell(int row, int column, double value) {
+        this.bufferRow.setNumericValue(column, value);
+    }
+
+    @Override
+    protected void stringCell(int row, int column, String value) {
+        this.bufferRow.setStringValue(column, value);
+    }
+
+    @Override
+    protected void booleanCell(int row, int column, boolean value) {
+        this.bufferRow.setBooleanValue(column, value);
+    }
+
+    private void flushRow() {
+        if (this.bufferRow == null) {
+            return;
+        }
+        MemoryRowBackend row = this.bufferRow;
+        this.bufferRow = null;
+
+        ExcelRowInvocationHandler invocationHandler = new ExcelRowInvocationHandler(this.clazz, row);
+        this.consumer.consume(RowProxyFactory.newInstance(this.clazz, invocationHandler));
+    }
+}
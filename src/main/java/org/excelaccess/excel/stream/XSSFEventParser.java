@@ -0,0 +1,204 @@
+package org.excelaccess.excel.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Décodage d'un document .xlsx en SAX, au profit d'un {@link AbstractEventReader}. <br/>
+ * Les textes partagés sont lus une fois (table en lecture seule), puis chaque feuille est parcourue sans construire
+ * son modèle objet.
+ * 
+ * @author Loic Abemonty
+ */
+class XSSFEventParser extends DefaultHandler {
+
+    private static final String DISALLOW_DOCTYPE_FEATURE = "http://apache.org/xml/features/disallow-doctype-decl";
+
+    /**
+     * Numéro de colonne, 0-based, d'une référence de cellule (ex : "AB12").
+     */
+    private static int getColumn(String cellReference) {
+        int column = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    /**
+     * Analyseur propre à chaque lecture, sans entités externes (voir {@link SAXHelper}). Les parties d'un .xlsx n'ont
+     * pas de DOCTYPE : il est refusé quand l'analyseur le permet.
+     */
+    private static XMLReader newXMLReader() throws SAXException, ParserConfigurationException {
+        XMLReader xmlReader = SAXHelper.newXMLReader();
+        try {
+            xmlReader.setFeature(DISALLOW_DOCTYPE_FEATURE, true);
+        } catch (SAXNotRecognizedException e) {
+            // analyseur autre que Xerces : les entités externes restent ignorées par SAXHelper
+        } catch (SAXNotSupportedException e) {
+            // idem
+        }
+        return xmlReader;
+    }
+
+    private final AbstractEventReader reader;
+
+    private ReadOnlySharedStringsTable sharedStrings;
+
+    private int row = -1;
+
+    private int column = -1;
+
+    private String cellType;
+
+    /**
+     * true si la valeur de la cellule en cours doit être décodée.
+     */
+    private boolean readingCell;
+
+    /**
+     * true dans un élément portant la valeur de la cellule en cours (v, ou t d'un texte en ligne).
+     */
+    private boolean readingValue;
+
+    private final StringBuilder value = new StringBuilder();
+
+    XSSFEventParser(AbstractEventReader reader) {
+        this.reader = reader;
+    }
+
+    void parse(InputStream excelInputStream) throws IOException {
+        OPCPackage opcPackage;
+        try {
+            opcPackage = OPCPackage.open(excelInputStream);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Document .xlsx illisible", e);
+        }
+        try {
+            XSSFReader xssfReader = new XSSFReader(opcPackage);
+            this.sharedStrings = new ReadOnlySharedStringsTable(opcPackage);
+
+            // noms des feuilles et système de dates
+            parse(xssfReader.getWorkbookData(), new WorkbookHandler());
+
+            Iterator<InputStream> sheets = xssfReader.getSheetsData();
+            int sheetIndex = 0;
+            while (sheets.hasNext()) {
+                InputStream sheetInputStream = sheets.next();
+                if (this.reader.startSheet(sheetIndex)) {
+                    this.row = -1;
+                    parse(sheetInputStream, this);
+                    this.reader.endSheet();
+                } else {
+                    sheetInputStream.close();
+                }
+                sheetIndex++;
+            }
+        } catch (OpenXML4JException e) {
+            throw new IOException("Document .xlsx illisible", e);
+        } catch (SAXException e) {
+            throw new IOException("Document .xlsx illisible", e);
+        } finally {
+            // document ouvert en lecture : aucune modification à enregistrer
+            opcPackage.revert();
+        }
+    }
+
+    private void parse(InputStream inputStream, DefaultHandler handler) throws IOException, SAXException {
+        try {
+            XMLReader xmlReader = newXMLReader();
+            xmlReader.setContentHandler(handler);
+            xmlReader.parse(new InputSource(inputStream));
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Analyseur XML indisponible", e);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        if ("row".equals(localName)) {
+            String rowReference = attributes.getValue("r");
+            this.row = rowReference == null ? this.row + 1 : Integer.parseInt(rowReference) - 1;
+            this.column = -1;
+            this.reader.rowDeclared(this.row);
+        } else if ("c".equals(localName)) {
+            String cellReference = attributes.getValue("r");
+            this.column = cellReference == null ? this.column + 1 : getColumn(cellReference);
+            this.cellType = attributes.getValue("t");
+            this.readingCell = this.reader.startCell(this.row, this.column);
+            this.value.setLength(0);
+        } else if (this.readingCell && ("v".equals(localName) || "t".equals(localName))) {
+            this.readingValue = true;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (this.readingValue) {
+            this.value.append(ch, start, length);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        if ("v".equals(localName) || "t".equals(localName)) {
+            this.readingValue = false;
+        } else if ("c".equals(localName) && this.readingCell) {
+            this.readingCell = false;
+            if (this.value.length() > 0) {
+                cellValue(this.value.toString());
+            }
+        }
+    }
+
+    private void cellValue(String cellValue) {
+        if (this.cellType == null || "n".equals(this.cellType)) {
+            this.reader.numericCell(this.row, this.column, Double.parseDouble(cellValue));
+        } else if ("s".equals(this.cellType)) {
+            this.reader.stringCell(this.row, this.column, this.sharedStrings.getEntryAt(Integer.parseInt(cellValue)));
+        } else if ("inlineStr".equals(this.cellType) || "str".equals(this.cellType)) {
+            this.reader.stringCell(this.row, this.column, cellValue);
+        } else if ("b".equals(this.cellType)) {
+            this.reader.booleanCell(this.row, this.column, "1".equals(cellValue));
+        }
+        // erreurs ("e") ignorées
+    }
+
+    /**
+     * Lecture de workbook.xml : noms des feuilles dans l'ordre, système de dates.
+     */
+    private class WorkbookHandler extends DefaultHandler {
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("sheet".equals(localName)) {
+                reader.addSheetName(attributes.getValue("name"));
+            } else if ("workbookPr".equals(localName)) {
+                String date1904 = attributes.getValue("date1904");
+                reader.setDate1904("1".equals(date1904) || "true".equals(date1904));
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.excelaccess.excel.utils;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Conversion par calcul des dates Excel (nombre de jours depuis le début du système de dates du document) en dates
+ * locales, sans passer par un {@link java.util.Calendar} comme {@link org.apache.poi.ss.usermodel.DateUtil}. <br/>
+ * Une date locale est exprimée en millisecondes depuis le 1er janvier 1970 00:00, sans fuseau horaire. <br/>
+ * Comme Excel, le système 1900 compte le 29 février 1900, qui n'existe pas : le numéro 60 est lu comme le 1er mars. <br/>
+ * Les fuseaux horaires sont ceux du JDK ({@link TimeZone}), comme pour POI et {@link java.util.Formatter}.
+ * 
+ * @author Loic Abemonty
+ */
+public final class ExcelDates {
+
+    /**
+     * Résultat de {@link #toLocalMillis(double, boolean)} pour un nombre qui n'est pas une date valide.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    /**
+     * 31 décembre 1899 : le jour 0 du système 1900, en jours depuis 1970.
+     */
+    private static final int EPOCH_DAY_1900 = -25568;
+
+    /**
+     * 1er janvier 1904 : le jour 0 du système 1904, en jours depuis 1970.
+     */
+    private static final int EPOCH_DAY_1904 = -24107;
+
+    /**
+     * Premier jour compté deux fois par le système 1900, à cause du 29 février 1900.
+     */
+    private static final int LEAP_BUG_DAY = 61;
+
+    private ExcelDates() {
+    }
+
+    /**
+     * Date locale d'un nombre Excel, arrondie à la milliseconde comme {@link org.apache.poi.ss.usermodel.DateUtil}.
+     * 
+     * @param serial
+     *            nombre de jours, avec les heures en partie décimale
+     * @param date1904
+     *            true si le document utilise les dates à partir de 1904
+     * @return {@link #INVALID} si le nombre est négatif
+     */
+    public static long toLocalMillis(double serial, boolean date1904) {
+        if (!(serial > -Double.MIN_VALUE)) {
+            return INVALID;
+        }
+        int wholeDays = (int) Math.floor(serial);
+        long millisInDay = (long) ((serial - wholeDays) * DAY_MILLIS + 0.5);
+        long epochDay;
+        if (date1904) {
+            epochDay = EPOCH_DAY_1904 + wholeDays;
+        } else {
+            epochDay = EPOCH_DAY_1900 + wholeDays - (wholeDays < LEAP_BUG_DAY ? 0 : 1);
+        }
+        return epochDay * DAY_MILLIS + millisInDay;
+    }
+
+    /**
+     * Nombre Excel d'une date locale, inverse de {@link #toLocalMillis(double, boolean)}.
+     * 
+     * @param localMillis
+     *            date locale
+     * @param date1904
+     *            true si le document utilise les dates à partir de 1904
+     * @return -1 pour une date antérieure au système de dates, comme {@link org.apache.poi.ss.usermodel.DateUtil}
+     */
+    public static double toSerial(long localMillis, boolean date1904) {
+        long epochDay = localMillis / DAY_MILLIS;
+        long millisInDay = localMillis % DAY_MILLIS;
+        if (millisInDay < 0) {
+            epochDay--;
+            millisInDay += DAY_MILLIS;
+        }
+        long wholeDays;
+        if (date1904) {
+            wholeDays = epochDay - EPOCH_DAY_1904;
+        } else {
+            wholeDays = epochDay - EPOCH_DAY_1900;
+            if (wholeDays >= LEAP_BUG_DAY - 1) {
+                wholeDays++;
+            }
+        }
+        if (wholeDays < (date1904 ? 0 : 1)) {
+            return -1;
+        }
+        return wholeDays + (double) millisInDay / DAY_MILLIS;
+    }
+
+    /**
+     * Date locale d'un instant, dans le fuseau horaire par défaut.
+     * 
+     * @param date
+     *            non null
+     * @return la date locale
+     */
+    public static long toLocalMillis(Date date) {
+        long millis = date.getTime();
+        return millis + TimeZone.getDefault().getOffset(millis);
+    }
+
+    /**
+     * Instant d'une date locale dans le fuseau horaire par défaut, en millisecondes depuis 1970 UTC. <br/>
+     * Le décalage est calculé directement loin d'un changement d'heure ; à moins d'un jour d'un changement, l'heure
+     * locale est résolue par un {@link GregorianCalendar}, comme {@link org.apache.poi.ss.usermodel.DateUtil}.
+     * 
+     * @param localMillis
+     *            date locale
+     * @return l'instant
+     */
+    public static long toInstantMillis(long localMillis) {
+        TimeZone zone = TimeZone.getDefault();
+        int offset = zone.getOffset(localMillis - zone.getRawOffset());
+        long millis = localMillis - offset;
+        if (zone.getOffset(millis - DAY_MILLIS) == offset && zone.getOffset(millis + DAY_MILLIS) == offset) {
+            return millis;
+        }
+        return toCalendar(localMillis, zone).getTimeInMillis();
+    }
+
+    private static Calendar toCalendar(long localMillis, TimeZone zone) {
+        Calendar utc = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        utc.setTimeInMillis(localMillis);
+        Calendar calendar = new GregorianCalendar(zone);
+        calendar.clear();
+        calendar.set(utc.get(Calendar.YEAR), utc.get(Calendar.MONTH), utc.get(Calendar.DAY_OF_MONTH),
+                utc.get(Calendar.HOUR_OF_DAY), utc.get(Calendar.MINUTE), utc.get(Calendar.SECOND));
+        calendar.set(Calendar.MILLISECOND, utc.get(Calendar.MILLISECOND));
+        return calendar;
+    }
+}
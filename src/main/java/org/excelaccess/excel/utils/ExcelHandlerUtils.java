@@ -30,6 +30,11 @@ public class ExcelHandlerUtils {
         T excelCell = method.getAnnotation(annotationClazz);
         String methodName = method.getName();
 
+        if (excelCell == null && methodName.startsWith("get") && isArrayGetter(method)) {
+            // accès groupé : les informations peuvent être sur le getter indexé
+            Method indexedGetter = getIndexedGetter(method);
+            return indexedGetter == null ? null : indexedGetter.getAnnotation(annotationClazz);
+        }
         if (excelCell == null && methodName.startsWith("get") == false) {
             // recherchons le getter qui doit avoir les informations.
             for (final String prefix : METHOD_PREFIXES) {
@@ -44,7 +49,7 @@ public class ExcelHandlerUtils {
                             parameterTypes = (Class<?>[]) ArrayUtils.subarray(parameterTypes, 0,
                                     parameterTypes.length - 1);
                         }
-                        getterMethod = method.getDeclaringClass().getMethod("get" + methodSuffix, parameterTypes);
+                        getterMethod = getGetter(method, prefix, methodSuffix, parameterTypes);
                     } catch (NoSuchMethodException e) {
                         return null;
                     }
@@ -74,7 +79,7 @@ public class ExcelHandlerUtils {
                     final String methodSuffix = methodName.substring(prefix.length());
                     final Method getterMethod;
                     try {
-                        getterMethod = method.getDeclaringClass().getMethod("get" + methodSuffix);
+                        getterMethod = getGetter(method, prefix, methodSuffix);
                     } catch (NoSuchMethodException e) {
                         return null;
                     }
@@ -84,4 +89,39 @@ public class ExcelHandlerUtils {
         }
         return excelCell;
     }
+
+    private static boolean isArrayGetter(Method method) {
+        return method.getParameterTypes().length == 0 && method.getReturnType().isArray();
+    }
+
+    /**
+     * Getter indexé <tt>getXxx(int)</tt> correspondant au getter groupé <tt>getXxx()</tt>.
+     * 
+     * @return null si non trouvé
+     */
+    private static Method getIndexedGetter(Method method) {
+        for (Class<?> indexType : new Class<?>[] { int.class, Integer.class }) {
+            try {
+                return method.getDeclaringClass().getMethod(method.getName(), indexType);
+            } catch (NoSuchMethodException e) {
+                // type d'index suivant
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Getter <tt>getXxx</tt> correspondant à une méthode, ou <tt>isXxx</tt> pour le setter d'un booléen.
+     */
+    private static Method getGetter(Method method, String prefix, String methodSuffix, Class<?>... parameterTypes)
+            throws NoSuchMethodException {
+        try {
+            return method.getDeclaringClass().getMethod("get" + methodSuffix, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            if (!"set".equals(prefix)) {
+                throw e;
+            }
+            return method.getDeclaringClass().getMethod("is" + methodSuffix, parameterTypes);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package org.excelaccess.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.excelaccess.excel.mapping.RowMappingRegistry;
+import org.excelaccess.excel.model.AxeCommandeRow;
+import org.junit.Test;
+
+/**
+ * Test du chargement en lecture seule, réduit aux colonnes des interfaces de ligne.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class ExcelAccessorReadOnlyTest {
+
+    @Test
+    public void lectureIdentiqueAuChargementComplet() throws IOException {
+        ExcelAccessor complet = ExcelAccessor.getInstance(new FileInputStream(
+                "src/test/resources/excel/programme-commande.xls"));
+        ExcelAccessor lectureSeule;
+        InputStream workbookStream = new FileInputStream("src/test/resources/excel/programme-commande.xls");
+        try {
+            lectureSeule = ExcelAccessor.getReadOnlyInstance(workbookStream, AxeCommandeRow.class);
+        } finally {
+            workbookStream.close();
+        }
+
+        for (int i = 3; i < 10; i++) {
+            AxeCommandeRow attendu = complet.parse(i, AxeCommandeRow.class);
+            AxeCommandeRow lu = lectureSeule.parse(i, AxeCommandeRow.class);
+            if (attendu == null) {
+                assertNull(lu);
+                continue;
+            }
+            assertNotNull(lu);
+            assertEquals(attendu.getContrat(), lu.getContrat());
+            assertEquals(attendu.getAxe(), lu.getAxe());
+            assertEquals(attendu.getNature(), lu.getNature());
+            for (int index = 0; index < 6; index++) {
+                assertEquals(attendu.getCommande(index), lu.getCommande(index));
+            }
+        }
+    }
+
+    @Test
+    public void colonnesNonDeclareesIgnorees() throws IOException {
+        InputStream workbookStream = new FileInputStream("src/test/resources/excel/programme-commande.xls");
+        ExcelAccessor lectureSeule;
+        try {
+            lectureSeule = ExcelAccessor.getReadOnlyInstance(workbookStream, AxeCommandeRow.class);
+        } finally {
+            workbookStream.close();
+        }
+
+        Row row = lectureSeule.getWorkbook().getSheet("ProgrammeCommande-Axe").getRow(3);
+        assertNotNull(row);
+        for (int column = 0; column < row.getLastCellNum(); column++) {
+            if (!RowMappingRegistry.getMapping(AxeCommandeRow.class).isColumnUsed(column)) {
+                assertNull(row.getCell(column));
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.excelaccess.excel;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.excelaccess.excel.model.AxeCommandeRow;
+import org.excelaccess.excel.test.documentation.model.excel.Cartouche;
+import org.joda.time.DateMidnight;
+import org.junit.Test;
+
+/**
+ * Test de la lecture au fil de l'eau d'un fichier Excel.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class ExcelAccessorStreamTest {
+
+    @Test
+    public void lectureCartouche() throws IOException {
+        final List<String> userNames = new ArrayList<String>();
+        final List<Date> dates = new ArrayList<Date>();
+        final List<BigDecimal> costs = new ArrayList<BigDecimal>();
+
+        InputStream workbookStream = new FileInputStream("src/test/resources/excel/test_cartouche_data.xls");
+        try {
+            ExcelAccessor.stream(workbookStream, Cartouche.class, new RowConsumer<Cartouche>() {
+                @Override
+                public void consume(Cartouche row) {
+                    userNames.add(row.getUserName());
+                    dates.add(row.getDate());
+                    costs.add(row.getCost());
+                }
+            });
+        } finally {
+            workbookStream.close();
+        }
+
+        assertEquals(20, userNames.size());
+        DateMidnight dateMinuit = new DateMidnight(2012, 1, 1);
+        for (int i = 0; i < userNames.size(); i++) {
+            assertEquals("userName" + (i + 1), userNames.get(i));
+            assertEquals(dateMinuit.plusDays(i).toDate(), dates.get(i));
+            assertEquals(0, BigDecimal.valueOf(i + 1).compareTo(costs.get(i)));
+        }
+    }
+
+    @Test
+    public void lectureIdentiqueAuParse() throws IOException {
+        final List<Integer> commandes = new ArrayList<Integer>();
+        final List<String> axes = new ArrayList<String>();
+
+        InputStream workbookStream = new FileInputStream("src/test/resources/excel/programme-commande.xls");
+        try {
+            ExcelAccessor.stream(workbookStream, AxeCommandeRow.class, new RowConsumer<AxeCommandeRow>() {
+                @Override
+                public void consume(AxeCommandeRow row) {
+                    axes.add(row.getAxe());
+                    commandes.add(row.getCommande(0));
+                }
+            });
+        } finally {
+            workbookStream.close();
+        }
+
+        ExcelAccessor excelAccessor = ExcelAccessor.getInstance(new FileInputStream(
+                "src/test/resources/excel/programme-commande.xls"));
+        AxeCommandeRow axeCommandeRow = excelAccessor.parse(3, AxeCommandeRow.class);
+        assertEquals(axeCommandeRow.getAxe(), axes.get(0));
+        assertEquals(axeCommandeRow.getCommande(0), commandes.get(0));
+    }
+}
@@ -8,8 +8,10 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
 import org.excelaccess.excel.ExcelAccessor;
 import org.excelaccess.excel.model.AxeCommandeRow;
 import org.excelaccess.excel.model.FluxCommandeRow;
@@ -116,6 +118,59 @@ public class ExcelAccessorTest {
         assertEquals("V", axeRowReread.getNature());
     }
 
+    /**
+     * Ajouts alternés par deux interfaces d'une même feuille : aucune ligne n'est écrasée.
+     */
+    /**
+     * Les appelants de l'API POI gardent leurs signatures, la ligne étant enveloppée dans un backend.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void initializeRowPoi() {
+        Row row = excelAccessor.getWorkbook().getSheet("ProgrammeCommande-Axe").createRow(200);
+        AxeCommandeRow axeCommandeRow = excelAccessor.initializeRow(row, AxeCommandeRow.class);
+        axeCommandeRow.setNature("C");
+        assertEquals("C", row.getCell(5).getStringCellValue());
+
+        ExcelRowInvocationHandler handler = new ExcelRowInvocationHandler(AxeCommandeRow.class, row);
+        assertEquals("C", RowProxyFactory.newInstance(AxeCommandeRow.class, handler).getNature());
+    }
+
+    @Test
+    public void addAlterneSurUneMemeFeuille() {
+        int derniereLigne = excelAccessor.getSheet("ProgrammeCommande-Axe").getLastRowNum();
+
+        IndexableAxeCommandeRow premiere = excelAccessor.add(IndexableAxeCommandeRow.class);
+        AxeCommandeRow deuxieme = excelAccessor.add(AxeCommandeRow.class);
+        IndexableAxeCommandeRow troisieme = excelAccessor.add(IndexableAxeCommandeRow.class);
+        deuxieme.setNature("V");
+
+        assertEquals(Integer.valueOf(derniereLigne + 1), premiere.getRowNum());
+        assertEquals(Integer.valueOf(derniereLigne + 3), troisieme.getRowNum());
+        assertEquals("V", excelAccessor.parse(derniereLigne + 2, AxeCommandeRow.class).getNature());
+    }
+
+    /**
+     * Ajout d'un lot de lignes.
+     */
+    @Test
+    public void addAll() {
+        int derniereLigne = excelAccessor.getSheet("ProgrammeCommande-Axe").getLastRowNum();
+
+        int ajouts = excelAccessor.addAll(AxeCommandeRow.class, Arrays.asList("A", "B", "C"),
+                new RowWriter<String, AxeCommandeRow>() {
+                    @Override
+                    public void write(String source, AxeCommandeRow row) {
+                        row.setNature(source);
+                    }
+                });
+
+        assertEquals(3, ajouts);
+        assertEquals(derniereLigne + 3, excelAccessor.getSheet("ProgrammeCommande-Axe").getLastRowNum());
+        assertEquals("A", excelAccessor.parse(derniereLigne + 1, AxeCommandeRow.class).getNature());
+        assertEquals("C", excelAccessor.parse(derniereLigne + 3, AxeCommandeRow.class).getNature());
+    }
+
     /**
      * Ajout une ligne dans le 2ieme onglet.
      * 
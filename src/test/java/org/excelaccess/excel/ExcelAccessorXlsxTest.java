@@ -0,0 +1,245 @@
+package org.excelaccess.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.excelaccess.excel.model.annotation.ExcelCell;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.excelaccess.excel.test.documentation.model.excel.Cartouche;
+import org.joda.time.DateMidnight;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbook;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+/**
+ * Test des lectures et écritures d'un document .xlsx avec les interfaces de ligne existantes.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class ExcelAccessorXlsxTest {
+
+    private static final DateMidnight DATE_MINUIT = new DateMidnight(2012, 1, 1);
+
+    @ExcelDocument(sheetName = "Dates", startAtRow = 0)
+    public interface DateRow {
+
+        @ExcelCell(name = "A")
+        LocalDate getJour();
+
+        @ExcelCell(name = "B")
+        Date getDate();
+    }
+
+    /**
+     * Document en dates 1904 : 1er janvier 2012 puis les jours suivants.
+     */
+    private static XSSFWorkbook creerDocument1904(int nombre) {
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        CTWorkbook ctWorkbook = workbook.getCTWorkbook();
+        (ctWorkbook.isSetWorkbookPr() ? ctWorkbook.getWorkbookPr() : ctWorkbook.addNewWorkbookPr()).setDate1904(true);
+        Sheet sheet = workbook.createSheet("Dates");
+        for (int i = 0; i < nombre; i++) {
+            Row row = sheet.createRow(i);
+            row.createCell(0).setCellValue(39447 + i);
+            row.createCell(1).setCellValue(39447 + i);
+        }
+        return workbook;
+    }
+
+    private static void remplir(ExcelAccessor excelAccessor, int nombre) {
+        for (int i = 0; i < nombre; i++) {
+            Cartouche cartouche = excelAccessor.add(Cartouche.class);
+            cartouche.setUserName("userName" + (i + 1));
+            cartouche.setDate(DATE_MINUIT.plusDays(i).toDate());
+            cartouche.setCost(BigDecimal.valueOf(i + 1));
+            cartouche.setAction("action" + (i + 1));
+        }
+    }
+
+    private static void verifier(Cartouche cartouche, int i) {
+        assertNotNull(cartouche);
+        assertEquals("userName" + (i + 1), cartouche.getUserName());
+        assertEquals(DATE_MINUIT.plusDays(i).toDate(), cartouche.getDate());
+        assertEquals(0, BigDecimal.valueOf(i + 1).compareTo(cartouche.getCost()));
+        assertEquals("action" + (i + 1), cartouche.getAction());
+    }
+
+    private static byte[] creerDocument(int nombre) throws IOException {
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        workbook.createSheet("Intro");
+        ExcelAccessor excelAccessor = new ExcelAccessor(workbook);
+        remplir(excelAccessor, nombre);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        excelAccessor.write(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    public void dates1904Parse() {
+        ExcelAccessor excelAccessor = new ExcelAccessor(creerDocument1904(3));
+        for (int i = 0; i < 3; i++) {
+            DateRow dateRow = excelAccessor.parse(i, DateRow.class);
+            assertEquals(new LocalDate(2012, 1, 1).plusDays(i), dateRow.getJour());
+            assertEquals(DATE_MINUIT.plusDays(i).toDate(), dateRow.getDate());
+        }
+    }
+
+    @Test
+    public void dates1904Cursor() {
+        ExcelAccessor excelAccessor = new ExcelAccessor(creerDocument1904(3));
+        int i = 0;
+        for (DateRow dateRow : excelAccessor.cursor(DateRow.class)) {
+            assertEquals(new LocalDate(2012, 1, 1).plusDays(i), dateRow.getJour());
+            assertEquals(DATE_MINUIT.plusDays(i).toDate(), dateRow.getDate());
+            i++;
+        }
+        assertEquals(3, i);
+    }
+
+    @Test
+    public void lectureEnMemoire() throws IOException {
+        ExcelAccessor excelAccessor = ExcelAccessor.getInstance(new ByteArrayInputStream(creerDocument(20)));
+        for (int i = 0; i < 20; i++) {
+            verifier(excelAccessor.parse(i + 2, Cartouche.class), i);
+        }
+        assertNull(excelAccessor.parse(22, Cartouche.class));
+    }
+
+    @Test
+    public void lectureAuFilDeLEau() throws IOException {
+        final List<Cartouche> cartouches = new ArrayList<Cartouche>();
+        final List<Date> dates = new ArrayList<Date>();
+        ExcelAccessor.stream(new ByteArrayInputStream(creerDocument(20)), Cartouche.class,
+                new RowConsumer<Cartouche>() {
+                    @Override
+                    public void consume(Cartouche row) {
+                        // la ligne n'est valable que pendant l'appel
+                        verifier(row, cartouches.size());
+                        cartouches.add(row);
+                        dates.add(row.getDate());
+                    }
+                });
+        assertEquals(20, cartouches.size());
+        assertEquals(DATE_MINUIT.plusDays(19).toDate(), dates.get(19));
+    }
+
+    @Test
+    public void lectureSeule() throws IOException {
+        ExcelAccessor excelAccessor = ExcelAccessor.getReadOnlyInstance(new ByteArrayInputStream(creerDocument(20)),
+                Cartouche.class);
+        for (int i = 0; i < 20; i++) {
+            verifier(excelAccessor.parse(i + 2, Cartouche.class), i);
+        }
+    }
+
+    @Test
+    public void ecritureAuFilDeLEau() throws IOException {
+        ExcelAccessor excelAccessor = ExcelAccessor.getStreamingInstance(null, 10);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            remplir(excelAccessor, 500);
+            // les premières lignes ne sont plus en mémoire
+            assertNull(excelAccessor.parse(2, Cartouche.class));
+            excelAccessor.write(outputStream);
+        } finally {
+            excelAccessor.dispose();
+        }
+
+        ExcelAccessor relu = ExcelAccessor.getInstance(new ByteArrayInputStream(outputStream.toByteArray()));
+        for (int i = 0; i < 500; i++) {
+            verifier(relu.parse(i + 2, Cartouche.class), i);
+        }
+    }
+
+    @Test
+    public void ecritureAuFilDeLEauSurModele() throws IOException {
+        ExcelAccessor excelAccessor = ExcelAccessor.getStreamingInstance(new ByteArrayInputStream(creerDocument(5)),
+                10);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            Cartouche cartouche = excelAccessor.add(Cartouche.class);
+            cartouche.setUserName("userName6");
+            excelAccessor.write(outputStream);
+        } finally {
+            excelAccessor.dispose();
+        }
+
+        ExcelAccessor relu = ExcelAccessor.getInstance(new ByteArrayInputStream(outputStream.toByteArray()));
+        for (int i = 0; i < 5; i++) {
+            verifier(relu.parse(i + 2, Cartouche.class), i);
+        }
+        assertEquals("userName6", relu.parse(7, Cartouche.class).getUserName());
+    }
+
+    /**
+     * Document dont la feuille déclare une entité externe vers un fichier local, lue dans la première cellule.
+     */
+    private static byte[] creerDocumentXxe(File secret) throws IOException {
+        ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(creerDocument(1)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+        for (ZipEntry entry = zipInputStream.getNextEntry(); entry != null; entry = zipInputStream.getNextEntry()) {
+            byte[] content = ByteStreams.toByteArray(zipInputStream);
+            if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                String xml = new String(content, "UTF-8");
+                xml = xml.replaceFirst("\\?>", "?><!DOCTYPE worksheet [<!ENTITY xxe SYSTEM \""
+                        + secret.toURI() + "\">]>");
+                xml = xml.replaceFirst("<c r=\"A3\"[^>]*>.*?</c>", "<c r=\"A3\" t=\"inlineStr\"><is><t>&xxe;</t></is></c>");
+                content = xml.getBytes("UTF-8");
+            }
+            zipOutputStream.putNextEntry(new ZipEntry(entry.getName()));
+            zipOutputStream.write(content);
+            zipOutputStream.closeEntry();
+        }
+        zipOutputStream.close();
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    public void lectureAuFilDeLEauSansEntiteExterne() throws IOException {
+        File secret = File.createTempFile("secret", ".txt", new File("target"));
+        Files.write("contenu secret", secret, Charsets.UTF_8);
+        final List<String> userNames = new ArrayList<String>();
+        try {
+            ExcelAccessor.stream(new ByteArrayInputStream(creerDocumentXxe(secret)), Cartouche.class,
+                    new RowConsumer<Cartouche>() {
+                        @Override
+                        public void consume(Cartouche row) {
+                            userNames.add(row.getUserName());
+                        }
+                    });
+            fail("DOCTYPE accepté");
+        } catch (IOException e) {
+            // document refusé
+        } finally {
+            secret.delete();
+        }
+        for (String userName : userNames) {
+            assertFalse(userName, userName != null && userName.contains("secret"));
+        }
+    }
+}
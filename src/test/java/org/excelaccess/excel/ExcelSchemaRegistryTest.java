@@ -0,0 +1,100 @@
+package org.excelaccess.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+
+import org.excelaccess.excel.model.AxeCommandeRow;
+import org.excelaccess.excel.model.FluxCommandeRow;
+import org.excelaccess.excel.model.IndexableAxeCommandeRow;
+import org.excelaccess.excel.model.IntAxeCommandeRow;
+import org.excelaccess.excel.model.annotation.ExcelCell;
+import org.excelaccess.excel.model.annotation.ExcelCellFormat;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.excelaccess.excel.model.annotation.RepeatableExcelCell;
+import org.excelaccess.excel.test.documentation.model.excel.Cartouche;
+import org.excelaccess.excel.test.documentation.model.excel.DocumentDelivered;
+import org.excelaccess.excel.test.documentation.model.excel.InformationSuivi;
+import org.junit.Test;
+
+/**
+ * Test de la vérification des interfaces de ligne au démarrage.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class ExcelSchemaRegistryTest {
+
+    /**
+     * Sans ExcelDocument : les colonnes en double seraient refusées à la compilation.
+     */
+    public interface InvalideRow {
+
+        @ExcelCell(value = 2, name = "C")
+        String getAmbigu();
+
+        @RepeatableExcelCell(size = 3)
+        @ExcelCell(name = "E")
+        Integer getSemaine(int index);
+
+        @ExcelCell(name = "G")
+        String getChevauchement();
+
+        @ExcelCell(8)
+        Object getInconnu();
+
+        @ExcelCell(name = "1A")
+        String getLettres();
+
+        void setAbsent(String absent);
+    }
+
+    @ExcelDocument(sheetName = "Format", startAtRow = 1)
+    public interface FormatInvalideRow {
+
+        @ExcelCell(1)
+        @ExcelCellFormat(outputFormat = "%d")
+        Date getJour();
+
+        void setJour(Date jour);
+    }
+
+    @Test
+    public void interfacesDuProjet() {
+        assertEquals(7, ExcelSchemaRegistry.registerAll(AxeCommandeRow.class, FluxCommandeRow.class,
+                IndexableAxeCommandeRow.class, IntAxeCommandeRow.class, Cartouche.class, DocumentDelivered.class,
+                InformationSuivi.class).size());
+        assertTrue(ExcelSchemaRegistry.isRegistered(IntAxeCommandeRow.class));
+        ExcelSchemaRegistry.warmUp(IntAxeCommandeRow.class, 10);
+    }
+
+    @Test
+    public void toutesLesErreurs() {
+        try {
+            ExcelSchemaRegistry.register(InvalideRow.class);
+            fail("interface invalide acceptée");
+        } catch (IllegalArgumentException e) {
+            String message = e.getMessage();
+            assertTrue(message, message.contains("annotation ExcelDocument absente"));
+            assertTrue(message, message.contains("getAmbigu : colonne 2 et lettres C à la fois"));
+            assertTrue(message, message.contains("colonne 6 déjà lue par"));
+            assertTrue(message, message.contains("getInconnu : type java.lang.Object sans convertisseur"));
+            assertTrue(message, message.contains("getLettres : lettres de colonne invalides 1A"));
+            assertTrue(message, message.contains("setAbsent : setter sans getter annoté ExcelCell"));
+        }
+        assertFalse(ExcelSchemaRegistry.isRegistered(InvalideRow.class));
+    }
+
+    @Test
+    public void formatDeSortieInvalide() {
+        try {
+            ExcelSchemaRegistry.registerAll(IntAxeCommandeRow.class, FormatInvalideRow.class);
+            fail("format invalide accepté");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Format de sortie \"%d\" invalide"));
+        }
+    }
+}
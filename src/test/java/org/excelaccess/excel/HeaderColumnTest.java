@@ -0,0 +1,105 @@
+package org.excelaccess.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.excelaccess.excel.model.annotation.ExcelCell;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test des colonnes désignées par leur libellé dans la ligne d'en-tête.
+ * 
+ * @author Loic Abemonty
+ */
+public class HeaderColumnTest {
+
+    @ExcelDocument(sheetName = "Axes", startAtRow = 1)
+    public interface AxeRow {
+
+        @ExcelCell(header = "Contrat")
+        String getContrat();
+
+        void setContrat(String contrat);
+
+        @ExcelCell(header = " Volume ")
+        Integer getVolume();
+
+        void setVolume(Integer volume);
+
+        @ExcelCell(header = "Absent")
+        String getAbsent();
+
+        void setAbsent(String absent);
+    }
+
+    private HSSFWorkbook workbook;
+
+    private ExcelAccessor excelAccessor;
+
+    @Before
+    public void setUp() {
+        this.workbook = new HSSFWorkbook();
+        Sheet sheet = this.workbook.createSheet("Axes");
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("Volume");
+        header.createCell(1).setCellValue("Contrat");
+        Row row = sheet.createRow(1);
+        row.createCell(0).setCellValue(12);
+        row.createCell(1).setCellValue("1310009");
+        this.excelAccessor = new ExcelAccessor(this.workbook);
+    }
+
+    @Test
+    public void lectureParLibelle() {
+        AxeRow axeRow = this.excelAccessor.parse(1, AxeRow.class);
+        assertEquals("1310009", axeRow.getContrat());
+        assertEquals(Integer.valueOf(12), axeRow.getVolume());
+        assertNull(axeRow.getAbsent());
+    }
+
+    @Test
+    public void ecritureParLibelle() {
+        AxeRow axeRow = this.excelAccessor.add(AxeRow.class);
+        axeRow.setContrat("1310010");
+        axeRow.setVolume(Integer.valueOf(7));
+        axeRow.setAbsent("ignoré");
+
+        Row row = this.workbook.getSheet("Axes").getRow(2);
+        assertEquals(7, (int) row.getCell(0).getNumericCellValue());
+        assertEquals("1310010", row.getCell(1).getStringCellValue());
+        assertEquals(2, row.getLastCellNum());
+    }
+
+    @Test
+    public void enTeteModifieeParUneLigne() {
+        AxeRow axeRow = this.excelAccessor.parse(1, AxeRow.class);
+        assertEquals("1310009", axeRow.getContrat());
+
+        // écriture dans la ligne d'en-tête par une interface de ligne : les colonnes sont résolues à nouveau
+        AxeRow headerRow = this.excelAccessor.parse(0, AxeRow.class);
+        headerRow.setContrat("Client");
+
+        assertNull(axeRow.getContrat());
+    }
+
+    @Test
+    public void enTeteModifieeHorsInterface() {
+        AxeRow axeRow = this.excelAccessor.parse(1, AxeRow.class);
+        assertEquals("1310009", axeRow.getContrat());
+
+        // déplacement de la colonne sans passer par une interface de ligne
+        Sheet sheet = this.workbook.getSheet("Axes");
+        sheet.getRow(0).getCell(1).setCellValue("Client");
+        sheet.getRow(0).createCell(3).setCellValue("Contrat");
+        sheet.getRow(1).createCell(3).setCellValue("1310011");
+        assertEquals("1310009", axeRow.getContrat());
+
+        this.excelAccessor.invalidateHeaders("Axes");
+        assertEquals("1310011", axeRow.getContrat());
+    }
+}
@@ -0,0 +1,106 @@
+package org.excelaccess.excel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.excelaccess.excel.backend.MemoryRowBackend;
+import org.excelaccess.excel.model.annotation.ExcelCell;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.excelaccess.excel.model.annotation.RepeatableExcelCell;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test des accès groupés (tableaux) aux cellules répétées.
+ * 
+ * @author Loic Abemonty
+ */
+public class RepeatableArrayTest {
+
+    @ExcelDocument(sheetName = "Planning", startAtRow = 1)
+    public interface PlanningRow {
+
+        @ExcelCell(name = "B")
+        @RepeatableExcelCell(size = 4, jump = 1)
+        Integer getSemaine(int index);
+
+        void setSemaine(int index, Integer volume);
+
+        /**
+         * colonnes de {@link #getSemaine(int)}.
+         */
+        int[] getSemaine();
+
+        void setSemaine(int[] volumes);
+
+        @ExcelCell(name = "J")
+        @RepeatableExcelCell(size = 3)
+        double[] getTaux();
+
+        void setTaux(double[] taux);
+
+        @ExcelCell(name = "M")
+        @RepeatableExcelCell(size = 2)
+        String[] getLibelle();
+
+        void setLibelle(String[] libelles);
+    }
+
+    private MemoryRowBackend row;
+
+    private PlanningRow planningRow;
+
+    @Before
+    public void setUp() {
+        this.row = new MemoryRowBackend(1, false);
+        this.planningRow = RowProxyFactory.newInstance(PlanningRow.class, new ExcelRowInvocationHandler(
+                PlanningRow.class, this.row));
+    }
+
+    @Test
+    public void lectureGroupee() {
+        this.row.setNumericValue(1, 8);
+        this.row.setNumericValue(3, 30);
+        this.row.setStringValue(7, "32");
+        this.row.setNumericValue(2, 99);
+
+        assertArrayEquals(new int[] { 8, 30, 0, 32 }, this.planningRow.getSemaine());
+        assertEquals(Integer.valueOf(30), this.planningRow.getSemaine(1));
+        assertArrayEquals(new double[] { 0, 0, 0 }, this.planningRow.getTaux(), 0);
+        assertArrayEquals(new String[] { null, null }, this.planningRow.getLibelle());
+    }
+
+    @Test
+    public void ecritureGroupee() {
+        this.planningRow.setSemaine(new int[] { 8, 30, 31 });
+        this.planningRow.setTaux(new double[] { 0.5, 1.5, 2.5, 3.5 });
+        this.planningRow.setLibelle(new String[] { "S1", "S2" });
+
+        assertEquals(8, this.row.getNumericValue(1), 0);
+        assertEquals(30, this.row.getNumericValue(3), 0);
+        assertEquals(31, this.row.getNumericValue(5), 0);
+        assertFalse(this.row.hasCell(2));
+        assertFalse(this.row.hasCell(7));
+        assertEquals(Integer.valueOf(31), this.planningRow.getSemaine(2));
+        assertArrayEquals(new double[] { 0.5, 1.5, 2.5 }, this.planningRow.getTaux(), 0);
+        assertArrayEquals(new String[] { "S1", "S2" }, this.planningRow.getLibelle());
+    }
+
+    @Test
+    public void ecritureGroupeeNull() {
+        this.planningRow.setLibelle(new String[] { "S1", "S2" });
+        this.planningRow.setLibelle(null);
+
+        // comme un setter simple : null écrit une chaîne vide
+        assertArrayEquals(new String[] { "", "" }, this.planningRow.getLibelle());
+        assertNull(this.planningRow.getSemaine(0));
+    }
+
+    @Test
+    public void enregistrement() {
+        ExcelSchemaRegistry.register(PlanningRow.class);
+        ExcelSchemaRegistry.warmUp(PlanningRow.class, 2);
+    }
+}
@@ -0,0 +1,71 @@
+package org.excelaccess.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.excelaccess.excel.model.AxeCommandeRow;
+import org.excelaccess.excel.model.IndexableAxeCommandeRow;
+import org.excelaccess.excel.test.documentation.model.excel.Cartouche;
+import org.joda.time.DateMidnight;
+import org.junit.Test;
+
+/**
+ * Test du parcours des lignes d'une feuille.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class RowCursorTest {
+
+    @Test
+    public void parcoursCartouche() throws IOException {
+        ExcelAccessor excelAccessor = ExcelAccessor.getInstance(new FileInputStream(
+                "src/test/resources/excel/test_cartouche_data.xls"));
+
+        Cartouche premier = null;
+        int i = 0;
+        DateMidnight dateMinuit = new DateMidnight(2012, 1, 1);
+        for (Cartouche cartouche : excelAccessor.cursor(Cartouche.class)) {
+            if (premier == null) {
+                premier = cartouche;
+            }
+            // un seul objet pour toutes les lignes
+            assertSame(premier, cartouche);
+            assertEquals("userName" + (i + 1), cartouche.getUserName());
+            assertEquals(dateMinuit.plusDays(i).toDate(), cartouche.getDate());
+            assertEquals(0, BigDecimal.valueOf(i + 1).compareTo(cartouche.getCost()));
+            i++;
+        }
+        assertEquals(20, i);
+    }
+
+    @Test
+    public void parcoursIdentiqueAuParse() throws IOException {
+        ExcelAccessor excelAccessor = ExcelAccessor.getInstance(new FileInputStream(
+                "src/test/resources/excel/programme-commande.xls"));
+
+        List<Integer> rowNums = new ArrayList<Integer>();
+        for (IndexableAxeCommandeRow row : excelAccessor.cursor(IndexableAxeCommandeRow.class)) {
+            int rowNum = row.getRowNum();
+            rowNums.add(rowNum);
+            AxeCommandeRow attendu = excelAccessor.parse(rowNum, AxeCommandeRow.class);
+            assertEquals(attendu.getAxe(), row.getAxe());
+            assertEquals(attendu.getCommande(0), row.getCommande(0));
+        }
+
+        // mêmes lignes qu'une recherche ligne à ligne
+        List<Integer> attendus = new ArrayList<Integer>();
+        for (int rowNum = 3; rowNum <= excelAccessor.getSheet("ProgrammeCommande-Axe").getLastRowNum(); rowNum++) {
+            if (excelAccessor.parse(rowNum, AxeCommandeRow.class) != null) {
+                attendus.add(rowNum);
+            }
+        }
+        assertEquals(attendus, rowNums);
+    }
+}
@@ -0,0 +1,265 @@
+package org.excelaccess.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+
+import org.excelaccess.excel.index.MissFilter;
+import org.excelaccess.excel.model.IndexableAxeCommandeRow;
+import org.excelaccess.excel.test.documentation.model.Document;
+import org.excelaccess.excel.test.documentation.model.excel.DocumentDelivered;
+import org.excelaccess.excel.test.documentation.service.DocumentKey;
+import org.excelaccess.excel.test.documentation.service.DocumentRowService;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.Files;
+
+/**
+ * Test de la recherche de lignes par {@link RowHandler}, ligne à ligne ou par index.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class RowHandlerTest {
+
+    private static final String NOM = "Manuel interne de livraison d’une version (génération, packaging, livraison)";
+
+    /**
+     * Recherche d'un document par son nom.
+     */
+    private static class DocumentNameRowHandler extends RowHandler<String, DocumentDelivered> {
+
+        DocumentNameRowHandler(ExcelAccessor excelAccessor, KeyExtractor<String, DocumentDelivered> keyExtractor) {
+            super(excelAccessor, keyExtractor);
+        }
+
+        @Override
+        protected boolean identifyResource(DocumentDelivered resource, String resourceKey) {
+            return isMatching(resourceKey, resource.getName());
+        }
+    }
+
+    /**
+     * Recherche ignorant la casse du nom : comparaison différente de l'égalité des colonnes clés.
+     */
+    private static class CaseInsensitiveRowService extends RowHandler<Document, DocumentDelivered> {
+
+        CaseInsensitiveRowService(ExcelAccessor excelAccessor) {
+            super(excelAccessor);
+        }
+
+        @Override
+        protected boolean identifyResource(DocumentDelivered resource, Document resourceKey) {
+            return resourceKey.getName().equalsIgnoreCase(resource.getName());
+        }
+    }
+
+    private static final KeyExtractor<String, DocumentDelivered> NAME = new KeyExtractor<String, DocumentDelivered>() {
+        @Override
+        public String getKey(DocumentDelivered row) {
+            return row.getName();
+        }
+    };
+
+    private ExcelAccessor excelAccessor;
+
+    @Before
+    public void avantTout() throws IOException {
+        excelAccessor = ExcelAccessor.getInstance(new FileInputStream(
+                "src/test/resources/excel/test_cartouche_data.xls"));
+    }
+
+    @Test
+    public void rechercheIndexeeIdentiqueALaRechercheLigneALigne() {
+        DocumentNameRowHandler ligneALigne = new DocumentNameRowHandler(excelAccessor, null);
+        DocumentNameRowHandler indexe = new DocumentNameRowHandler(excelAccessor, NAME);
+
+        assertEquals(ligneALigne.findRow(NOM).getRowNum(), indexe.findRow(NOM).getRowNum());
+        assertEquals(Integer.valueOf(5), indexe.findRow(NOM).getRowNum());
+        assertEquals(Integer.valueOf(4), indexe.findRow("Plan de gestion de la configuration").getRowNum());
+    }
+
+    @Test
+    public void creationPuisRechercheIndexee() {
+        DocumentNameRowHandler indexe = new DocumentNameRowHandler(excelAccessor, NAME);
+        int derniereLigne = excelAccessor.getSheet("Données").getLastRowNum();
+
+        DocumentDelivered nouveau = indexe.findRow("nouveau document");
+        assertEquals(Integer.valueOf(derniereLigne + 1), nouveau.getRowNum());
+        nouveau.setName("nouveau document");
+
+        // la ligne créée est retrouvée sans nouvelle création
+        assertEquals(Integer.valueOf(derniereLigne + 1), indexe.findRow("nouveau document").getRowNum());
+        assertEquals(derniereLigne + 1, excelAccessor.getSheet("Données").getLastRowNum());
+    }
+
+    @Test
+    public void rechercheParColonnesCles() {
+        RowHandler<Document, DocumentDelivered> colonnesCles = new RowHandler<Document, DocumentDelivered>(
+                excelAccessor, Document.class, DocumentDelivered.class);
+        DocumentRowService ligneALigne = new DocumentRowService(excelAccessor);
+
+        DocumentKey documentKey = new DocumentKey();
+        documentKey.application = "MLMC";
+        documentKey.type = "PIL";
+        documentKey.typeDoc = "DOCi";
+        documentKey.name = NOM;
+        assertEquals(Integer.valueOf(5), colonnesCles.findRow(documentKey).getRowNum());
+        assertEquals(ligneALigne.findRow(documentKey).getRowNum(), colonnesCles.findRow(documentKey).getRowNum());
+
+        // clé partielle : null acceptant toute valeur
+        DocumentKey partielle = new DocumentKey();
+        partielle.name = NOM;
+        assertEquals(Integer.valueOf(5), colonnesCles.findRow(partielle).getRowNum());
+    }
+
+    /**
+     * Les sous-classes renseignant les lignes connues par {@link RowHandler#getRows()} sont prises en compte.
+     */
+    @Test
+    public void lignesConnuesParGetRows() {
+        DocumentRowService ligneALigne = new DocumentRowService(excelAccessor);
+        int derniereLigne = excelAccessor.getSheet("Données").getLastRowNum();
+        DocumentKey connue = cle("MLMC", "PIL", "DOCi", "nouveau document");
+        ligneALigne.getRows().put(connue, Integer.valueOf(5));
+
+        assertEquals(Integer.valueOf(5), ligneALigne.findRow(connue).getRowNum());
+        assertEquals(derniereLigne, excelAccessor.getSheet("Données").getLastRowNum());
+        assertEquals(Integer.valueOf(5), ligneALigne.addRows(new HashMap<Document, Integer>()).get(connue));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void colonnesClesAbsentes() {
+        new RowHandler<Document, IndexableAxeCommandeRow>(excelAccessor, Document.class,
+                IndexableAxeCommandeRow.class);
+    }
+
+    @Test
+    public void rechercheParClePartielleIdentiqueALaRechercheLigneALigne() {
+        RowHandler<Document, DocumentDelivered> colonnesCles = new RowHandler<Document, DocumentDelivered>(
+                excelAccessor, Document.class, DocumentDelivered.class);
+        DocumentRowService ligneALigne = new DocumentRowService(excelAccessor);
+
+        DocumentKey[] cles = new DocumentKey[] { cle(null, null, null, null), cle("MLMC", null, null, null),
+                cle(null, "PIL", null, null), cle(null, null, "DOCi", null), cle("MLMC", "PIL", null, null),
+                cle(null, "PIL", "DOCi", null), cle(null, null, null, "Plan de gestion de la configuration"),
+                cle("MLMC", null, "DOCi", NOM) };
+        for (DocumentKey documentKey : cles) {
+            assertEquals(ligneALigne.findRow(documentKey).getRowNum(), colonnesCles.findRow(documentKey).getRowNum());
+        }
+
+        // valeurs existantes mais jamais sur la même ligne : création
+        int derniereLigne = excelAccessor.getSheet("Données").getLastRowNum();
+        DocumentKey absente = cle("MLMC", null, null, "nouveau document");
+        assertEquals(Integer.valueOf(derniereLigne + 1), colonnesCles.findRow(absente).getRowNum());
+        assertEquals(Integer.valueOf(derniereLigne + 1), colonnesCles.findRow(absente).getRowNum());
+    }
+
+    @Test
+    public void filtreDesClesAbsentes() {
+        DocumentRowService ligneALigne = new DocumentRowService(excelAccessor);
+        ligneALigne.enableMissFilter(0.01);
+        int derniereLigne = excelAccessor.getSheet("Données").getLastRowNum();
+
+        assertEquals(Integer.valueOf(5), ligneALigne.findRow(cle("MLMC", "PIL", "DOCi", NOM)).getRowNum());
+        DocumentKey absente = cle("MLMC", "PIL", "DOCi", "nouveau document");
+        assertEquals(Integer.valueOf(derniereLigne + 1), ligneALigne.findRow(absente).getRowNum());
+
+        MissFilter missFilter = ligneALigne.getMissFilter();
+        assertEquals(2, missFilter.getLookups());
+        assertEquals(1, missFilter.getDefiniteMisses());
+        assertEquals(0, missFilter.getFalsePositives());
+    }
+
+    @Test
+    public void filtreDesClesAbsentesSurDemande() {
+        CaseInsensitiveRowService ligneALigne = new CaseInsensitiveRowService(excelAccessor);
+        DocumentKey majuscules = cle("MLMC", "PIL", "DOCi", NOM.toUpperCase());
+
+        // sans activation explicite, identifyResource est toujours appelée
+        assertEquals(Integer.valueOf(5), ligneALigne.findRow(majuscules).getRowNum());
+        assertEquals(null, ligneALigne.getMissFilter());
+
+        // contrat du filtre non respecté : la ligne existante est écartée, une ligne en double est créée
+        CaseInsensitiveRowService filtre = new CaseInsensitiveRowService(excelAccessor);
+        filtre.enableMissFilter(100, 0.01);
+        int derniereLigne = excelAccessor.getSheet("Données").getLastRowNum();
+        assertEquals(Integer.valueOf(derniereLigne + 1), filtre.findRow(majuscules).getRowNum());
+        assertEquals(1, filtre.getMissFilter().getDefiniteMisses());
+    }
+
+    @Test
+    public void indexEnregistreRelu() throws IOException {
+        File classeur = File.createTempFile("cartouche", ".xls");
+        File index = new File(classeur.getPath() + ".idx");
+        classeur.deleteOnExit();
+        index.deleteOnExit();
+        Files.copy(new File("src/test/resources/excel/test_cartouche_data.xls"), classeur);
+
+        RowHandler<Document, DocumentDelivered> premier = colonnesCles(classeur, index);
+        assertEquals(Integer.valueOf(5), premier.findRow(cle("MLMC", "PIL", "DOCi", NOM)).getRowNum());
+        assertFalse(premier.isIndexFileLoaded());
+        premier.saveIndex();
+
+        RowHandler<Document, DocumentDelivered> second = colonnesCles(classeur, index);
+        assertEquals(Integer.valueOf(5), second.findRow(cle(null, null, null, NOM)).getRowNum());
+        assertTrue(second.isIndexFileLoaded());
+        // le fichier lu peut être remplacé aussitôt
+        second.saveIndex();
+        RowHandler<Document, DocumentDelivered> relu = colonnesCles(classeur, index);
+        assertEquals(Integer.valueOf(5), relu.findRow(cle(null, null, null, NOM)).getRowNum());
+        assertTrue(relu.isIndexFileLoaded());
+
+        // classeur modifié : nouvelle lecture de la feuille
+        assertTrue(classeur.setLastModified(classeur.lastModified() + 2000));
+        RowHandler<Document, DocumentDelivered> troisieme = colonnesCles(classeur, index);
+        assertEquals(Integer.valueOf(5), troisieme.findRow(cle(null, null, null, NOM)).getRowNum());
+        assertFalse(troisieme.isIndexFileLoaded());
+    }
+
+    private static RowHandler<Document, DocumentDelivered> colonnesCles(File classeur, File index)
+            throws IOException {
+        ExcelAccessor accessor = ExcelAccessor.getInstance(new FileInputStream(classeur));
+        RowHandler<Document, DocumentDelivered> rowHandler = new RowHandler<Document, DocumentDelivered>(accessor,
+                Document.class, DocumentDelivered.class);
+        rowHandler.setIndexFile(index, classeur);
+        return rowHandler;
+    }
+
+    private static DocumentKey cle(String application, String type, String typeDoc, String name) {
+        DocumentKey documentKey = new DocumentKey();
+        documentKey.application = application;
+        documentKey.type = type;
+        documentKey.typeDoc = typeDoc;
+        documentKey.name = name;
+        return documentKey;
+    }
+
+    @Test
+    public void creationParColonnesCles() {
+        RowHandler<Document, DocumentDelivered> colonnesCles = new RowHandler<Document, DocumentDelivered>(
+                excelAccessor, Document.class, DocumentDelivered.class);
+        int derniereLigne = excelAccessor.getSheet("Données").getLastRowNum();
+
+        DocumentKey documentKey = new DocumentKey();
+        documentKey.application = "MLMC";
+        documentKey.type = "PIL";
+        documentKey.typeDoc = "DOCi";
+        documentKey.name = "nouveau document";
+        assertEquals(Integer.valueOf(derniereLigne + 1), colonnesCles.findRow(documentKey).getRowNum());
+
+        DocumentKey memeCle = new DocumentKey();
+        memeCle.application = "MLMC";
+        memeCle.type = "PIL";
+        memeCle.typeDoc = "DOCi";
+        memeCle.name = "nouveau document";
+        assertEquals(Integer.valueOf(derniereLigne + 1), colonnesCles.findRow(memeCle).getRowNum());
+        assertEquals(derniereLigne + 1, excelAccessor.getSheet("Données").getLastRowNum());
+    }
+}
@@ -0,0 +1,90 @@
+package org.excelaccess.excel;
+
+import static org.junit.Assert.assertEquals;
+
+import org.excelaccess.excel.backend.MemoryRowBackend;
+import org.excelaccess.excel.model.IntAxeCommandeRow;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Micro-benchmark des accès à une ligne : implémentation générée à la compilation contre proxy dynamique. <br/>
+ * La ligne est en mémoire ({@link MemoryRowBackend}) pour ne mesurer que l'aiguillage des méthodes. Les durées sont
+ * affichées sur la sortie standard. <br/>
+ * Hors de la suite par défaut : lancé seulement si la propriété système {@value #ITERATIONS_PROPERTY} donne le nombre
+ * d'itérations, par exemple <tt>mvn test -Dtest=RowProxyFactoryBenchmarkTest -Dexcelaccess.benchmark.iterations=20000</tt>.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class RowProxyFactoryBenchmarkTest {
+
+    private static final String ITERATIONS_PROPERTY = "excelaccess.benchmark.iterations";
+
+    private static final int COMMANDES = 6;
+
+    private static final int PASSES = 5;
+
+    private int iterations;
+
+    private IntAxeCommandeRow generated;
+
+    private IntAxeCommandeRow proxy;
+
+    @Before
+    public void setUp() {
+        Integer iterationsProperty = Integer.getInteger(ITERATIONS_PROPERTY);
+        Assume.assumeTrue(iterationsProperty != null);
+        iterations = iterationsProperty.intValue();
+
+        MemoryRowBackend row = new MemoryRowBackend(3, false);
+        row.setStringValue(1, "1310009");
+        row.setStringValue(5, "C");
+        for (int i = 0; i < COMMANDES; i++) {
+            // colonne H et suivantes
+            row.setNumericValue(7 + i, 10 + i);
+        }
+        ExcelRowInvocationHandler handler = new ExcelRowInvocationHandler(IntAxeCommandeRow.class, row);
+        generated = RowProxyFactory.newInstance(IntAxeCommandeRow.class, handler);
+        proxy = RowProxyFactory.newProxyInstance(IntAxeCommandeRow.class, handler);
+    }
+
+    @Test
+    public void implementationGenereeContreProxy() {
+        long generatedNanos = Long.MAX_VALUE;
+        long proxyNanos = Long.MAX_VALUE;
+        // passes alternées, la première sert de chauffe : on garde la meilleure de chaque chemin
+        for (int pass = 0; pass < PASSES; pass++) {
+            long start = System.nanoTime();
+            long generatedSum = lire(generated);
+            generatedNanos = Math.min(generatedNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            long proxySum = lire(proxy);
+            proxyNanos = Math.min(proxyNanos, System.nanoTime() - start);
+
+            assertEquals(proxySum, generatedSum);
+        }
+
+        long calls = (long) iterations * (COMMANDES + 2);
+        System.out.println(String.format("%d appels : implémentation générée %.1f ns/appel, proxy %.1f ns/appel", calls,
+                (double) generatedNanos / calls, (double) proxyNanos / calls));
+    }
+
+    /**
+     * Lecture répétée des commandes et de deux colonnes texte.
+     * 
+     * @return somme des valeurs lues, pour comparer les chemins et éviter que les lectures soient éliminées
+     */
+    private long lire(IntAxeCommandeRow row) {
+        long sum = 0;
+        for (int n = 0; n < iterations; n++) {
+            for (int i = 0; i < COMMANDES; i++) {
+                sum += row.getCommande(i);
+            }
+            sum += row.getContrat().length() + row.getNature().length();
+        }
+        return sum;
+    }
+}
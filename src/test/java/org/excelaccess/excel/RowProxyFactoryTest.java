@@ -0,0 +1,138 @@
+package org.excelaccess.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.apache.commons.lang.NotImplementedException;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.excelaccess.excel.model.AxeCommandeRow;
+import org.excelaccess.excel.model.IntAxeCommandeRow;
+import org.excelaccess.excel.model.annotation.ExcelCell;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test des implémentations générées à la compilation, comparées aux proxies.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class RowProxyFactoryTest {
+
+    /**
+     * méthode non gérée : avertissement à la compilation, pas d'implémentation générée.
+     */
+    @ExcelDocument(sheetName = "ProgrammeCommande-Axe", startAtRow = 3)
+    public interface HelperRow {
+
+        @ExcelCell(1)
+        String getContrat();
+
+        void recalculer();
+    }
+
+    private HSSFWorkbook workbook;
+
+    @Before
+    public void setUp() throws IOException {
+        workbook = new HSSFWorkbook(new FileInputStream("src/test/resources/excel/programme-commande.xls"));
+    }
+
+    @Test
+    public void implementationGeneree() {
+        ExcelRowInvocationHandler handler = new ExcelRowInvocationHandler(AxeCommandeRow.class, workbook.getSheet(
+                "ProgrammeCommande-Axe").getRow(3));
+        AxeCommandeRow generated = RowProxyFactory.newInstance(AxeCommandeRow.class, handler);
+        AxeCommandeRow proxy = RowProxyFactory.newProxyInstance(AxeCommandeRow.class, handler);
+
+        assertEquals(RowProxyFactory.getGeneratedClassName(AxeCommandeRow.class), generated.getClass().getName());
+        assertFalse(Proxy.isProxyClass(generated.getClass()));
+        assertTrue(Proxy.isProxyClass(proxy.getClass()));
+
+        assertEquals(proxy.getAxe(), generated.getAxe());
+        assertEquals(proxy.getContrat(), generated.getContrat());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(proxy.getCommande(i), generated.getCommande(i));
+        }
+        assertEquals(null, generated.getCommande(6));
+    }
+
+    @Test
+    public void ecritureImplementationGeneree() {
+        ExcelRowInvocationHandler handler = new ExcelRowInvocationHandler(IntAxeCommandeRow.class, workbook.getSheet(
+                "ProgrammeCommande-Axe").getRow(3));
+        IntAxeCommandeRow generated = RowProxyFactory.newInstance(IntAxeCommandeRow.class, handler);
+        IntAxeCommandeRow proxy = RowProxyFactory.newProxyInstance(IntAxeCommandeRow.class, handler);
+
+        generated.setCommande(2, 42);
+        generated.setNature("V");
+        assertEquals(42, proxy.getCommande(2));
+        assertEquals("V", proxy.getNature());
+    }
+
+    @Test
+    public void methodesDeObject() {
+        ExcelRowInvocationHandler handler = new ExcelRowInvocationHandler(AxeCommandeRow.class, workbook.getSheet(
+                "ProgrammeCommande-Axe").getRow(3));
+        AxeCommandeRow generated = RowProxyFactory.newInstance(AxeCommandeRow.class, handler);
+        AxeCommandeRow proxy = RowProxyFactory.newProxyInstance(AxeCommandeRow.class, handler);
+
+        // même comportement que le proxy : délégué au gestionnaire
+        for (AxeCommandeRow row : new AxeCommandeRow[] { generated, proxy }) {
+            try {
+                row.toString();
+                fail("toString");
+            } catch (NotImplementedException e) {
+                // attendu
+            }
+            try {
+                row.hashCode();
+                fail("hashCode");
+            } catch (NotImplementedException e) {
+                // attendu
+            }
+            try {
+                row.equals(row);
+                fail("equals");
+            } catch (NotImplementedException e) {
+                // attendu
+            }
+        }
+    }
+
+    @Test
+    public void methodeNonGeree() {
+        ExcelRowInvocationHandler handler = new ExcelRowInvocationHandler(HelperRow.class, workbook.getSheet(
+                "ProgrammeCommande-Axe").getRow(3));
+        HelperRow row = RowProxyFactory.newInstance(HelperRow.class, handler);
+
+        assertTrue(Proxy.isProxyClass(row.getClass()));
+        assertEquals("1310009", row.getContrat());
+        row.recalculer();
+    }
+
+    @Test
+    public void chargeurDuThreadSansLInterface() {
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        // chargeur ne voyant que les classes du JDK
+        thread.setContextClassLoader(new URLClassLoader(new URL[0], null));
+        try {
+            ExcelRowInvocationHandler handler = new ExcelRowInvocationHandler(AxeCommandeRow.class, workbook
+                    .getSheet("ProgrammeCommande-Axe").getRow(3));
+            AxeCommandeRow proxy = RowProxyFactory.newProxyInstance(AxeCommandeRow.class, handler);
+            assertEquals("1310009", proxy.getContrat());
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+}
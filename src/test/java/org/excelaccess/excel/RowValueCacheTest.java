@@ -0,0 +1,138 @@
+package org.excelaccess.excel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.excelaccess.excel.backend.MemoryRowBackend;
+import org.excelaccess.excel.model.annotation.ExcelCell;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.excelaccess.excel.model.annotation.RepeatableExcelCell;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test de la conservation des valeurs lues, voir {@link ExcelDocument#cacheValues()}.
+ * 
+ * @author Loic Abemonty
+ */
+public class RowValueCacheTest {
+
+    @ExcelDocument(sheetName = "Commandes", startAtRow = 1, cacheValues = true)
+    public interface CachedRow {
+
+        @ExcelCell(name = "A")
+        String getContrat();
+
+        void setContrat(String contrat);
+
+        @ExcelCell(name = "B")
+        @RepeatableExcelCell(size = 3)
+        Integer getCommande(int index);
+
+        void setCommande(int index, Integer commande);
+    }
+
+    @ExcelDocument(sheetName = "Commandes", startAtRow = 1)
+    public interface DirectRow {
+
+        @ExcelCell(name = "A")
+        String getContrat();
+    }
+
+    /**
+     * deux getters de types différents sur la même colonne : par libellé et par lettres.
+     */
+    @ExcelDocument(sheetName = "Volumes", startAtRow = 1, cacheValues = true)
+    public interface VolumeRow {
+
+        @ExcelCell(header = "Volume")
+        String getVolumeTexte();
+
+        @ExcelCell(name = "A")
+        Double getVolume();
+
+        void setVolume(Double volume);
+    }
+
+    private MemoryRowBackend row;
+
+    @Before
+    public void setUp() {
+        this.row = new MemoryRowBackend(1, false);
+        this.row.setStringValue(0, "1310009");
+        this.row.setNumericValue(1, 8);
+        this.row.setNumericValue(2, 30);
+    }
+
+    @Test
+    public void valeursConservees() {
+        CachedRow cachedRow = RowProxyFactory.newInstance(CachedRow.class, new ExcelRowInvocationHandler(
+                CachedRow.class, this.row));
+        String contrat = cachedRow.getContrat();
+        assertEquals("1310009", contrat);
+        assertEquals(Integer.valueOf(30), cachedRow.getCommande(1));
+        assertNull(cachedRow.getCommande(2));
+
+        // modification hors de l'interface : non vue
+        this.row.setStringValue(0, "1310010");
+        this.row.setNumericValue(3, 31);
+        assertSame(contrat, cachedRow.getContrat());
+        assertNull(cachedRow.getCommande(2));
+    }
+
+    @Test
+    public void settersInvalident() {
+        CachedRow cachedRow = RowProxyFactory.newInstance(CachedRow.class, new ExcelRowInvocationHandler(
+                CachedRow.class, this.row));
+        assertEquals("1310009", cachedRow.getContrat());
+        assertEquals(Integer.valueOf(8), cachedRow.getCommande(0));
+        assertEquals(Integer.valueOf(30), cachedRow.getCommande(1));
+
+        cachedRow.setContrat("1310010");
+        cachedRow.setCommande(1, Integer.valueOf(32));
+        assertEquals("1310010", cachedRow.getContrat());
+        assertEquals(Integer.valueOf(8), cachedRow.getCommande(0));
+        assertEquals(Integer.valueOf(32), cachedRow.getCommande(1));
+    }
+
+    @Test
+    public void changementDeLigne() {
+        ExcelRowInvocationHandler handler = new ExcelRowInvocationHandler(CachedRow.class, this.row);
+        CachedRow cachedRow = RowProxyFactory.newInstance(CachedRow.class, handler);
+        assertEquals("1310009", cachedRow.getContrat());
+
+        MemoryRowBackend other = new MemoryRowBackend(2, false);
+        other.setStringValue(0, "1310011");
+        handler.setRow(other);
+        assertEquals("1310011", cachedRow.getContrat());
+        assertNull(cachedRow.getCommande(0));
+    }
+
+    @Test
+    public void sansConservation() {
+        DirectRow directRow = RowProxyFactory.newInstance(DirectRow.class, new ExcelRowInvocationHandler(
+                DirectRow.class, this.row));
+        assertEquals("1310009", directRow.getContrat());
+        this.row.setStringValue(0, "1310010");
+        assertEquals("1310010", directRow.getContrat());
+    }
+
+    @Test
+    public void gettersDeTypesDifferents() {
+        HSSFWorkbook workbook = new HSSFWorkbook();
+        Sheet sheet = workbook.createSheet("Volumes");
+        sheet.createRow(0).createCell(0).setCellValue("Volume");
+        sheet.createRow(1).createCell(0).setCellValue("12.5");
+        VolumeRow volumeRow = new ExcelAccessor(workbook).parse(1, VolumeRow.class);
+
+        assertEquals("12.5", volumeRow.getVolumeTexte());
+        assertEquals(Double.valueOf(12.5), volumeRow.getVolume());
+        assertEquals("12.5", volumeRow.getVolumeTexte());
+
+        volumeRow.setVolume(Double.valueOf(3));
+        assertEquals(Double.valueOf(3), volumeRow.getVolume());
+    }
+}
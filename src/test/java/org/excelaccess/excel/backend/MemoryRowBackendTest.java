@@ -0,0 +1,55 @@
+package org.excelaccess.excel.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.excelaccess.excel.ExcelRowInvocationHandler;
+import org.excelaccess.excel.RowProxyFactory;
+import org.excelaccess.excel.model.AxeCommandeRow;
+import org.excelaccess.excel.test.documentation.model.excel.Cartouche;
+import org.joda.time.DateMidnight;
+import org.junit.Test;
+
+/**
+ * Test des interfaces de ligne sur un stockage autre que POI.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class MemoryRowBackendTest {
+
+    @Test
+    public void ecritureLecture() {
+        MemoryRowBackend row = new MemoryRowBackend(3, false);
+        AxeCommandeRow axeCommandeRow = RowProxyFactory.newInstance(AxeCommandeRow.class,
+                new ExcelRowInvocationHandler(AxeCommandeRow.class, row));
+
+        assertNull(axeCommandeRow.getAxe());
+        axeCommandeRow.setAxe("axe");
+        axeCommandeRow.setCommande(2, 12);
+
+        assertEquals("axe", axeCommandeRow.getAxe());
+        assertEquals(Integer.valueOf(12), axeCommandeRow.getCommande(2));
+        assertNull(axeCommandeRow.getCommande(1));
+        assertTrue(row.hasCell(9));
+        assertFalse(row.hasCell(8));
+    }
+
+    @Test
+    public void dates1904() {
+        MemoryRowBackend row = new MemoryRowBackend(0, true);
+        Cartouche cartouche = RowProxyFactory.newInstance(Cartouche.class, new ExcelRowInvocationHandler(
+                Cartouche.class, row));
+
+        cartouche.setDate(new DateMidnight(2012, 1, 1).toDate());
+        cartouche.setCost(BigDecimal.ONE);
+        assertEquals(new DateMidnight(2012, 1, 1).toDate(), cartouche.getDate());
+        // 1er janvier 2012 en dates 1904
+        assertEquals(39447d, row.getNumericValue(1), 0d);
+        assertEquals(0, BigDecimal.ONE.compareTo(cartouche.getCost()));
+    }
+}
@@ -0,0 +1,44 @@
+package org.excelaccess.excel.backend;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Date;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.excelaccess.excel.ExcelAccessor;
+import org.excelaccess.excel.test.documentation.model.excel.DocumentDelivered;
+import org.junit.Test;
+
+/**
+ * Test de la mise en forme des cellules d'un document POI.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class PoiRowBackendTest {
+
+    @Test
+    public void formatSansModificationDuStylePartage() {
+        HSSFWorkbook workbook = new HSSFWorkbook();
+        Sheet sheet = workbook.createSheet("Données");
+        ExcelAccessor excelAccessor = new ExcelAccessor(workbook);
+        short stylesAvant = workbook.getNumCellStyles();
+
+        for (int i = 0; i < 100; i++) {
+            excelAccessor.add(DocumentDelivered.class).setDateLivraison(new Date());
+        }
+
+        // un seul style créé, partagé par toutes les cellules formatées
+        assertEquals(stylesAvant + 1, workbook.getNumCellStyles());
+        Cell premiere = sheet.getRow(4).getCell(10);
+        Cell derniere = sheet.getRow(103).getCell(10);
+        assertEquals(premiere.getCellStyle().getIndex(), derniere.getCellStyle().getIndex());
+        assertEquals(0xe, derniere.getCellStyle().getDataFormat());
+
+        // le style par défaut n'est pas modifié
+        Cell autre = sheet.getRow(4).createCell(20);
+        assertEquals(0, autre.getCellStyle().getDataFormat());
+    }
+}
@@ -0,0 +1,221 @@
+package org.excelaccess.excel.convert;
+
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_BOOLEAN;
+import static org.apache.poi.ss.usermodel.Cell.CELL_TYPE_STRING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.excelaccess.excel.ExcelRowInvocationHandler;
+import org.excelaccess.excel.RowProxyFactory;
+import org.excelaccess.excel.backend.MemoryRowBackend;
+import org.excelaccess.excel.backend.RowBackend;
+import org.excelaccess.excel.mapping.MethodMapping;
+import org.excelaccess.excel.model.annotation.ExcelCell;
+import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.joda.time.LocalDateTime;
+import org.junit.Test;
+
+/**
+ * Test des convertisseurs : types fournis, énumérations et convertisseur ajouté.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class ConverterRegistryTest {
+
+    /**
+     * Valeur enregistrée en texte, préfixée.
+     */
+    public static final class Reference {
+
+        private final String code;
+
+        public Reference(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+    }
+
+    @ExcelDocument(sheetName = "Types", startAtRow = 1)
+    public interface TypesRow {
+
+        @ExcelCell(0)
+        boolean isActif();
+
+        @ExcelCell(1)
+        Short getQuantite();
+
+        @ExcelCell(2)
+        TimeUnit getUnite();
+
+        @ExcelCell(3)
+        LocalDate getJour();
+
+        @ExcelCell(4)
+        Reference getReference();
+
+        @ExcelCell(5)
+        Character getCode();
+
+        void setActif(boolean actif);
+
+        void setQuantite(Short quantite);
+
+        void setUnite(TimeUnit unite);
+
+        void setJour(LocalDate jour);
+
+        void setReference(Reference reference);
+
+        void setCode(Character code);
+    }
+
+    @ExcelDocument(sheetName = "Primitifs", startAtRow = 1)
+    public interface PrimitivesRow {
+
+        @ExcelCell(0)
+        int getQuantite();
+
+        @ExcelCell(1)
+        double getTaux();
+
+        @ExcelCell(2)
+        boolean isActif();
+
+        @ExcelCell(3)
+        char getCode();
+
+        @ExcelCell(4)
+        Integer getNombre();
+    }
+
+    static {
+        ConverterRegistry.register(Reference.class, new CellConverter<Reference>() {
+
+            @Override
+            public int getCellType() {
+                return CELL_TYPE_STRING;
+            }
+
+            @Override
+            public Reference read(RowBackend row, int column, int cellType, MethodMapping methodMapping) {
+                String value = row.getStringValue(column);
+                return value.startsWith("REF-") ? new Reference(value.substring(4)) : null;
+            }
+
+            @Override
+            public void write(RowBackend row, int column, Reference value) {
+                row.setStringValue(column, "REF-" + value.getCode());
+            }
+        });
+    }
+
+    @Test
+    public void ecritureLecture() {
+        MemoryRowBackend row = new MemoryRowBackend(0, false);
+        TypesRow types = RowProxyFactory.newInstance(TypesRow.class,
+                new ExcelRowInvocationHandler(TypesRow.class, row));
+
+        types.setActif(true);
+        types.setQuantite(Short.valueOf((short) 7));
+        types.setUnite(TimeUnit.DAYS);
+        types.setJour(new LocalDate(2012, 2, 29));
+        types.setReference(new Reference("A12"));
+        types.setCode(Character.valueOf('x'));
+
+        assertTrue(types.isActif());
+        assertEquals(CELL_TYPE_BOOLEAN, row.getCellType(0));
+        assertEquals(Short.valueOf((short) 7), types.getQuantite());
+        assertEquals(7d, row.getNumericValue(1), 0d);
+        assertEquals(TimeUnit.DAYS, types.getUnite());
+        assertEquals("DAYS", row.getStringValue(2));
+        assertEquals(new LocalDate(2012, 2, 29), types.getJour());
+        assertEquals("A12", types.getReference().getCode());
+        assertEquals("REF-A12", row.getStringValue(4));
+        assertEquals(Character.valueOf('x'), types.getCode());
+    }
+
+    @Test
+    public void lectureDepuisUnTexte() {
+        MemoryRowBackend row = new MemoryRowBackend(0, false);
+        TypesRow types = RowProxyFactory.newInstance(TypesRow.class,
+                new ExcelRowInvocationHandler(TypesRow.class, row));
+
+        row.setStringValue(0, "TRUE");
+        row.setStringValue(1, "12");
+        row.setStringValue(2, "inconnue");
+        row.setStringValue(3, "2012-02-29");
+
+        assertTrue(types.isActif());
+        assertEquals(Short.valueOf((short) 12), types.getQuantite());
+        assertNull(types.getUnite());
+        assertEquals(new LocalDate(2012, 2, 29), types.getJour());
+    }
+
+    @Test
+    public void primitifsCellulesVides() {
+        MemoryRowBackend row = new MemoryRowBackend(0, false);
+        row.setStringValue(0, "");
+        row.setStringValue(2, "peut-être");
+        // implémentation générée puis proxy
+        for (PrimitivesRow primitives : new PrimitivesRow[] {
+                RowProxyFactory.newInstance(PrimitivesRow.class, new ExcelRowInvocationHandler(PrimitivesRow.class,
+                        row)),
+                RowProxyFactory.newProxyInstance(PrimitivesRow.class, new ExcelRowInvocationHandler(
+                        PrimitivesRow.class, row)) }) {
+            assertEquals(0, primitives.getQuantite());
+            assertEquals(0d, primitives.getTaux(), 0d);
+            assertEquals(false, primitives.isActif());
+            assertEquals('\0', primitives.getCode());
+            assertNull(primitives.getNombre());
+        }
+    }
+
+    @Test
+    public void entierIllisible() {
+        MemoryRowBackend row = new MemoryRowBackend(0, false);
+        PrimitivesRow primitives = RowProxyFactory.newInstance(PrimitivesRow.class, new ExcelRowInvocationHandler(
+                PrimitivesRow.class, row));
+
+        row.setStringValue(0, "douze");
+        row.setStringValue(4, "abc");
+        assertEquals(0, primitives.getQuantite());
+        assertNull(primitives.getNombre());
+
+        row.setStringValue(4, "12");
+        assertEquals(Integer.valueOf(12), primitives.getNombre());
+    }
+
+    @Test
+    public void datesTexteIdentiquesAJoda() {
+        MemoryRowBackend row = new MemoryRowBackend(0, false);
+        for (String valeur : new String[] { "2012-02-29", "2012-02-29T10:15:30", "2012-02-29T10:15:30.250+05:00",
+                "2012-W09-3", "2012-060" }) {
+            row.setStringValue(0, valeur);
+            assertEquals(valeur, new DateTime(valeur), read(DateTime.class, row));
+            assertEquals(valeur, new DateTime(valeur).toDate(), read(Date.class, row));
+            if (valeur.indexOf('+') < 0) {
+                assertEquals(valeur, new LocalDateTime(valeur), read(LocalDateTime.class, row));
+            } else {
+                // décalage horaire refusé par les dates locales
+                assertNull(valeur, read(LocalDateTime.class, row));
+            }
+            if (valeur.indexOf('T') < 0) {
+                assertEquals(valeur, new LocalDate(valeur), read(LocalDate.class, row));
+            }
+        }
+    }
+
+    private static Object read(Class<?> type, RowBackend row) {
+        return ConverterRegistry.get(type).read(row, 0, CELL_TYPE_STRING, null);
+    }
+}
@@ -0,0 +1,51 @@
+package org.excelaccess.excel.convert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Locale;
+
+import org.junit.Test;
+
+/**
+ * Test de {@link NumberParser} : même résultat que {@link NumberFormat}.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class NumberParserTest {
+
+    private static final String[] VALEURS = { "0", "12", "-12", "-0", "007", "12,5", "12.5", "-0,25", "12,00",
+            "1,000.5", "1.000,5", "12,", ",5", "-", "", "abc", "12abc", " 12", "1E3", "123456789012345678",
+            "1234567890123456789012", "12,5,3", "3,14159265358979" };
+
+    @Test
+    public void identiqueANumberFormat() {
+        for (Locale locale : new Locale[] { Locale.FRENCH, Locale.ENGLISH, Locale.GERMAN }) {
+            NumberParser parser = NumberParser.forLocale(locale);
+            NumberFormat numberFormat = NumberFormat.getInstance(locale);
+            for (String valeur : VALEURS) {
+                Number attendu;
+                try {
+                    attendu = numberFormat.parse(valeur);
+                } catch (ParseException e) {
+                    try {
+                        parser.parse(valeur);
+                        fail(locale + " '" + valeur + "' devrait être refusée");
+                    } catch (ParseException expected) {
+                        // refusée par les deux
+                    }
+                    continue;
+                }
+                try {
+                    Number lu = parser.parse(valeur);
+                    assertEquals(locale + " '" + valeur + "'", attendu, lu);
+                } catch (ParseException e) {
+                    fail(locale + " '" + valeur + "' refusée");
+                }
+            }
+        }
+    }
+}
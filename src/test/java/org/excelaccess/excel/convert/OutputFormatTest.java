@@ -0,0 +1,103 @@
+package org.excelaccess.excel.convert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.IllegalFormatException;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+/**
+ * Test de {@link OutputFormat} : même résultat que {@link String#format(Locale, String, Object...)}.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class OutputFormatTest {
+
+    private static final String[] FORMATS = { "%1$tY-%<tm-%<td", "%tF %<tT.%<tL", "le %te/%<tm/%<ty à %<tR",
+            "%tD%n", "%s", "[%s] 100%%", "%d", "%05d", "%,d", "%.2f", "%2$s" };
+
+    private static final Object[] VALEURS = { new DateTime(2012, 2, 29, 8, 5, 3, 7).toDate(),
+            new DateTime(1999, 12, 31, 23, 59, 59, 999).toDate(), new DateTime(1850, 1, 1, 0, 0, 0, 0).toDate(),
+            "texte", Integer.valueOf(-42), Long.valueOf(1234567), Double.valueOf(3.14159), BigDecimal.TEN };
+
+    @Test
+    public void identiqueAStringFormat() {
+        for (Locale locale : new Locale[] { Locale.FRENCH, Locale.ENGLISH }) {
+            for (String format : FORMATS) {
+                OutputFormat outputFormat = OutputFormat.compile(format, locale);
+                for (Object valeur : VALEURS) {
+                    String attendu;
+                    try {
+                        attendu = String.format(locale, format, valeur);
+                    } catch (IllegalFormatException e) {
+                        attendu = null;
+                    }
+                    try {
+                        assertEquals(format + " / " + valeur, attendu, outputFormat.format(valeur));
+                    } catch (IllegalFormatException e) {
+                        assertEquals(format + " / " + valeur + " : " + e, null, attendu);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Les champs de date suivent le fuseau par défaut du JDK, comme {@link java.util.Formatter}.
+     */
+    @Test
+    public void identiqueAStringFormatHorsUtc() {
+        TimeZone defaut = TimeZone.getDefault();
+        try {
+            for (String fuseau : new String[] { "America/Sao_Paulo", "Europe/Istanbul", "Europe/Paris" }) {
+                TimeZone.setDefault(TimeZone.getTimeZone(fuseau));
+                Date date = new GregorianCalendar(2020, Calendar.NOVEMBER, 15, 12, 0).getTime();
+                for (String format : new String[] { "%tF %<tH:%<tM", "%tF %<tT.%<tL" }) {
+                    OutputFormat outputFormat = OutputFormat.compile(format, Locale.FRENCH);
+                    assertTrue(outputFormat.isDirect());
+                    assertEquals(format + " / " + fuseau, String.format(Locale.FRENCH, format, date),
+                            outputFormat.format(date));
+                }
+                assertEquals(fuseau, "2020-11-15 12:00", OutputFormat.compile("%tF %<tH:%<tM", Locale.FRENCH)
+                        .format(date));
+            }
+        } finally {
+            TimeZone.setDefault(defaut);
+        }
+    }
+
+    @Test
+    public void formatsDirects() {
+        assertTrue(OutputFormat.compile("%1$tY-%<tm-%<td", Locale.FRENCH).isDirect());
+        assertTrue(OutputFormat.compile("[%s] 100%%", Locale.FRENCH).isDirect());
+        assertFalse(OutputFormat.compile("%05d", Locale.FRENCH).isDirect());
+        assertFalse(OutputFormat.compile("%2$s", Locale.FRENCH).isDirect());
+    }
+
+    @Test
+    public void verificationDuType() {
+        OutputFormat.compile("%1$tY-%<tm-%<td", Locale.FRENCH).check(Date.class);
+        OutputFormat.compile("%.2f", Locale.FRENCH).check(double.class);
+        OutputFormat.compile("%s", Locale.FRENCH).check(Object.class);
+        for (Object[] invalide : new Object[][] { { "%tY", Integer.class }, { "%d", String.class },
+                { "%q", Object.class }, { "100%", String.class }, { "%1$tY-%<tm", DateTime.class } }) {
+            try {
+                OutputFormat.compile((String) invalide[0], Locale.FRENCH).check((Class<?>) invalide[1]);
+                fail(invalide[0] + " accepté pour " + invalide[1]);
+            } catch (IllegalFormatException e) {
+                // attendu
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.excelaccess.excel.index;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test de {@link BloomFilter}.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class BloomFilterTest {
+
+    @Test
+    public void aucunFauxNegatifEtTauxDeFauxPositifsRespecte() {
+        BloomFilter bloomFilter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            bloomFilter.put(new RowKey(new Object[] { "MLMC", "ligne " + i }));
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(bloomFilter.mightContain(new RowKey(new Object[] { "MLMC", "ligne " + i })));
+        }
+
+        int fauxPositifs = 0;
+        for (int i = 10000; i < 20000; i++) {
+            if (bloomFilter.mightContain(new RowKey(new Object[] { "MLMC", "ligne " + i }))) {
+                fauxPositifs++;
+            }
+        }
+        assertTrue("faux positifs : " + fauxPositifs, fauxPositifs < 300);
+    }
+}
@@ -0,0 +1,96 @@
+package org.excelaccess.excel.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test de {@link ObjectIntHashMap}.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class ObjectIntHashMapTest {
+
+    @Test
+    public void ajoutEtLectureAvecAgrandissements() {
+        ObjectIntHashMap<String> map = new ObjectIntHashMap<String>();
+        for (int i = 0; i < 10000; i++) {
+            map.put("ligne " + i, i);
+        }
+        map.put("ligne 42", 4242);
+
+        assertEquals(10000, map.size());
+        assertEquals(4242, map.get("ligne 42", -1));
+        assertEquals(9999, map.get("ligne 9999", -1));
+        assertEquals(-1, map.get("ligne 10000", -1));
+        assertFalse(map.containsKey("inconnue"));
+    }
+
+    @Test
+    public void cleNullEtCopie() {
+        ObjectIntHashMap<String> map = new ObjectIntHashMap<String>(2);
+        map.put(null, 3);
+        map.put("a", 0);
+
+        assertTrue(map.containsKey(null));
+        assertEquals(3, map.get(null, -1));
+
+        Map<String, Integer> copie = map.toMap();
+        assertEquals(2, copie.size());
+        assertEquals(Integer.valueOf(3), copie.get(null));
+        assertEquals(Integer.valueOf(0), copie.get("a"));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.get("a", -1));
+    }
+
+    @Test
+    public void suppressionIdentiqueAHashMap() {
+        ObjectIntHashMap<Integer> map = new ObjectIntHashMap<Integer>();
+        Map<Integer, Integer> attendu = new HashMap<Integer, Integer>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            Integer cle = Integer.valueOf(random.nextInt(500));
+            if (random.nextBoolean()) {
+                map.put(cle, i);
+                attendu.put(cle, Integer.valueOf(i));
+            } else {
+                Integer supprime = attendu.remove(cle);
+                assertEquals(supprime == null ? -1 : supprime.intValue(), map.remove(cle, -1));
+            }
+        }
+        assertEquals(attendu, map.toMap());
+        assertEquals(attendu.size(), map.size());
+    }
+
+    @Test
+    public void vueModifiable() {
+        ObjectIntHashMap<String> map = new ObjectIntHashMap<String>();
+        Map<String, Integer> vue = map.asMap();
+        assertEquals(null, vue.put("a", Integer.valueOf(1)));
+        vue.put(null, Integer.valueOf(2));
+        assertEquals(1, map.get("a", -1));
+        assertEquals(Integer.valueOf(1), vue.put("a", Integer.valueOf(3)));
+
+        map.put("b", 4);
+        assertEquals(Integer.valueOf(4), vue.get("b"));
+        assertEquals(3, vue.size());
+        for (Map.Entry<String, Integer> entry : vue.entrySet()) {
+            entry.setValue(Integer.valueOf(entry.getValue().intValue() * 10));
+        }
+        assertEquals(20, map.get(null, -1));
+
+        assertEquals(Integer.valueOf(30), vue.remove("a"));
+        assertEquals(null, vue.remove("a"));
+        assertFalse(map.containsKey("a"));
+        assertEquals(map.toMap(), vue);
+    }
+}
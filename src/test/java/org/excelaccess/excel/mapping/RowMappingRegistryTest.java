@@ -0,0 +1,70 @@
+package org.excelaccess.excel.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.BitSet;
+
+import org.excelaccess.excel.model.AxeCommandeRow;
+import org.excelaccess.excel.model.IndexableAxeCommandeRow;
+import org.excelaccess.excel.model.annotation.ExcelInternalEnum;
+import org.junit.Test;
+
+/**
+ * Test de la description précalculée des interfaces de ligne.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class RowMappingRegistryTest {
+
+    @Test
+    public void mappingPartage() {
+        assertSame(RowMappingRegistry.getMapping(AxeCommandeRow.class),
+                RowMappingRegistry.getMapping(AxeCommandeRow.class));
+    }
+
+    @Test
+    public void mappingGetterEtSetter() throws NoSuchMethodException {
+        RowMapping rowMapping = RowMappingRegistry.getMapping(AxeCommandeRow.class);
+
+        MethodMapping getter = rowMapping.getMethodMapping(AxeCommandeRow.class.getMethod("getCommande", int.class));
+        assertEquals(MethodKind.INDEXED_GETTER, getter.getKind());
+        assertEquals(7, getter.getColumn());
+        assertEquals(6, getter.getRepeatableExcelCell().size());
+        assertEquals(2, getter.getColumnDelta(2));
+        assertEquals(-1, getter.getColumnDelta(6));
+
+        // le setter porte les informations du getter
+        MethodMapping setter = rowMapping.getMethodMapping(AxeCommandeRow.class.getMethod("setCommande", int.class,
+                Integer.class));
+        assertEquals(MethodKind.INDEXED_SETTER, setter.getKind());
+        assertEquals(7, setter.getColumn());
+        assertEquals(6, setter.getRepeatableExcelCell().size());
+        assertNull(setter.getExcelInternal());
+    }
+
+    @Test
+    public void mappingInterne() throws NoSuchMethodException {
+        RowMapping rowMapping = RowMappingRegistry.getMapping(IndexableAxeCommandeRow.class);
+        MethodMapping rowNum = rowMapping.getMethodMapping(IndexableAxeCommandeRow.class.getMethod("getRowNum"));
+        assertEquals(MethodKind.INTERNAL, rowNum.getKind());
+        assertEquals(ExcelInternalEnum.ROW_LINE, rowNum.getExcelInternal());
+    }
+
+    @Test
+    public void colonnesDeclarees() {
+        RowMapping rowMapping = RowMappingRegistry.getMapping(AxeCommandeRow.class);
+        BitSet columns = rowMapping.getColumns();
+        // contrat, axe, axeId, nature puis les 6 commandes à partir de H
+        assertEquals("{1, 3, 4, 5, 7, 8, 9, 10, 11, 12}", columns.toString());
+        assertFalse(rowMapping.isColumnUsed(0));
+        assertFalse(rowMapping.isColumnUsed(13));
+
+        // copie défensive
+        columns.clear();
+        assertEquals(10, rowMapping.getColumns().cardinality());
+    }
+}
@@ -6,6 +6,7 @@ import org.excelaccess.excel.model.IndexableRow;
 import org.excelaccess.excel.model.annotation.ExcelCell;
 import org.excelaccess.excel.model.annotation.ExcelCellFormat;
 import org.excelaccess.excel.model.annotation.ExcelDocument;
+import org.excelaccess.excel.model.annotation.ExcelKey;
 import org.excelaccess.excel.test.documentation.model.Document;
 
 /**
@@ -20,6 +21,7 @@ public interface DocumentDelivered extends Document, IndexableRow {
      * Nom de l'application
      */
     @Override
+    @ExcelKey
     @ExcelCell(value = 0)
     String getApplication();
 
@@ -42,6 +44,7 @@ public interface DocumentDelivered extends Document, IndexableRow {
      * Nom du fichier.
      */
     @Override
+    @ExcelKey
     @ExcelCell(name = "D")
     String getName();
 
@@ -56,6 +59,7 @@ public interface DocumentDelivered extends Document, IndexableRow {
      * Catégorie de la documentation.
      */
     @Override
+    @ExcelKey
     @ExcelCell(value = 1)
     String getType();
 
@@ -63,6 +67,7 @@ public interface DocumentDelivered extends Document, IndexableRow {
      * Type du fichier (spec fonctionnelle, spec technique, etc).
      */
     @Override
+    @ExcelKey
     @ExcelCell(value = 2)
     String getTypeDoc();
 
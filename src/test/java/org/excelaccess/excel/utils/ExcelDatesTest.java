@@ -0,0 +1,70 @@
+package org.excelaccess.excel.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.joda.time.LocalDateTime;
+import org.joda.time.chrono.ISOChronology;
+import org.junit.Test;
+
+/**
+ * Test de {@link ExcelDates} : mêmes dates que {@link DateUtil}.
+ * 
+ * @author Loic Abemonty
+ * 
+ */
+public class ExcelDatesTest {
+
+    private static final double[] NOMBRES = { 0, 0.5, 1, 59, 59.75, 60, 60.25, 61, 1461, 1462, 25569, 36526.999999,
+            39447, 41274.5, 41274.123456, 73050.9999999, 44150.5, 44136, 44248, 44283.1041666667, 44500.1041666667 };
+
+    /**
+     * Fuseaux aux changements d'heure ou de décalage récents, dont les données peuvent différer entre le JDK et Joda.
+     */
+    private static final String[] FUSEAUX = { "UTC", "Europe/Paris", "America/Sao_Paulo", "Europe/Istanbul",
+            "Australia/Lord_Howe" };
+
+    @Test
+    public void identiqueADateUtil() {
+        TimeZone defaut = TimeZone.getDefault();
+        try {
+            for (String fuseau : FUSEAUX) {
+                TimeZone.setDefault(TimeZone.getTimeZone(fuseau));
+                verifierDateUtil(fuseau);
+            }
+        } finally {
+            TimeZone.setDefault(defaut);
+        }
+    }
+
+    private void verifierDateUtil(String fuseau) {
+        for (boolean date1904 : new boolean[] { false, true }) {
+            for (double nombre : NOMBRES) {
+                String message = nombre + " / " + date1904 + " / " + fuseau;
+                Date attendu = DateUtil.getJavaDate(nombre, date1904);
+                long localMillis = ExcelDates.toLocalMillis(nombre, date1904);
+                assertEquals(message, attendu.getTime(), ExcelDates.toInstantMillis(localMillis));
+                // champs locaux du JDK, y compris pour une heure décalée par un changement d'heure
+                assertEquals(message, LocalDateTime.fromDateFields(attendu), new LocalDateTime(
+                        ExcelDates.toLocalMillis(attendu), ISOChronology.getInstanceUTC()));
+                if (nombre >= 1) {
+                    assertEquals(message, DateUtil.getExcelDate(attendu, date1904),
+                            ExcelDates.toSerial(ExcelDates.toLocalMillis(attendu), date1904), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void horsDuSystemeDeDates() {
+        assertEquals(ExcelDates.INVALID, ExcelDates.toLocalMillis(-1, false));
+        assertEquals(ExcelDates.INVALID, ExcelDates.toLocalMillis(Double.NaN, true));
+        long debut1904 = ExcelDates.toLocalMillis(0, true);
+        assertEquals(-1d, ExcelDates.toSerial(debut1904 - 1, true), 0d);
+        assertEquals(0d, ExcelDates.toSerial(debut1904, true), 0d);
+        assertEquals(-1d, ExcelDates.toSerial(ExcelDates.toLocalMillis(0, false), false), 0d);
+    }
+}